@@ -0,0 +1,148 @@
+package io.github.ttno1.configvalidation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Validates one {@linkplain ConfigSpec} against many configs with a bounded number of threads.<br>
+ * Each worker pulls the next config from the shared iterator, so at most {@code parallelism} configs are in flight at once 
+ * and the input is never buffered. Workers collect their own results, which are merged once all of them are done.
+ */
+final class BatchValidation {
+	
+	private final ConfigSpec<?> spec;
+	
+	private final Iterator<? extends ConfigWrapper> configWrappers;
+	
+	private final ValidationOptions options;
+	
+	private int nextIndex;
+	
+	private BatchValidation(ConfigSpec<?> spec, Iterator<? extends ConfigWrapper> configWrappers, ValidationOptions options) {
+		this.spec = spec;
+		this.configWrappers = configWrappers;
+		this.options = options;
+	}
+	
+	static BatchValidationReport validate(ConfigSpec<?> spec, Iterator<? extends ConfigWrapper> configWrappers, int parallelism, ValidationOptions options) {
+		if(configWrappers == null) {
+			throw new NullPointerException("Config wrappers cannot be null");
+		}
+		if(options == null) {
+			throw new NullPointerException("Options cannot be null");
+		}
+		if(parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1");
+		}
+		BatchValidation batch = new BatchValidation(spec, configWrappers, options);
+		List<Worker> workers = new ArrayList<Worker>(parallelism);
+		for(int i = 0; i < parallelism; i++) {
+			workers.add(batch.new Worker());
+		}
+		if(parallelism == 1) {
+			workers.get(0).run();
+		} else {
+			ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+			try {
+				List<Future<?>> futures = new ArrayList<Future<?>>(parallelism);
+				for(Worker worker : workers) {
+					futures.add(executor.submit(worker));
+				}
+				for(Future<?> future : futures) {
+					future.get();
+				}
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted during batch validation", e);
+			} catch(ExecutionException e) {
+				if(e.getCause() instanceof RuntimeException runtimeException) {
+					throw runtimeException;
+				}
+				if(e.getCause() instanceof Error error) {
+					throw error;
+				}
+				throw new IllegalStateException(e.getCause());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+		
+		BitSet passed = new BitSet(batch.nextIndex);
+		Map<String, BatchValidationReport.PathFailures> merged = new HashMap<String, BatchValidationReport.PathFailures>();
+		for(Worker worker : workers) {
+			passed.or(worker.passed);
+			worker.failures.forEach((path, failures) -> {
+				merged.merge(path, failures, (a, b) -> {
+					BatchValidationReport.PathFailures first = a.firstIndex() < b.firstIndex() ? a : b;
+					return new BatchValidationReport.PathFailures(a.count() + b.count(), first.firstIndex(), first.firstFailMessage());
+				});
+			});
+		}
+		return new BatchValidationReport(batch.nextIndex, passed, new TreeMap<String, BatchValidationReport.PathFailures>(merged));
+	}
+	
+	/**
+	 * Claims the next config to validate.
+	 * @param worker the worker whose current index is set to the index of the claimed config
+	 * @return the claimed config or null if there are none left
+	 */
+	private synchronized ConfigWrapper next(Worker worker) {
+		if(!configWrappers.hasNext()) {
+			return null;
+		}
+		ConfigWrapper configWrapper = configWrappers.next();
+		if(configWrapper == null) {
+			throw new NullPointerException("Config wrappers cannot contain null");
+		}
+		worker.index = nextIndex++;
+		return configWrapper;
+	}
+	
+	/**
+	 * Validates configs until there are none left and records the nodes that failed without a failing node nested within them.
+	 */
+	private final class Worker implements Runnable, ValidationContext.FailureRecorder {
+		
+		private final BitSet passed = new BitSet();
+		
+		private final Map<String, BatchValidationReport.PathFailures> failures = new HashMap<String, BatchValidationReport.PathFailures>();
+		
+		private int index;
+		
+		@Override
+		public void run() {
+			ConfigWrapper configWrapper;
+			while((configWrapper = next(this)) != null) {
+				// a recorder instead of a listener keeps the run free of probes and lets lists validate in parallel
+				ValidationContext context = ValidationContext.of(options, this);
+				if(spec.validate(configWrapper, "", "", context).passed()) {
+					passed.set(index);
+				}
+			}
+		}
+		
+		/**
+		 * Called from the threads of parallel lists as well as the worker's own thread.
+		 */
+		@Override
+		public synchronized void leafFailed(String path, String failMessage) {
+			BatchValidationReport.PathFailures previous = failures.get(path);
+			if(previous == null) {
+				failures.put(path, new BatchValidationReport.PathFailures(1, index, failMessage));
+			} else {
+				failures.put(path, new BatchValidationReport.PathFailures(previous.count() + 1, previous.firstIndex(), previous.firstFailMessage()));
+			}
+		}
+		
+	}
+	
+}
@@ -0,0 +1,109 @@
+package io.github.ttno1.configvalidation;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * The aggregated result of validating one {@linkplain ConfigSpec} against many configs with 
+ * {@linkplain ConfigSpec#validateAll(Iterable, int)}.<br>
+ * Instead of one fail message per config, the report keeps whether each config passed as a bit and groups failures by the 
+ * path of the node that failed. Only the first fail message of each path is kept.
+ */
+public final class BatchValidationReport {
+	
+	private final int size;
+	
+	private final BitSet passed;
+	
+	private final SortedMap<String, PathFailures> failuresByPath;
+	
+	BatchValidationReport(int size, BitSet passed, SortedMap<String, PathFailures> failuresByPath) {
+		this.size = size;
+		this.passed = passed;
+		this.failuresByPath = Collections.unmodifiableSortedMap(failuresByPath);
+	}
+	
+	/**
+	 * 
+	 * @return the number of configs that were validated
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * 
+	 * @param index the index of the config in the order it was supplied
+	 * @return whether the config at {@code index} passed validation
+	 * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #size()}
+	 */
+	public boolean passed(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		return passed.get(index);
+	}
+	
+	/**
+	 * 
+	 * @return whether every config passed validation
+	 */
+	public boolean allPassed() {
+		return passed.cardinality() == size;
+	}
+	
+	/**
+	 * 
+	 * @return the number of configs that passed validation
+	 */
+	public int getPassedCount() {
+		return passed.cardinality();
+	}
+	
+	/**
+	 * 
+	 * @return the number of configs that failed validation
+	 */
+	public int getFailedCount() {
+		return size - passed.cardinality();
+	}
+	
+	/**
+	 * 
+	 * @return a new bit set in which the bit of each config that passed validation is set
+	 */
+	public BitSet getPassed() {
+		return (BitSet) passed.clone();
+	}
+	
+	/**
+	 * 
+	 * @return the failures of each node that failed in any config, by absolute node path
+	 */
+	public SortedMap<String, PathFailures> getFailuresByPath() {
+		return failuresByPath;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append(getPassedCount()).append(" of ").append(size).append(" configs passed validation");
+		for(Map.Entry<String, PathFailures> entry : failuresByPath.entrySet()) {
+			PathFailures failures = entry.getValue();
+			builder.append(System.lineSeparator()).append(entry.getKey()).append(" - failed in ").append(failures.count())
+					.append(" configs (first at index ").append(failures.firstIndex()).append("): ").append(failures.firstFailMessage());
+		}
+		return builder.toString();
+	}
+	
+	/**
+	 * The failures of a single node path across all configs.
+	 * @param count the number of configs in which the node failed
+	 * @param firstIndex the index of the first config in which the node failed
+	 * @param firstFailMessage the fail message of the node in the config at {@code firstIndex}
+	 */
+	public record PathFailures(int count, int firstIndex, String firstFailMessage) {}
+	
+}
@@ -263,7 +263,7 @@ public final class Cfg {
 		 * @return a ConfigList of ConfigWrapper values with the specified filters
 		 */
 		public static <W, X> ConfigList<ConfigWrapper, X, W> ofConfigSpec(ConfigFilter<java.util.List<X>, W> filter, ConfigSpec<X> configSpec) {
-			return new ConfigList<ConfigWrapper, X, W>(filter, configSpec.getFilter(), BaseType.CONFIG_SECTION);
+			return ConfigList.ofConfigSpec(filter, configSpec);
 		}
 
 		/**
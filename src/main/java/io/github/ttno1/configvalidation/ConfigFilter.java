@@ -19,25 +19,55 @@ public interface ConfigFilter<T, U> {
 	 */
 	ConfigFilterResult<U> filter(T input);
 	
+	/**
+	 * Returns a hint of how expensive this filter is to run, which determines the order in which the nodes of a 
+	 * {@linkplain ConfigSpec} are validated.
+	 * @return the cost of this filter, {@link FilterCost#MODERATE} unless set with {@link #withCost(FilterCost)}
+	 */
+	default FilterCost getCost() {
+		return FilterCost.MODERATE;
+	}
+	
+	/**
+	 * Returns a filter that behaves like {@code this} with the provided cost hint.
+	 * @param cost the cost of the filter
+	 * @return a filter with the provided cost
+	 * @throws NullPointerException if {@code cost} is null
+	 * @see FilterCost
+	 */
+	default ConfigFilter<T, U> withCost(FilterCost cost) {
+		if(cost == null) {
+			throw new NullPointerException("Cost cannot be null");
+		}
+		return cost == getCost() ? this : new CostedFilter<T, U>(this, cost);
+	}
+	
 	/**
 	 * Returns a filter that takes in the input of {@code this} and returns the output of the supplied filter.<br>
-	 * Useful for chaining multiple filters together into one filter.
+	 * Useful for chaining multiple filters together into one filter.<br>
+	 * The cost of the returned filter is the higher of the two costs.
 	 * @param <V> the type that the new filter returns
 	 * @param filter a filter that takes the output of {@code this} and returns a new type
 	 * @return a filter that takes the input of {@code this} and returns the output of the supplied filter
 	 * @throws NullPointerException if filter is null
 	 */
+	@SuppressWarnings("unchecked")
 	default <V> ConfigFilter<T, V> withFilter(ConfigFilter<U, V> filter) {
 		if(filter == null) {
 			throw new NullPointerException("Filter cannot be null");
 		}
-		return (T in) -> {
+		if(NullFilter.isNullFilter(filter)) {
+			return (ConfigFilter<T, V>) this;
+		}
+		ConfigFilter<T, V> chained = (T in) -> {
 			ConfigFilterResult<U> result = filter(in);
 			if(!result.passed()) {
-				return ConfigFilterResult.fail(result.getFailMessage());
+				// a failed result holds no output, so it is passed on as is
+				return (ConfigFilterResult<V>) result;
 			}
 			return filter.filter(result.getResult());
 		};
+		return chained.withCost(FilterCost.max(getCost(), filter.getCost()));
 	}
 	
 	/**
@@ -47,13 +77,14 @@ public interface ConfigFilter<T, U> {
 	 * @return a filter that outputs the same value as {@code this} after running the supplied {@link Consumer}
 	 */
 	default ConfigFilter<T, U> thenRun(Consumer<U> consumer) {
-		return (T in) -> {
+		ConfigFilter<T, U> run = (T in) -> {
 			ConfigFilterResult<U> result = filter(in);
 			if(result.passed()) {
 				consumer.accept(result.getResult());
 			}
 			return result;
 		};
+		return run.withCost(getCost());
 	}
 	
 	/**
@@ -66,12 +97,14 @@ public interface ConfigFilter<T, U> {
 	}
 	
 	/**
-	 * A "null" filter that does nothing. It will always pass with its input as its output.
+	 * A "null" filter that does nothing. It will always pass with its input as its output.<br>
+	 * The same instance is always returned, which allows it to be skipped where its output is not used.
 	 * @param <X> the type of the filter input and output
 	 * @return a filter that passes with its input as its output
 	 */
+	@SuppressWarnings("unchecked")
 	static <X> ConfigFilter<X, X> nullFilter(){
-		return (X in) -> {return ConfigFilterResult.pass(in);};
+		return (ConfigFilter<X, X>) NullFilter.INSTANCE;
 	}
 	
 }
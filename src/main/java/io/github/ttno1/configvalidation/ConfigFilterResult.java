@@ -1,5 +1,7 @@
 package io.github.ttno1.configvalidation;
 
+import java.util.function.Supplier;
+
 /**
  * Represents the result of a {@linkplain ConfigFilter}.<br>
  * Specifies whether it passed or failed, the output if it passed, and the fail message if it failed.
@@ -11,15 +13,24 @@ public class ConfigFilterResult<T> {
 	
 	private final T result;
 	
-	private final String failMsg;
+	private String failMsg;
+	
+	private final Supplier<String> failMsgSupplier;
 	
-	private ConfigFilterResult(boolean pass, T result, String failMsg) {
+	private static final ConfigFilterResult<Object> PASS_NULL = new ConfigFilterResult<Object>(true, null, null, null);
+	
+	private ConfigFilterResult(boolean pass, T result, String failMsg, Supplier<String> failMsgSupplier) {
 		this.pass = pass;
 		this.result = result;
 		this.failMsg = failMsg;
+		this.failMsgSupplier = failMsgSupplier;
 	}
 	
-	protected boolean passed() {
+	/**
+	 * 
+	 * @return whether this filter passed
+	 */
+	public boolean passed() {
 		return pass;
 	}
 	
@@ -28,7 +39,7 @@ public class ConfigFilterResult<T> {
 	 * @return the result
 	 * @throws IllegalStateException if this result failed
 	 */
-	protected T getResult() {
+	public T getResult() {
 		if(!pass) {
 			throw new IllegalStateException("Cannot get result of failed filter");
 		}
@@ -40,21 +51,32 @@ public class ConfigFilterResult<T> {
 	 * @return the fail message
 	 * @throws IllegalStateException if this result passed
 	 */
-	protected String getFailMessage() {
+	public String getFailMessage() {
 		if(pass) {
 			throw new IllegalStateException("Cannot get fail message of passed filter");
 		}
-		return failMsg;
+		String message = failMsg;
+		if(message == null && failMsgSupplier != null) {
+			// the supplier returns an equal string each time, so racing threads may both call it
+			message = failMsgSupplier.get();
+			failMsg = message;
+		}
+		return message;
 	}
 	
 	/**
-	 * Creates a new ConfigFilterResult that passed with the specified output.
+	 * Creates a new ConfigFilterResult that passed with the specified output.<br>
+	 * A single shared instance is returned when the output is null.
 	 * @param <U> the output type
 	 * @param result the output
-	 * @return a new ConfigFilterResult that passed with the specified output
+	 * @return a ConfigFilterResult that passed with the specified output
 	 */
+	@SuppressWarnings("unchecked")
 	public static <U> ConfigFilterResult<U> pass(U result) {
-		return new ConfigFilterResult<U>(true, result, null);
+		if(result == null) {
+			return (ConfigFilterResult<U>) PASS_NULL;
+		}
+		return new ConfigFilterResult<U>(true, result, null, null);
 	}
 	
 	/**
@@ -64,7 +86,22 @@ public class ConfigFilterResult<T> {
 	 * @return a new ConfigFilterResult that failed with the specified fail message
 	 */
 	public static <U> ConfigFilterResult<U> fail(String message) {
-		return new ConfigFilterResult<U>(false, null, message);
+		return new ConfigFilterResult<U>(false, null, message, null);
+	}
+	
+	/**
+	 * Creates a new ConfigFilterResult that failed with a fail message that is only built if it is requested.<br>
+	 * Useful for filters whose results are often discarded, e.g. by fail-fast validation or failure limits.
+	 * @param <U> the output type
+	 * @param message a supplier of the fail message, which must return the same message every time
+	 * @return a new ConfigFilterResult that failed with the supplied fail message
+	 * @throws NullPointerException if {@code message} is null
+	 */
+	public static <U> ConfigFilterResult<U> fail(Supplier<String> message) {
+		if(message == null) {
+			throw new NullPointerException("Message supplier cannot be null");
+		}
+		return new ConfigFilterResult<U>(false, null, null, message);
 	}
 	
 	/**
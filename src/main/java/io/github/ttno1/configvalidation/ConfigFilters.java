@@ -7,9 +7,15 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Stream;
 
 import org.apache.commons.validator.routines.UrlValidator;
@@ -36,29 +42,415 @@ public final class ConfigFilters {
 	 * @return a filter that maps the provided filter to a list
 	 */
 	public static <T, U> ConfigFilter<List<T>, List<U>> forEach(ConfigFilter<T, U> filter) {
+		return forEach(filter, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Same as {@link #forEach(ConfigFilter)} but the fail message lists at most {@code maxFailures} fail messages, followed by 
+	 * {@code "... and N more"} with the number of remaining failures. Fail messages beyond the limit are not retained.
+	 * @param <T>
+	 * @param <U>
+	 * @param filter
+	 * @param maxFailures the maximum number of fail messages to list
+	 * @return a filter that maps the provided filter to a list
+	 * @throws NullPointerException if {@code filter} is null
+	 * @throws IllegalArgumentException if {@code maxFailures} is less than 1
+	 */
+	public static <T, U> ConfigFilter<List<T>, List<U>> forEach(ConfigFilter<T, U> filter, int maxFailures) {
+		if(filter == null) {
+			throw new NullPointerException("Filter cannot be null");
+		}
+		if(maxFailures < 1) {
+			throw new IllegalArgumentException("Max failures must be at least 1");
+		}
+		return forEach(filter, maxFailures, 0);
+	}
+	
+	/**
+	 * Same as {@link #forEach(ConfigFilter)} but failures with the same template are listed only once, so the size of the 
+	 * fail message depends on the number of distinct problems rather than the size of the list.<br>
+	 * The template of a fail message is the message without the value that follows the last {@code ": "} of each line, 
+	 * e.g. {@code "Invalid URL: "} for {@code "Invalid URL: example"}. Each template is listed with the first fail message 
+	 * that had it, prefixed by the indexes of its first {@code maxExamples} elements and the number of remaining ones, e.g. 
+	 * {@code "[0], [3], [7] and 1197 more - Invalid URL: example"}.
+	 * @param <T>
+	 * @param <U>
+	 * @param filter
+	 * @param maxExamples the maximum number of element indexes listed per template
+	 * @return a filter that maps the provided filter to a list
+	 * @throws NullPointerException if {@code filter} is null
+	 * @throws IllegalArgumentException if {@code maxExamples} is less than 1
+	 */
+	public static <T, U> ConfigFilter<List<T>, List<U>> forEachAggregated(ConfigFilter<T, U> filter, int maxExamples) {
+		if(filter == null) {
+			throw new NullPointerException("Filter cannot be null");
+		}
+		if(maxExamples < 1) {
+			throw new IllegalArgumentException("Max examples must be at least 1");
+		}
+		return forEach(filter, Integer.MAX_VALUE, maxExamples);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T, U> ConfigFilter<List<T>, List<U>> forEach(ConfigFilter<T, U> filter, int maxFailures, int maxExamples) {
+		if(filter instanceof RangeFilter<?> range) {
+			// a range filter passes elements on unchanged, so the input list is checked in place
+			return (List<T> input) -> {
+				FailureCollector failures = range.filterAll(input, 
+						() -> new FailureCollector(FailureCollector.LIST_HEADER, maxFailures, Integer.MAX_VALUE, null, maxExamples), false);
+				if(failures != null) {
+					return ConfigFilterResult.fail(failures.getFailMessage());
+				}
+				return ConfigFilterResult.pass((List<U>) Collections.unmodifiableList(input));
+			};
+		}
 		return (List<T> input) -> {
-			boolean failed = false;
-			List<ConfigFilterResult<U>> result = new ArrayList<ConfigFilterResult<U>>();
+			List<U> output = new ArrayList<U>(input.size());
+			FailureCollector failures = null;
+			int index = 0;
 			for(T in : input) {
 				ConfigFilterResult<U> filterResult = filter.filter(in);
-				if(!filterResult.passed()) {
-					failed = true;
+				if(filterResult.passed()) {
+					if(failures == null) {
+						output.add(filterResult.getResult());
+					}
+				} else {
+					if(failures == null) {
+						failures = new FailureCollector(FailureCollector.LIST_HEADER, maxFailures, Integer.MAX_VALUE, null, maxExamples);
+					}
+					failures.add(null, index, filterResult.getFailMessage(), true);
 				}
-				result.add(filterResult);
+				index++;
+			}
+			if(failures != null) {
+				return ConfigFilterResult.fail(failures.getFailMessage());
 			}
-			if(failed) {
-				return ConfigFilterResult.fail("One or more filters failed while being applied to a list:"
-						+ System.lineSeparator() + result.stream().filter((configResult) -> {
-							return !configResult.passed();
-						}).map((configFilter) -> {
-							return configFilter.getFailMessage();
-						}).collect(Collectors.joining(System.lineSeparator())));
-			} else {
-				return ConfigFilterResult.pass(result.stream().map((configResult) -> {return configResult.getResult();}).toList());
+			return ConfigFilterResult.pass(Collections.unmodifiableList(output));
+		};
+	}
+	
+	/**
+	 * Returns a filter that behaves like {@link #forEach(ConfigFilter)} but applies the provided filter to the elements of 
+	 * large lists in parallel on the common {@link java.util.concurrent.ForkJoinPool}.<br>
+	 * The list is split with its {@link java.util.Spliterator} until each part holds at most {@code threshold} elements. 
+	 * The order of the output list and of the fail messages is the same as that of {@link #forEach(ConfigFilter)}.<br>
+	 * The provided filter must be safe to call from multiple threads.
+	 * @param <T>
+	 * @param <U>
+	 * @param filter
+	 * @param threshold the maximum number of elements filtered by a single task, lists of at most this size are filtered on the calling thread
+	 * @return a filter that maps the provided filter to a list in parallel
+	 * @throws NullPointerException if {@code filter} is null
+	 * @throws IllegalArgumentException if {@code threshold} is less than 1
+	 */
+	public static <T, U> ConfigFilter<List<T>, List<U>> forEachParallel(ConfigFilter<T, U> filter, int threshold) {
+		if(filter == null) {
+			throw new NullPointerException("Filter cannot be null");
+		}
+		if(threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be at least 1");
+		}
+		return (List<T> input) -> {
+			FailureCollector failures = new FailureCollector(FailureCollector.LIST_HEADER, Integer.MAX_VALUE, Integer.MAX_VALUE, null, 0);
+			List<U> output = ParallelElements.filter(input, threshold, (element, index) -> filter.filter(element), failures, true);
+			return output == null ? ConfigFilterResult.fail(failures.getFailMessage()) : ConfigFilterResult.pass(output);
+		};
+	}
+	
+	/**
+	 * Returns a filter that applies the provided filter on a virtual thread and fails if it does not finish within the 
+	 * provided timeout.<br>
+	 * A filter that times out is interrupted and abandoned, so a filter that blocks indefinitely (e.g. on a stale network 
+	 * mount) only delays validation by the timeout. The failure is reported at the path of the node like any other filter 
+	 * failure. Exceptions thrown by the filter are rethrown by the returned filter.
+	 * @param <T> the input type of the filter
+	 * @param <U> the output type of the filter
+	 * @param filter the filter to apply
+	 * @param timeout how long to wait for the filter
+	 * @return a filter that applies the provided filter with a timeout and has the same cost
+	 * @throws NullPointerException if {@code filter} or {@code timeout} are null
+	 * @throws IllegalArgumentException if {@code timeout} is not positive
+	 */
+	public static <T, U> ConfigFilter<T, U> timeout(ConfigFilter<T, U> filter, Duration timeout) {
+		if(filter == null) {
+			throw new NullPointerException("Filter cannot be null");
+		}
+		if(timeout == null) {
+			throw new NullPointerException("Timeout cannot be null");
+		}
+		if(timeout.isNegative() || timeout.isZero()) {
+			throw new IllegalArgumentException("Timeout must be positive");
+		}
+		return new TimedFilter.Timed<T, U>(filter, timeout.toNanos());
+	}
+	
+	/**
+	 * Returns a filter that passes if no two elements of the input list are {@linkplain Object#equals(Object) equal}.<br>
+	 * The list is checked in linear time by hashing each element once. Lists of boxed primitives of a single type are hashed 
+	 * as primitive {@code long}s. The fail message lists each duplicated value with the indexes at which it occurs.
+	 * @param <T> the type of the elements
+	 * @return a filter that passes lists without duplicate elements
+	 */
+	public static <T> ConfigFilter<List<T>, List<T>> unique() {
+		return new UniqueFilter<T>(null);
+	}
+	
+	/**
+	 * Returns a filter that passes if no two elements of the input list have {@linkplain Object#equals(Object) equal} keys, 
+	 * as in {@link #unique()}.<br>
+	 * E.g. {@code uniqueBy(route -> route.getString("name"))} checks that no two routes in a list of config sections share a name.
+	 * @param <T> the type of the elements
+	 * @param keyExtractor the function that extracts the key of an element, which is called once per element
+	 * @return a filter that passes lists without elements with duplicate keys
+	 * @throws NullPointerException if {@code keyExtractor} is null
+	 */
+	public static <T> ConfigFilter<List<T>, List<T>> uniqueBy(Function<? super T, ?> keyExtractor) {
+		if(keyExtractor == null) {
+			throw new NullPointerException("Key extractor cannot be null");
+		}
+		return new UniqueFilter<T>(keyExtractor);
+	}
+	
+	/**
+	 * Returns a filter that passes if the elements of the input list are in ascending order according to their natural ordering.<br>
+	 * Equal adjacent elements are allowed. The fail message contains the index of the first element that is out of order.
+	 * @param <T> the type of the elements
+	 * @return a filter that passes sorted lists
+	 */
+	public static <T extends Comparable<? super T>> ConfigFilter<List<T>, List<T>> sorted() {
+		return sorted(Comparator.naturalOrder());
+	}
+	
+	/**
+	 * Returns a filter that passes if the elements of the input list are in ascending order according to the provided comparator, 
+	 * as in {@link #sorted()}.
+	 * @param <T> the type of the elements
+	 * @param comparator the comparator that defines the order
+	 * @return a filter that passes sorted lists
+	 * @throws NullPointerException if {@code comparator} is null
+	 */
+	public static <T> ConfigFilter<List<T>, List<T>> sorted(Comparator<? super T> comparator) {
+		if(comparator == null) {
+			throw new NullPointerException("Comparator cannot be null");
+		}
+		return (List<T> input) -> {
+			T previous = null;
+			int index = 0;
+			for(T element : input) {
+				if(index > 0 && comparator.compare(previous, element) > 0) {
+					T outOfOrder = element;
+					T before = previous;
+					int at = index;
+					return ConfigFilterResult.fail(() -> "The list is not sorted, the element at [" + at + "] comes before the element preceding it: " 
+							+ outOfOrder + " < " + before);
+				}
+				previous = element;
+				index++;
 			}
+			return ConfigFilterResult.pass(input);
 		};
 	}
 	
+	/**
+	 * Returns a filter that passes if the input list contains at most {@code maxSize} elements.
+	 * @param <T> the type of the elements
+	 * @param maxSize the maximum number of elements
+	 * @return a filter that passes lists with at most {@code maxSize} elements
+	 * @throws IllegalArgumentException if {@code maxSize} is negative
+	 */
+	public static <T> ConfigFilter<List<T>, List<T>> maxSize(int maxSize) {
+		if(maxSize < 0) {
+			throw new IllegalArgumentException("Max size cannot be negative");
+		}
+		ConfigFilter<List<T>, List<T>> filter = (List<T> input) -> {
+			if(input.size() > maxSize) {
+				return ConfigFilterResult.fail("The list contains " + input.size() + " elements, at most " + maxSize + " are allowed");
+			}
+			return ConfigFilterResult.pass(input);
+		};
+		return filter.withCost(FilterCost.CHEAP);
+	}
+	
+	/**
+	 * Returns a filter that passes if the input is between {@code min} and {@code max} (inclusive).<br>
+	 * The filter compares primitives and only builds its fail message when it is requested. Lists with this filter as their 
+	 * element filter (including {@link #forEach(ConfigFilter)}) check their elements in place without creating a result per element.
+	 * @param min the minimum value
+	 * @param max the maximum value
+	 * @return a filter that passes values within the bounds
+	 * @throws IllegalArgumentException if {@code min} is greater than {@code max}
+	 */
+	public static ConfigFilter<Integer, Integer> range(int min, int max) {
+		return RangeFilter.ofLong(min, max);
+	}
+	
+	/**
+	 * Returns a filter that passes if the input is between {@code min} and {@code max} (inclusive), 
+	 * as in {@link #range(int, int)}.
+	 * @param min the minimum value
+	 * @param max the maximum value
+	 * @return a filter that passes values within the bounds
+	 * @throws IllegalArgumentException if {@code min} is greater than {@code max}
+	 */
+	public static ConfigFilter<Long, Long> range(long min, long max) {
+		return RangeFilter.ofLong(min, max);
+	}
+	
+	/**
+	 * Returns a filter that passes if the input is between {@code min} and {@code max} (inclusive), 
+	 * as in {@link #range(int, int)}. NaN is never within the bounds.
+	 * @param min the minimum value
+	 * @param max the maximum value
+	 * @return a filter that passes values within the bounds
+	 * @throws IllegalArgumentException if {@code min} is greater than {@code max} or either is NaN
+	 */
+	public static ConfigFilter<Double, Double> range(double min, double max) {
+		return RangeFilter.ofDouble(min, max);
+	}
+	
+	/**
+	 * Returns a filter that passes if the input is at least {@code min}, as in {@link #range(int, int)}.
+	 * @param min the minimum value
+	 * @return a filter that passes values of at least {@code min}
+	 */
+	public static ConfigFilter<Integer, Integer> min(int min) {
+		return RangeFilter.ofLong(min, Long.MAX_VALUE);
+	}
+	
+	/**
+	 * Returns a filter that passes if the input is at least {@code min}, as in {@link #range(int, int)}.
+	 * @param min the minimum value
+	 * @return a filter that passes values of at least {@code min}
+	 */
+	public static ConfigFilter<Long, Long> min(long min) {
+		return RangeFilter.ofLong(min, Long.MAX_VALUE);
+	}
+	
+	/**
+	 * Returns a filter that passes if the input is at least {@code min}, as in {@link #range(int, int)}.
+	 * @param min the minimum value
+	 * @return a filter that passes values of at least {@code min}
+	 * @throws IllegalArgumentException if {@code min} is NaN
+	 */
+	public static ConfigFilter<Double, Double> min(double min) {
+		return RangeFilter.ofDouble(min, Double.POSITIVE_INFINITY);
+	}
+	
+	/**
+	 * Returns a filter that passes if the input is at most {@code max}, as in {@link #range(int, int)}.
+	 * @param max the maximum value
+	 * @return a filter that passes values of at most {@code max}
+	 */
+	public static ConfigFilter<Integer, Integer> max(int max) {
+		return RangeFilter.ofLong(Long.MIN_VALUE, max);
+	}
+	
+	/**
+	 * Returns a filter that passes if the input is at most {@code max}, as in {@link #range(int, int)}.
+	 * @param max the maximum value
+	 * @return a filter that passes values of at most {@code max}
+	 */
+	public static ConfigFilter<Long, Long> max(long max) {
+		return RangeFilter.ofLong(Long.MIN_VALUE, max);
+	}
+	
+	/**
+	 * Returns a filter that passes if the input is at most {@code max}, as in {@link #range(int, int)}.
+	 * @param max the maximum value
+	 * @return a filter that passes values of at most {@code max}
+	 * @throws IllegalArgumentException if {@code max} is NaN
+	 */
+	public static ConfigFilter<Double, Double> max(double max) {
+		return RangeFilter.ofDouble(Double.NEGATIVE_INFINITY, max);
+	}
+	
+	/**
+	 * Returns a filter that passes if the entire input string matches the provided regular expression.<br>
+	 * The expression is compiled once when the filter is created.
+	 * @param regex the regular expression to match
+	 * @return a filter that passes strings matching the expression
+	 * @throws NullPointerException if {@code regex} is null
+	 * @throws IllegalArgumentException if {@code regex} is not a valid regular expression
+	 */
+	public static ConfigFilter<String, String> matches(String regex) {
+		if(regex == null) {
+			throw new NullPointerException("Regex cannot be null");
+		}
+		try {
+			return matches(Pattern.compile(regex));
+		} catch(PatternSyntaxException e) {
+			throw new IllegalArgumentException("Invalid regex: " + regex, e);
+		}
+	}
+	
+	/**
+	 * Returns a filter that passes if the entire input string matches the provided pattern.
+	 * @param pattern the pattern to match
+	 * @return a filter that passes strings matching the pattern
+	 * @throws NullPointerException if {@code pattern} is null
+	 */
+	public static ConfigFilter<String, String> matches(Pattern pattern) {
+		if(pattern == null) {
+			throw new NullPointerException("Pattern cannot be null");
+		}
+		return (String string) -> {
+			if(string == null || !pattern.matcher(string).matches()) {
+				return ConfigFilterResult.fail("Invalid string, does not match the pattern " + pattern.pattern() + ": " + string);
+			}
+			return ConfigFilterResult.pass(string);
+		};
+	}
+	
+	/**
+	 * Returns a filter that passes if the entire input string matches any of the provided regular expressions, such as an 
+	 * allowlist of host names.<br>
+	 * Expressions without metacharacters (e.g. {@code "example\\.com"}) are matched with a hash lookup, and expressions that 
+	 * only use literals, character classes, groups, alternation and quantifiers (e.g. {@code ".*\\.example\\.com"}) are 
+	 * compiled into a single automaton that matches each string against all of them in one pass. Other expressions, such as 
+	 * those with back references, are indexed by their literal prefix, so each string is only run against the ones whose 
+	 * prefix it starts with.
+	 * @param regexes the regular expressions to match
+	 * @return a filter that passes strings matching any of the expressions
+	 * @throws NullPointerException if {@code regexes} is null or contains null
+	 * @throws IllegalArgumentException if any of the expressions is invalid
+	 */
+	public static ConfigFilter<String, String> matchesAny(Collection<String> regexes) {
+		PatternSet patterns = compile(regexes);
+		return (String string) -> {
+			if(string == null || !patterns.matches(string)) {
+				return ConfigFilterResult.fail("Invalid string, does not match any of the allowed patterns: " + string);
+			}
+			return ConfigFilterResult.pass(string);
+		};
+	}
+	
+	/**
+	 * Returns a filter that fails if the entire input string matches any of the provided regular expressions, such as a 
+	 * denylist of host names.<br>
+	 * The expressions are matched as in {@link #matchesAny(Collection)}.
+	 * @param regexes the regular expressions that must not match
+	 * @return a filter that passes strings matching none of the expressions
+	 * @throws NullPointerException if {@code regexes} is null or contains null
+	 * @throws IllegalArgumentException if any of the expressions is invalid
+	 */
+	public static ConfigFilter<String, String> matchesNone(Collection<String> regexes) {
+		PatternSet patterns = compile(regexes);
+		return (String string) -> {
+			if(string == null || patterns.matches(string)) {
+				return ConfigFilterResult.fail("Invalid string, matches a denied pattern: " + string);
+			}
+			return ConfigFilterResult.pass(string);
+		};
+	}
+	
+	private static PatternSet compile(Collection<String> regexes) {
+		try {
+			return new PatternSet(regexes);
+		} catch(PatternSyntaxException e) {
+			throw new IllegalArgumentException("Invalid regex: " + e.getPattern(), e);
+		}
+	}
+	
 	/**
 	 * Returns a filter that attempts to convert the input string into a value of the provided enum type
 	 * and fails if the input string is not a valid enum type.<br>
@@ -69,13 +461,14 @@ public final class ConfigFilters {
 	 * @return a filter that attempts to convert the input string into a value of the provided enum type
 	 */
 	public static <T extends Enum<T>> ConfigFilter<String, T> validEnum(Class<T> enumClass) {
-		return (String string) -> {
+		ConfigFilter<String, T> filter = (String string) -> {
 			try {
 				return ConfigFilterResult.pass(Enum.valueOf(enumClass, string.toUpperCase().replace(' ', '_')));
 			} catch(IllegalArgumentException | NullPointerException e) {
 				return ConfigFilterResult.fail("Invalid string, could not be converted to an enum value: " + string);
 			}
 		};
+		return filter.withCost(FilterCost.CHEAP);
 	}
 	
 	/**
@@ -90,7 +483,7 @@ public final class ConfigFilters {
 			schemes = DEFAULT_SCHEMES;
 		}
 		UrlValidator validator = new UrlValidator(schemes);
-		return (String string) -> {
+		ConfigFilter<String, URL> filter = (String string) -> {
 			if(!validator.isValid(string)) {
 				return ConfigFilterResult.fail("Invalid URL: " + string);
 			}
@@ -100,16 +493,18 @@ public final class ConfigFilters {
 				return ConfigFilterResult.fail("Invalid URL: " + string + " - " + e.getLocalizedMessage());
 			}
 		};
+		return filter.withCost(FilterCost.EXPENSIVE);
 	}
 	
 	/**
 	 * Returns a filter that verifies that the input string is a valid file path, and optionally that the file meets the 
-	 * conditions specified by the provided {@link FileState}, and that converts the string to a {@link Path}.
+	 * conditions specified by the provided {@link FileState}, and that converts the string to a {@link Path}.<br>
+	 * The filter is {@linkplain FilterCost#EXPENSIVE expensive} if the file state requires checking the file system. 
 	 * @param fileState the state of the file that should be required for the filter to pass, see {@link FileState} for more info
 	 * @return a filter that converts a string to a {@link Path}
 	 */
 	public static ConfigFilter<String, Path> validPath(FileState fileState) {
-		return (String string) -> {
+		ConfigFilter<String, Path> filter = (String string) -> {
 			try {
 				Path path = Path.of(string);
 				if(fileState.isExistent() != null) {
@@ -133,6 +528,8 @@ public final class ConfigFilters {
 				return ConfigFilterResult.fail("Invalid path format: " + string);
 			}
 		};
+		// only checking the file system is expensive, parsing the path is not
+		return filter.withCost(fileState.isExistent() != null || fileState.isFile() != null ? FilterCost.EXPENSIVE : FilterCost.CHEAP);
 	}
 	
 	/**
@@ -1,6 +1,9 @@
 package io.github.ttno1.configvalidation;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Represents a list of elements that should exist in a configuration.<br>
@@ -15,10 +18,16 @@ import java.util.List;
  */
 public class ConfigList<T, U, V> extends ConfigNode<List<T>, V> {
 
-	//private final ConfigFilter<T, U> elementFilter;
+	private final ConfigFilter<T, U> elementFilter;
+	
+	private final ConfigSpec<U> elementSpec;
+	
+	private final ConfigFilter<List<U>, V> listFilter;
 	
 	private final BaseType elementBaseType;
 	
+	private final int parallelThreshold;
+	
 	/**
 	 * 
 	 * @param filter
@@ -26,6 +35,11 @@ public class ConfigList<T, U, V> extends ConfigNode<List<T>, V> {
 	 * @throws NullPointerException if {@code elementFilter}, {@code elementBaseType}, or {@code filter} are null
 	 */
 	protected ConfigList(ConfigFilter<List<U>, V> filter, ConfigFilter<T, U> elementFilter, BaseType elementBaseType) {
+		this(filter, elementFilter, null, elementBaseType, 0);
+	}
+	
+	private ConfigList(ConfigFilter<List<U>, V> filter, ConfigFilter<T, U> elementFilter, ConfigSpec<U> elementSpec, BaseType elementBaseType, 
+			int parallelThreshold) {
 		
 		super(ConfigFilters.<T, U>forEach(elementFilter).withFilter(filter), BaseType.LIST);
 		
@@ -39,26 +53,89 @@ public class ConfigList<T, U, V> extends ConfigNode<List<T>, V> {
 			throw new NullPointerException("Element base type cannot be null");
 		}
 		
-		//this.elementFilter = elementFilter;
-		
+		this.elementFilter = elementFilter;
+		this.elementSpec = elementSpec;
+		this.listFilter = filter;
 		this.elementBaseType = elementBaseType;
+		this.parallelThreshold = parallelThreshold;
 		
 	}
 	
-	@Override
-	public ConfigValidationResult validate(ConfigWrapper configWrapper, String path) {
-		if(configWrapper == null) {
-			throw new NullPointerException("Config wrapper cannot be null");
+	/**
+	 * Creates a ConfigList of config subsections that validates each element against the provided ConfigSpec within the same 
+	 * validation run as the list.
+	 * @throws NullPointerException if {@code filter} or {@code configSpec} are null
+	 */
+	static <U, V> ConfigList<ConfigWrapper, U, V> ofConfigSpec(ConfigFilter<List<U>, V> filter, ConfigSpec<U> configSpec) {
+		if(configSpec == null) {
+			throw new NullPointerException("Config spec cannot be null");
 		}
-		if(path == null) {
-			throw new NullPointerException("Path cannot be null");
+		return new ConfigList<ConfigWrapper, U, V>(filter, configSpec.getFilter(), configSpec, BaseType.CONFIG_SECTION, 0);
+	}
+	
+	/**
+	 * Returns a new ConfigList with the provided filter appended onto the filter of this ConfigList using
+	 * {@link ConfigFilter#withFilter(ConfigFilter)}.<br>
+	 * The element filter of the new ConfigList is the same as that of {@code this}.
+	 * @param <W> the return type of the new filter
+	 * @param filter the filter to append to the current filter
+	 * @return a new ConfigList with the provided filter appended onto the current filter
+	 */
+	@Override
+	public <W> ConfigList<T, U, W> withFilter(ConfigFilter<V, W> filter) {
+		return new ConfigList<T, U, W>(listFilter.withFilter(filter), elementFilter, elementSpec, elementBaseType, parallelThreshold);
+	}
+	
+	/**
+	 * Returns a new ConfigList with the provided consumer appended onto the filter of this ConfigList akin to 
+	 * {@link ConfigFilter#thenRun(Consumer)}.
+	 * @param consumer the consumer to append to the current filter
+	 * @return a new ConfigList with the provided consumer appended onto the current filter
+	 */
+	@Override
+	public ConfigList<T, U, V> thenRun(Consumer<V> consumer) {
+		return withFilter(ConfigFilter.run(consumer));
+	}
+	
+	/**
+	 * Returns a new ConfigList that validates the elements of lists with more than {@code threshold} elements in parallel 
+	 * on the common {@link java.util.concurrent.ForkJoinPool}, as in {@link ConfigFilters#forEachParallel(ConfigFilter, int)}.<br>
+	 * The order of the elements and of the fail messages is the same as when validating sequentially. The element filter 
+	 * (and the nodes of an element {@link ConfigSpec}) must be safe to call from multiple threads.<br>
+	 * Elements are still validated sequentially in runs with a {@link ValidationListener}, since listeners are notified in 
+	 * validation order on the validating thread.
+	 * @param threshold the maximum number of elements validated by a single task
+	 * @return a new ConfigList that validates its elements in parallel
+	 * @throws IllegalArgumentException if {@code threshold} is less than 1
+	 */
+	public ConfigList<T, U, V> parallel(int threshold) {
+		if(threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be at least 1");
 		}
-		
-		if(!configWrapper.containsNode(path)) {
-			return ConfigValidationResult.fail("The node is not contained in the config");
+		return new ConfigList<T, U, V>(listFilter, elementFilter, elementSpec, elementBaseType, threshold);
+	}
+	
+	@Override
+	FilterCost getCost() {
+		return FilterCost.max(listFilter.getCost(), elementSpec == null ? elementFilter.getCost() : elementSpec.getCost());
+	}
+	
+	/**
+	 * Freezes the element {@link ConfigSpec} of this list, if it has one.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	ConfigList<T, U, V> frozen() {
+		if(elementSpec == null || elementSpec.isFrozen()) {
+			return this;
 		}
-		
-		boolean isValidType = switch (elementBaseType) {
+		ConfigSpec<U> frozenSpec = elementSpec.freeze();
+		return new ConfigList<T, U, V>(listFilter, (ConfigFilter<T, U>) frozenSpec.getFilter(), frozenSpec, elementBaseType, parallelThreshold);
+	}
+	
+	@Override
+	boolean isValidType(ConfigWrapper configWrapper, String path) {
+		return switch (elementBaseType) {
 		case BOOLEAN:
 			yield configWrapper.isList(path, elementBaseType, Boolean.class);
 		case BYTE:
@@ -80,39 +157,134 @@ public class ConfigList<T, U, V> extends ConfigNode<List<T>, V> {
 		case STRING:
 			yield configWrapper.isList(path, elementBaseType, String.class);
 		};
-		if(!isValidType) {
-			return ConfigValidationResult.fail("The node is not a list of type: " + elementBaseType.toString());
-		}
-		
-		@SuppressWarnings({ "unchecked", "rawtypes" })
-		ConfigFilterResult<V> filterResult = switch (elementBaseType) {
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Override
+	List<T> getValue(ConfigWrapper configWrapper, String path) {
+		return (List<T>) switch (elementBaseType) {
 		case BOOLEAN:
-			yield ((ConfigList<Boolean, U, V>) this).filter(configWrapper.getList(path, elementBaseType, Boolean.class));
+			yield configWrapper.getList(path, elementBaseType, Boolean.class);
 		case BYTE:
-			yield ((ConfigList<Byte, U, V>) this).filter(configWrapper.getList(path, elementBaseType, Byte.class));
+			yield configWrapper.getList(path, elementBaseType, Byte.class);
 		case DOUBLE:
-			yield ((ConfigList<Double, U, V>) this).filter(configWrapper.getList(path, elementBaseType, Double.class));
+			yield configWrapper.getList(path, elementBaseType, Double.class);
 		case FLOAT:
-			yield ((ConfigList<Float, U, V>) this).filter(configWrapper.getList(path, elementBaseType, Float.class));
+			yield configWrapper.getList(path, elementBaseType, Float.class);
 		case INTEGER:
-			yield ((ConfigList<Integer, U, V>) this).filter(configWrapper.getList(path, elementBaseType, Integer.class));
+			yield configWrapper.getList(path, elementBaseType, Integer.class);
 		case LIST:
-			yield ((ConfigList<List, U, V>) this).filter(configWrapper.getList(path, elementBaseType, List.class));
+			yield (List) configWrapper.getList(path, elementBaseType, List.class);
 		case LONG:
-			yield ((ConfigList<Long, U, V>) this).filter(configWrapper.getList(path, elementBaseType, Long.class));
+			yield configWrapper.getList(path, elementBaseType, Long.class);
 		case CONFIG_SECTION:
-			yield ((ConfigList<ConfigWrapper, U, V>) this).filter(configWrapper.getList(path, elementBaseType, ConfigWrapper.class));
+			yield configWrapper.getList(path, elementBaseType, ConfigWrapper.class);
 		case SHORT:
-			yield ((ConfigList<Short, U, V>) this).filter(configWrapper.getList(path, elementBaseType, Short.class));
+			yield configWrapper.getList(path, elementBaseType, Short.class);
 		case STRING:
-			yield ((ConfigList<String, U, V>) this).filter(configWrapper.getList(path, elementBaseType, String.class));
+			yield configWrapper.getList(path, elementBaseType, String.class);
 		};
-		if(!filterResult.passed()) {
-			return ConfigValidationResult.fail("The node's filter failed with the following message: " + filterResult.getFailMessage());
+	}
+	
+	@Override
+	String getTypeFailMessage() {
+		return "The node is not a list of type: " + elementBaseType.toString();
+	}
+	
+	/**
+	 * Applies the element filter to each element and then applies the filter to the resulting list.<br>
+	 * Elements of lists created from a {@link ConfigSpec} are validated within the same run as this list.
+	 */
+	@Override
+	ConfigFilterResult<V> filter(List<T> input, String path, String parent, ValidationContext context) {
+		String listPath = ValidationContext.join(parent, path);
+		boolean leaf = elementSpec == null;
+		if(elementFilter instanceof RangeFilter<?> range) {
+			return filterRange(input, range, listPath, context);
 		}
-		
-		return ConfigValidationResult.pass();
-		
+		if(parallelThreshold > 0 && input.size() > parallelThreshold && !context.hasListener() && !context.isFailFast()) {
+			FailureCollector failures = context.collectFailures(FailureCollector.LIST_HEADER);
+			List<U> output = ParallelElements.filter(input, parallelThreshold, (element, index) -> filterElement(element, listPath, index, context), failures, leaf);
+			if(output == null) {
+				return leaf ? leafFailed(failures.getFailMessage(), listPath, context) : ConfigFilterResult.fail(failures.getFailMessage());
+			}
+			return applyListFilter(output, listPath, context);
+		}
+		List<U> output = new ArrayList<U>(input.size());
+		FailureCollector failures = null;
+		boolean pastDeadline = false;
+		int index = 0;
+		for(T element : input) {
+			if(context.isPastDeadline()) {
+				pastDeadline = true;
+				// the remaining elements are reported as a single failure
+				if(failures == null) {
+					failures = context.collectFailures(FailureCollector.LIST_HEADER);
+				}
+				failures.add(null, index, TimedFilter.DEADLINE_MESSAGE, true);
+				break;
+			}
+			ConfigFilterResult<U> result = filterElement(element, listPath, index, context);
+			if(result.passed()) {
+				if(failures == null) {
+					output.add(result.getResult());
+				}
+			} else {
+				if(failures == null) {
+					failures = context.collectFailures(FailureCollector.LIST_HEADER);
+				}
+				failures.add(null, index, result.getFailMessage(), leaf);
+				if(context.isFailFast()) {
+					break;
+				}
+			}
+			index++;
+		}
+		if(failures != null) {
+			// failures of element sections are recorded by their nodes
+			return leaf || pastDeadline ? leafFailed(failures.getFailMessage(), listPath, context) : ConfigFilterResult.fail(failures.getFailMessage());
+		}
+		return applyListFilter(Collections.unmodifiableList(output), listPath, context);
+	}
+	
+	/**
+	 * Checks the elements of the list in place, since a range filter passes them on unchanged.
+	 */
+	@SuppressWarnings("unchecked")
+	private ConfigFilterResult<V> filterRange(List<T> input, RangeFilter<?> range, String listPath, ValidationContext context) {
+		FailureCollector failures = range.filterAll(input, () -> context.collectFailures(FailureCollector.LIST_HEADER), context.isFailFast());
+		if(failures != null) {
+			return leafFailed(failures.getFailMessage(), listPath, context);
+		}
+		return applyListFilter((List<U>) Collections.unmodifiableList(input), listPath, context);
+	}
+	
+	private ConfigFilterResult<V> applyListFilter(List<U> output, String listPath, ValidationContext context) {
+		ConfigFilterResult<V> result = context.applyFilter(listFilter, output);
+		if(!result.passed()) {
+			context.leafFailed(listPath, FILTER_FAIL_PREFIX + result.getFailMessage());
+		}
+		return result;
+	}
+	
+	/**
+	 * Records a failure of this list that is not caused by the nodes of an element section.
+	 */
+	private ConfigFilterResult<V> leafFailed(String failMessage, String listPath, ValidationContext context) {
+		context.leafFailed(listPath, FILTER_FAIL_PREFIX + failMessage);
+		return ConfigFilterResult.fail(failMessage);
+	}
+	
+	@Override
+	boolean recordsFilterFailures() {
+		return true;
+	}
+	
+	private ConfigFilterResult<U> filterElement(T element, String listPath, int index, ValidationContext context) {
+		if(elementSpec == null) {
+			return context.applyFilter(elementFilter, element);
+		}
+		return elementSpec.filterSection((ConfigWrapper) element, ValidationContext.element(listPath, index), context);
 	}
 
 }
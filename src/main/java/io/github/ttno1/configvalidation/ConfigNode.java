@@ -12,7 +12,12 @@ import java.util.function.Consumer;
  */
 public class ConfigNode<T, U> {
 	
-	protected ConfigFilter<T, U> filter;
+	/**
+	 * The start of the fail message of a node whose filter failed.
+	 */
+	static final String FILTER_FAIL_PREFIX = "The node's filter failed with the following message: ";
+	
+	protected final ConfigFilter<T, U> filter;
 	
 	protected final BaseType baseType;
 	
@@ -31,8 +36,9 @@ public class ConfigNode<T, U> {
 	}
 	
 	/**
-	 * For use in ConfigSpec where filter must be set later.<br>
-	 * <b>Always be sure to set and null-check filter later when using this constructor.</b>
+	 * For use in ConfigSpec where the filter depends on the node itself.<br>
+	 * <b>The filter is null when using this constructor, so always be sure to override {@link #getFilter()} and 
+	 * {@link #filter(Object)}.</b>
 	 * @param baseType
 	 */
 	protected ConfigNode(BaseType baseType) {
@@ -41,6 +47,7 @@ public class ConfigNode<T, U> {
 			throw new NullPointerException("BaseType cannot be null");
 		}
 		
+		this.filter = null;
 		this.baseType = baseType;
 		
 	}
@@ -53,7 +60,7 @@ public class ConfigNode<T, U> {
 	 * @return a new ConfigNode with the provided filter appended onto the current filter
 	 */
 	public <V> ConfigNode<T, V> withFilter(ConfigFilter<U, V> filter) {
-		return new ConfigNode<T, V>(this.filter.withFilter(filter), baseType);
+		return new ConfigNode<T, V>(getFilter().withFilter(filter), baseType);
 	}
 	
 	/**
@@ -75,18 +82,95 @@ public class ConfigNode<T, U> {
 	 * @throws NullPointerException if {@code configWrapper} or {@code path} are null
 	 */
 	public ConfigValidationResult validate(ConfigWrapper configWrapper, String path) {
+		return validate(configWrapper, path, ValidationOptions.defaults());
+	}
+	
+	/**
+	 * Validates this node against the supplied {@link ConfigWrapper} at the specified path with the specified options.<br>
+	 * Checks for existence of the node, valid data type, and filter passage.<br>
+	 * @param configWrapper the {@link ConfigWrapper} to validate against
+	 * @param path the absolute path of this node in the ConfigWrapper
+	 * @param options the options that control the validation
+	 * @return a {@link ConfigValidationResult} containing whether the validation was successful and a fail message if it failed
+	 * @throws NullPointerException if {@code configWrapper}, {@code path}, or {@code options} are null
+	 */
+	public ConfigValidationResult validate(ConfigWrapper configWrapper, String path, ValidationOptions options) {
 		if(configWrapper == null) {
 			throw new NullPointerException("Config wrapper cannot be null");
 		}
 		if(path == null) {
 			throw new NullPointerException("Path cannot be null");
 		}
+		if(options == null) {
+			throw new NullPointerException("Options cannot be null");
+		}
+		ValidationContext context = ValidationContext.of(options);
+		// absolute paths are only built for runs that report them
+		return validate(configWrapper, path, context.tracksPaths() ? "" : null, context);
+	}
+	
+	/**
+	 * Validates this node as part of a validation run.
+	 * @param configWrapper the {@link ConfigWrapper} to validate against
+	 * @param path the path of this node relative to {@code parent}
+	 * @param parent the absolute path of the section containing this node or null if the run does not track paths
+	 * @param context the validation run
+	 * @return the result of the validation
+	 */
+	ConfigValidationResult validate(ConfigWrapper configWrapper, String path, String parent, ValidationContext context) {
+		ValidationContext.Probe probe = context.enter(parent, path, baseType);
+		ConfigValidationResult result = validate(configWrapper, path, parent, context, probe);
+		return probe == null ? result : probe.exit(result);
+	}
+	
+	private ConfigValidationResult validate(ConfigWrapper configWrapper, String path, String parent, ValidationContext context, ValidationContext.Probe probe) {
+		if(context.isPastDeadline()) {
+			return context.leafFailed(parent, path, ConfigValidationResult.fail(TimedFilter.DEADLINE_MESSAGE));
+		}
+		
+		long start = probe == null ? 0 : probe.beginWrapperCall();
+		boolean containsNode = configWrapper.containsNode(path);
+		if(probe != null) {
+			probe.wrapperCalled("containsNode", start);
+		}
+		if(!containsNode) {
+			return context.leafFailed(parent, path, ConfigValidationResult.fail("The node is not contained in the config"));
+		}
+		
+		start = probe == null ? 0 : probe.beginWrapperCall();
+		boolean isValidType = isValidType(configWrapper, path);
+		if(probe != null) {
+			probe.wrapperCalled(getTypeCheckMethod(), start);
+		}
+		if(!isValidType) {
+			return context.leafFailed(parent, path, ConfigValidationResult.fail(getTypeFailMessage()));
+		}
 		
-		if(!configWrapper.containsNode(path)) {
-			return ConfigValidationResult.fail("The node is not contained in the config");
+		start = probe == null ? 0 : probe.beginWrapperCall();
+		T value = getValue(configWrapper, path);
+		if(probe != null) {
+			probe.wrapperCalled(getValueMethod(), start);
+		}
+		
+		start = probe == null ? 0 : probe.beginFilter();
+		ConfigFilterResult<U> filterResult = filter(value, path, parent, context);
+		if(probe != null) {
+			probe.filterCalled(start, filterResult.passed());
+		}
+		if(!filterResult.passed()) {
+			ConfigValidationResult result = ConfigValidationResult.fail(FILTER_FAIL_PREFIX + filterResult.getFailMessage());
+			return recordsFilterFailures() ? result : context.leafFailed(parent, path, result);
 		}
 		
-		boolean isValidType = switch (baseType) {
+		return ConfigValidationResult.pass();
+	}
+	
+	/**
+	 * 
+	 * @return whether the node at {@code path} is of the type of this node
+	 */
+	boolean isValidType(ConfigWrapper configWrapper, String path) {
+		return switch (baseType) {
 		case BOOLEAN:
 			yield configWrapper.isBoolean(path);
 		case BYTE:
@@ -108,38 +192,149 @@ public class ConfigNode<T, U> {
 		case STRING:
 			yield configWrapper.isString(path);
 		};
-		if(!isValidType) {
-			return ConfigValidationResult.fail("The node is not of type: " + baseType.toString());
-		}
-		
-		@SuppressWarnings("unchecked")
-		ConfigFilterResult<U> filterResult = switch (baseType) {
+	}
+	
+	/**
+	 * 
+	 * @return the value of the node at {@code path}, which must be of the type of this node
+	 */
+	@SuppressWarnings("unchecked")
+	T getValue(ConfigWrapper configWrapper, String path) {
+		return (T) switch (baseType) {
 		case BOOLEAN:
-			yield ((ConfigNode<Boolean, U>) this).filter(configWrapper.getBoolean(path));
+			yield configWrapper.getBoolean(path);
 		case BYTE:
-			yield ((ConfigNode<Byte, U>) this).filter(configWrapper.getByte(path));
+			yield configWrapper.getByte(path);
 		case DOUBLE:
-			yield ((ConfigNode<Double, U>) this).filter(configWrapper.getDouble(path));
+			yield configWrapper.getDouble(path);
 		case FLOAT:
-			yield ((ConfigNode<Float, U>) this).filter(configWrapper.getFloat(path));
+			yield configWrapper.getFloat(path);
 		case INTEGER:
-			yield ((ConfigNode<Integer, U>) this).filter(configWrapper.getInteger(path));
+			yield configWrapper.getInteger(path);
 		case LIST:
 			throw new UnsupportedOperationException("Cannot validate list outside of ConfigList class");
 		case LONG:
-			yield ((ConfigNode<Long, U>) this).filter(configWrapper.getLong(path));
+			yield configWrapper.getLong(path);
 		case CONFIG_SECTION:
-			yield ((ConfigNode<ConfigWrapper, U>) this).filter(configWrapper.getConfigSubsection(path));
+			yield configWrapper.getConfigSubsection(path);
 		case SHORT:
-			yield ((ConfigNode<Short, U>) this).filter(configWrapper.getShort(path));
+			yield configWrapper.getShort(path);
 		case STRING:
-			yield ((ConfigNode<String, U>) this).filter(configWrapper.getString(path));
+			yield configWrapper.getString(path);
 		};
-		if(!filterResult.passed()) {
-			return ConfigValidationResult.fail("The node's filter failed with the following message: " + filterResult.getFailMessage());
+	}
+	
+	String getTypeFailMessage() {
+		return "The node is not of type: " + baseType.toString();
+	}
+	
+	/**
+	 * 
+	 * @return the name of the {@link ConfigWrapper} method used by {@link #isValidType(ConfigWrapper, String)}
+	 */
+	String getTypeCheckMethod() {
+		return switch (baseType) {
+		case BOOLEAN:
+			yield "isBoolean";
+		case BYTE:
+			yield "isByte";
+		case DOUBLE:
+			yield "isDouble";
+		case FLOAT:
+			yield "isFloat";
+		case INTEGER:
+			yield "isInteger";
+		case LIST:
+			yield "isList";
+		case LONG:
+			yield "isLong";
+		case CONFIG_SECTION:
+			yield "isConfigSubsection";
+		case SHORT:
+			yield "isShort";
+		case STRING:
+			yield "isString";
+		};
+	}
+	
+	/**
+	 * 
+	 * @return the name of the {@link ConfigWrapper} method used by {@link #getValue(ConfigWrapper, String)}
+	 */
+	String getValueMethod() {
+		return switch (baseType) {
+		case BOOLEAN:
+			yield "getBoolean";
+		case BYTE:
+			yield "getByte";
+		case DOUBLE:
+			yield "getDouble";
+		case FLOAT:
+			yield "getFloat";
+		case INTEGER:
+			yield "getInteger";
+		case LIST:
+			yield "getList";
+		case LONG:
+			yield "getLong";
+		case CONFIG_SECTION:
+			yield "getConfigSubsection";
+		case SHORT:
+			yield "getShort";
+		case STRING:
+			yield "getString";
+		};
+	}
+	
+	/**
+	 * Applies the filter of this node as part of a validation run.<br>
+	 * Nodes that contain other nodes override this to validate them within the same run.
+	 * @param input the value of this node
+	 * @param path the path of this node relative to {@code parent}
+	 * @param parent the absolute path of the section containing this node or null if the run does not track paths
+	 * @param context the validation run
+	 * @return the result of the filter, whose output may be null since it is not used
+	 */
+	ConfigFilterResult<U> filter(T input, String path, String parent, ValidationContext context) {
+		if(NullFilter.isNullFilter(filter) && getClass() == ConfigNode.class) {
+			// the output of a node is not used, so the null filter of a plain node does not need to run
+			return ConfigFilterResult.pass(null);
 		}
-		
-		return ConfigValidationResult.pass();
+		if(context.hasDeadline()) {
+			// a node constructed with a filter applies it as is, so the run can tell from the filter whether it may block
+			if(filter != null) {
+				return context.applyFilter(filter, input);
+			}
+			ConfigFilter<T, U> nodeFilter = this::filter;
+			return context.applyFilter(nodeFilter.withCost(getCost()), input);
+		}
+		return filter(input);
+	}
+	
+	/**
+	 * 
+	 * @return the cost of validating this node, which determines its position among the nodes of a {@link ConfigSpec}
+	 */
+	FilterCost getCost() {
+		return getFilter().getCost();
+	}
+	
+	/**
+	 * 
+	 * @return whether this node records the failures of its filter that are not caused by nested nodes itself, since only 
+	 * it can tell them apart
+	 */
+	boolean recordsFilterFailures() {
+		return false;
+	}
+	
+	/**
+	 * Returns a node that validates the same way as this node and can no longer be changed, for {@link ConfigSpec#freeze()}.<br>
+	 * A plain node cannot be changed once it is constructed, so it returns itself.
+	 * @return an unmodifiable equivalent of this node
+	 */
+	ConfigNode<T, U> frozen() {
+		return this;
 	}
 	
 	protected ConfigFilterResult<U> filter(T input) {
@@ -1,50 +1,47 @@
 package io.github.ttno1.configvalidation;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * A Configuration Specification that specifies various {@linkplain ConfigNode}s that must be present in a configuration.<br>
  * This class is used to validate a config with many nodes.<br>
  * Specifies list of nodes and their corresponding locations (paths) in the configuration.<br>
- * When a ConfigSpec is validated against a {@linkplain ConfigWrapper}, each of its contained nodes are validated as well.
+ * When a ConfigSpec is validated against a {@linkplain ConfigWrapper}, each of its contained nodes are validated as well.<br>
+ * A ConfigSpec that is shared between threads should be {@linkplain #freeze() frozen} once all of its nodes are added.
  * @param <U> the return type of the filter of this ConfigSpec
  */
 public class ConfigSpec<U> extends ConfigNode<ConfigWrapper, U> {
 	
-	private Map<String, ConfigNode<?, ?>> nodeMap;
+	private final NodeTable nodeTable;
 	
-	private ConfigFilter<ConfigWrapper, ConfigWrapper> defFilter = (configWrapper) -> {
-		boolean failed = false;
-		Map<ConfigValidationResult, String> resultMap = new HashMap<ConfigValidationResult, String>();
-		for(Entry<String, ConfigNode<?, ?>> entry : nodeMap.entrySet()) {
-			ConfigValidationResult result = entry.getValue().validate(configWrapper, entry.getKey());
-			if(!result.passed()) {
-				failed = true;
-			}
-			resultMap.put(result, entry.getKey());
-		}
-		if(failed) {
-			return ConfigFilterResult.fail("The following nodes in the config spec failed validation: "
-					+ System.lineSeparator() + resultMap.keySet().stream().filter((validationResult) -> {
-						return !validationResult.passed();
-					}).map((validationResult) -> {
-						return resultMap.get(validationResult) + " - " + validationResult.getFailMessage();
-					}).collect(Collectors.joining(System.lineSeparator())));
-		} else {
-			return ConfigFilterResult.pass(configWrapper);
-		}
-	};
+	private final ConfigFilter<ConfigWrapper, U> specFilter;
+	
+	private final ConfigFilter<ConfigWrapper, U> sectionFilter;
 	
 	protected ConfigSpec(ConfigFilter<ConfigWrapper, U> filter) {
+		this(new NodeTable(), filter);
+	}
+	
+	private ConfigSpec(NodeTable nodeTable, ConfigFilter<ConfigWrapper, U> filter) {
 		super(BaseType.CONFIG_SECTION);
 		if(filter == null) {
 			throw new NullPointerException("Filter cannot be null");
 		}
-		this.filter = defFilter.withFilter(filter);
-		nodeMap = new HashMap<String, ConfigNode<?,?>>();
+		this.nodeTable = nodeTable;
+		this.specFilter = filter;
+		this.sectionFilter = (configWrapper) -> {
+			return filterSection(configWrapper, null, ValidationContext.DEFAULT);
+		};
 	}
 	
 	/**
@@ -54,6 +51,7 @@ public class ConfigSpec<U> extends ConfigNode<ConfigWrapper, U> {
 	 * @param node
 	 * @return {@code this}
 	 * @throws NullPointerException if {@code node} is null
+	 * @throws IllegalStateException if this ConfigSpec is frozen
 	 */
 	public ConfigSpec<U> addNode(String path, ConfigNode<?, ?> node) {
 		if(path == null) {
@@ -62,7 +60,7 @@ public class ConfigSpec<U> extends ConfigNode<ConfigWrapper, U> {
 		if(node == null) {
 			throw new NullPointerException("Node cannot be null");
 		}
-		nodeMap.put(path, node);
+		nodeTable.put(path, node);
 		return this;
 	}
 	
@@ -72,6 +70,7 @@ public class ConfigSpec<U> extends ConfigNode<ConfigWrapper, U> {
 	 * @param nodeMap a map of relative paths to {@link ConfigNode}s that should be present in this ConfigSpec
 	 * @return {@code this}
 	 * @throws NullPointerException if {@code nodeMap} is null or contains null keys or values
+	 * @throws IllegalStateException if this ConfigSpec is frozen
 	 */
 	public ConfigSpec<U> addNodes(Map<String, ConfigNode<?, ?>> nodeMap) {
 		if(nodeMap == null) {
@@ -80,10 +79,95 @@ public class ConfigSpec<U> extends ConfigNode<ConfigWrapper, U> {
 		if(nodeMap.containsKey(null) || nodeMap.containsValue(null)) {
 			throw new NullPointerException("Node map cannot contain null entries");
 		}
-		this.nodeMap.putAll(nodeMap);
+		nodeTable.putAll(nodeMap);
 		return this;
 	}
 	
+	/**
+	 * Adds a constraint that every value at {@code path} must be equal to a value at {@code targetPath}.<br>
+	 * Both paths are relative to the root path of this ConfigSpec and may contain {@code [*]} to denote every element of a 
+	 * list, e.g. {@code addReference("routes[*].backend", "backends[*].name")} checks that the backend of each route names a 
+	 * backend. A path that ends with {@code [*]} refers to the elements of a list of values.<br>
+	 * References are checked after the nodes of this ConfigSpec, and only if the nodes at the start of both paths passed. The values 
+	 * at {@code targetPath} are indexed once per validation, so each referencing value is checked in constant time. Each dangling 
+	 * reference is reported at its path with the index of each list element, e.g. {@code routes[2].backend}.<br>
+	 * Values that are missing or are not strings, numbers or booleans are ignored, since the nodes at their paths validate them.
+	 * @param path the path of the referencing values
+	 * @param targetPath the path of the referenced values
+	 * @return {@code this}
+	 * @throws NullPointerException if {@code path} or {@code targetPath} are null
+	 * @throws IllegalArgumentException if either path contains an empty key or a {@code [*]} that is not followed by a {@code "."} 
+	 * or the end of the path
+	 * @throws IllegalStateException if this ConfigSpec is frozen
+	 */
+	public ConfigSpec<U> addReference(String path, String targetPath) {
+		nodeTable.addReference(new CrossReference(path, targetPath));
+		return this;
+	}
+	
+	/**
+	 * Returns a frozen copy of this ConfigSpec, to which no nodes can be added.<br>
+	 * All nested ConfigSpecs, including those of lists of config sections, are frozen as well, so the copy no longer sees 
+	 * nodes that are added to {@code this} or to any of its nested ConfigSpecs. A frozen ConfigSpec can be validated from 
+	 * many threads at once without locking, provided that its filters are safe to call from multiple threads.
+	 * @return a frozen copy of this ConfigSpec or {@code this} if it is already frozen
+	 */
+	public ConfigSpec<U> freeze() {
+		if(isFrozen()) {
+			return this;
+		}
+		return new ConfigSpec<U>(nodeTable.freeze(), specFilter);
+	}
+	
+	/**
+	 * 
+	 * @return whether this ConfigSpec is frozen
+	 * @see #freeze()
+	 */
+	public boolean isFrozen() {
+		return nodeTable.isFrozen();
+	}
+	
+	/**
+	 * Returns a node that only checks that its config section exists and defers the validation of the section against 
+	 * this ConfigSpec until its value is first accessed.<br>
+	 * The output of the node is a {@link LazyValue}, which validates the section the first time {@link LazyValue#get()} is 
+	 * called and throws a {@link ConfigValidationException} if it fails. This allows large optional sections to be added to 
+	 * a spec without validating them at startup on hosts that never use them.<br>
+	 * Freezing a ConfigSpec that contains the node, or a node derived from it with {@link ConfigNode#withFilter(ConfigFilter)} 
+	 * or {@link ConfigNode#thenRun(Consumer)}, freezes this ConfigSpec in the copy as well.
+	 * @return a lazy node for this ConfigSpec
+	 */
+	public ConfigNode<ConfigWrapper, LazyValue<U>> lazy() {
+		return new LazyNode<U, LazyValue<U>>(this, ConfigFilter.nullFilter());
+	}
+	
+	/**
+	 * Returns a new ConfigSpec with the provided filter appended onto the filter of this ConfigSpec using
+	 * {@link ConfigFilter#withFilter(ConfigFilter)}.<br>
+	 * The new ConfigSpec shares its nodes with {@code this}, so nodes added to either are validated by both, and it is frozen 
+	 * if {@code this} is frozen.
+	 * @param <V> the return type of the new filter
+	 * @param filter the filter to append to the current filter
+	 * @return a new ConfigSpec with the provided filter appended onto the current filter
+	 */
+	@Override
+	public <V> ConfigSpec<V> withFilter(ConfigFilter<U, V> filter) {
+		return new ConfigSpec<V>(nodeTable, specFilter.withFilter(filter));
+	}
+	
+	/**
+	 * Returns a new ConfigSpec with the provided consumer appended onto the filter of this ConfigSpec akin to 
+	 * {@link ConfigFilter#thenRun(Consumer)}.<br>
+	 * The new ConfigSpec shares its nodes with {@code this}, so nodes added to either are validated by both.
+	 * @param consumer the consumer to append to the current filter
+	 * @return a new ConfigSpec with the provided consumer appended onto the current filter
+	 */
+	@Override
+	public ConfigSpec<U> thenRun(Consumer<U> consumer) {
+		return withFilter(ConfigFilter.run(consumer));
+	}
+	
 	/**
 	 * Convenience method that calls {@link ConfigNode#validate(ConfigWrapper, String)} with an empty string as the path argument.<br>
 	 * Useful when this {@code ConfigSpec} is at the root of the config.
@@ -94,4 +178,403 @@ public class ConfigSpec<U> extends ConfigNode<ConfigWrapper, U> {
 		return super.validate(configWrapper, "");
 	}
 	
+	/**
+	 * Convenience method that calls {@link ConfigNode#validate(ConfigWrapper, String, ValidationOptions)} with an empty string 
+	 * as the path argument.<br>
+	 * Useful when this {@code ConfigSpec} is at the root of the config.
+	 * @param configWrapper the {@link ConfigWrapper} to validate against
+	 * @param options the options that control the validation
+	 * @return a {@link ConfigValidationResult} containing whether the validation was successful and a fail message if it failed
+	 */
+	public ConfigValidationResult validate(ConfigWrapper configWrapper, ValidationOptions options) {
+		return super.validate(configWrapper, "", options);
+	}
+	
+	/**
+	 * Validates this ConfigSpec against each of the supplied configs (as with {@link #validate(ConfigWrapper)}) using up to 
+	 * {@code parallelism} threads.<br>
+	 * The configs are consumed lazily and share all of the work that does not depend on a particular config. 
+	 * See {@link BatchValidationReport} for how the results are aggregated.
+	 * @param configWrappers the configs to validate, in the order their indexes appear in the report
+	 * @param parallelism the maximum number of configs to validate at once
+	 * @return the aggregated report
+	 * @throws NullPointerException if {@code configWrappers} is null or contains null
+	 * @throws IllegalArgumentException if {@code parallelism} is less than 1
+	 */
+	public BatchValidationReport validateAll(Iterable<? extends ConfigWrapper> configWrappers, int parallelism) {
+		return validateAll(configWrappers, parallelism, ValidationOptions.defaults());
+	}
+	
+	/**
+	 * Same as {@link #validateAll(Iterable, int)} with the specified options.
+	 * @param configWrappers the configs to validate, in the order their indexes appear in the report
+	 * @param parallelism the maximum number of configs to validate at once
+	 * @param options the options that control the validation of each config
+	 * @return the aggregated report
+	 * @throws NullPointerException if {@code configWrappers} or {@code options} are null or {@code configWrappers} contains null
+	 * @throws IllegalArgumentException if {@code parallelism} is less than 1
+	 */
+	public BatchValidationReport validateAll(Iterable<? extends ConfigWrapper> configWrappers, int parallelism, ValidationOptions options) {
+		if(configWrappers == null) {
+			throw new NullPointerException("Config wrappers cannot be null");
+		}
+		return BatchValidation.validate(this, configWrappers.iterator(), parallelism, options);
+	}
+	
+	/**
+	 * Same as {@link #validateAll(Iterable, int)} for a stream of configs.
+	 * @param configWrappers the configs to validate, in the order their indexes appear in the report
+	 * @param parallelism the maximum number of configs to validate at once
+	 * @return the aggregated report
+	 * @throws NullPointerException if {@code configWrappers} is null or contains null
+	 * @throws IllegalArgumentException if {@code parallelism} is less than 1
+	 */
+	public BatchValidationReport validateAll(Stream<? extends ConfigWrapper> configWrappers, int parallelism) {
+		if(configWrappers == null) {
+			throw new NullPointerException("Config wrappers cannot be null");
+		}
+		return BatchValidation.validate(this, configWrappers.iterator(), parallelism, ValidationOptions.defaults());
+	}
+	
+	/**
+	 * Returns a publisher that validates this ConfigSpec against the supplied config (as with 
+	 * {@link #validate(ConfigWrapper, ValidationOptions)}) and publishes a {@link ValidationEvent} for each node as its 
+	 * validation completes, ending with the root of the config.<br>
+	 * Each subscription runs its own validation on a new virtual thread. Validation pauses while the subscriber's buffer is full 
+	 * and stops once the subscription is cancelled. The publisher completes when the validation has finished and completes 
+	 * exceptionally if the validation throws.
+	 * @param configWrapper the {@link ConfigWrapper} to validate against
+	 * @param options the options that control the validation
+	 * @return a publisher of the validation events
+	 * @throws NullPointerException if {@code configWrapper} or {@code options} are null
+	 */
+	public Flow.Publisher<ValidationEvent> publish(ConfigWrapper configWrapper, ValidationOptions options) {
+		if(configWrapper == null) {
+			throw new NullPointerException("Config wrapper cannot be null");
+		}
+		return new ValidationPublisher(this, List.of(configWrapper), options);
+	}
+	
+	/**
+	 * Same as {@link #publish(ConfigWrapper, ValidationOptions)} for many configs, which are validated one after another.<br>
+	 * The {@link ValidationEvent#index() index} of each event is the index of its config.
+	 * @param configWrappers the configs to validate
+	 * @param options the options that control the validation of each config
+	 * @return a publisher of the validation events
+	 * @throws NullPointerException if {@code configWrappers} or {@code options} are null
+	 */
+	public Flow.Publisher<ValidationEvent> publishAll(Iterable<? extends ConfigWrapper> configWrappers, ValidationOptions options) {
+		return new ValidationPublisher(this, configWrappers, options);
+	}
+	
+	@Override
+	ConfigSpec<U> frozen() {
+		return freeze();
+	}
+	
+	/**
+	 * The cost of a ConfigSpec is the highest cost of its filter and of its nodes.
+	 */
+	@Override
+	FilterCost getCost() {
+		return FilterCost.max(specFilter.getCost(), nodeTable.snapshot().cost);
+	}
+	
+	@Override
+	protected ConfigFilterResult<U> filter(ConfigWrapper input) {
+		return sectionFilter.filter(input);
+	}
+	
+	@Override
+	protected ConfigFilter<ConfigWrapper, U> getFilter() {
+		return sectionFilter;
+	}
+	
+	@Override
+	ConfigFilterResult<U> filter(ConfigWrapper input, String path, String parent, ValidationContext context) {
+		if(NullFilter.isNullFilter(specFilter) && !context.memoizesSections()) {
+			// the output of a node is not used, so a spec without a filter only needs to validate its nodes
+			String failMessage = validateNodes(input, ValidationContext.join(parent, path), context);
+			return failMessage == null ? ConfigFilterResult.pass(null) : ConfigFilterResult.fail(failMessage);
+		}
+		return filterSection(input, ValidationContext.join(parent, path), context);
+	}
+	
+	/**
+	 * Validates each node of this ConfigSpec against the supplied section and then applies the filter of this ConfigSpec.
+	 * @param configWrapper the section to validate
+	 * @param path the absolute path of the section or null if the run does not track paths
+	 * @param context the validation run
+	 * @return the result of the filter or a failed result if any nodes failed validation
+	 */
+	ConfigFilterResult<U> filterSection(ConfigWrapper configWrapper, String path, ValidationContext context) {
+		// a partially selected section skips some of its nodes, so its result is neither stored nor reused
+		Object source = context.memoizesSections() && context.isFullySelected(path) ? configWrapper.getSource() : null;
+		if(source == null) {
+			return validateSection(configWrapper, path, context);
+		}
+		ConfigFilterResult<U> result = context.getSectionResult(this, source);
+		if(result == null) {
+			result = validateSection(configWrapper, path, context);
+			context.putSectionResult(this, source, result);
+		} else if(!result.passed()) {
+			// the nested failures were recorded at the path where the section was first validated
+			context.leafFailed(path, FILTER_FAIL_PREFIX + result.getFailMessage());
+		}
+		return result;
+	}
+	
+	private ConfigFilterResult<U> validateSection(ConfigWrapper configWrapper, String path, ValidationContext context) {
+		String failMessage = validateNodes(configWrapper, path, context);
+		if(failMessage != null) {
+			return ConfigFilterResult.fail(failMessage);
+		}
+		ConfigFilterResult<U> result = context.applyFilter(specFilter, configWrapper);
+		if(!result.passed()) {
+			context.leafFailed(path, FILTER_FAIL_PREFIX + result.getFailMessage());
+		}
+		return result;
+	}
+	
+	/**
+	 * A section fails either because of its nodes, which record their own failures, or because of the filter of this ConfigSpec.
+	 */
+	@Override
+	boolean recordsFilterFailures() {
+		return true;
+	}
+	
+	/**
+	 * Validates each node of this ConfigSpec against the supplied section.<br>
+	 * Nodes are validated in order of their cost, but any failures are listed in the order their paths were first added. 
+	 * Nothing is allocated unless a node fails.
+	 * @return the fail message or null if all nodes passed
+	 */
+	private String validateNodes(ConfigWrapper configWrapper, String path, ValidationContext context) {
+		FlightRecorderEvents.SpecValidation event = context.enterSpec();
+		NodeTable.Snapshot nodes = nodeTable.snapshot();
+		String[] failMessages = null;
+		for(int i = 0; i < nodes.paths.length; i++) {
+			if(context.isSelective() && !context.isSelected(ValidationContext.join(path, nodes.paths[i]))) {
+				continue;
+			}
+			ConfigValidationResult result = nodes.nodes[i].validate(configWrapper, nodes.paths[i], path, context);
+			if(!result.passed()) {
+				if(failMessages == null) {
+					failMessages = new String[nodes.paths.length];
+				}
+				failMessages[i] = result.getFailMessage();
+				if(context.isFailFast()) {
+					break;
+				}
+			}
+		}
+		FailureCollector failures = null;
+		if(failMessages != null) {
+			failures = context.collectFailures(FailureCollector.SPEC_HEADER);
+			for(int i : nodes.addedOrder) {
+				if(failMessages[i] != null) {
+					ConfigNode<?, ?> node = nodes.nodes[i];
+					failures.add(nodes.paths[i], -1, failMessages[i], !(node instanceof ConfigSpec || node instanceof ConfigList));
+				}
+			}
+		}
+		if(nodes.references.length > 0 && !(failMessages != null && context.isFailFast())) {
+			failures = checkReferences(configWrapper, path, nodes, failMessages, failures, context);
+		}
+		context.exitSpec(event, path, nodes.paths.length, failures == null);
+		return failures == null ? null : failures.getFailMessage();
+	}
+	
+	/**
+	 * Checks each reference whose nodes passed, indexing the values of each target path once.
+	 * @param path the absolute path of the section or null if the run does not track paths
+	 * @param failMessages the fail messages of the nodes by their index in the snapshot or null if all of them passed
+	 * @param failures the collector of the node failures or null if all nodes passed
+	 * @return the collector with any dangling references added or null if there are no failures
+	 */
+	private FailureCollector checkReferences(ConfigWrapper configWrapper, String path, NodeTable.Snapshot nodes, String[] failMessages, 
+			FailureCollector failures, ValidationContext context) {
+		Map<String, Set<Object>> indexes = new HashMap<String, Set<Object>>();
+		FailureCollector[] collector = {failures};
+		for(int i = 0; i < nodes.references.length; i++) {
+			if(!ownersPassed(nodes.referenceOwners[i], failMessages)) {
+				continue;
+			}
+			CrossReference reference = nodes.references[i];
+			if(context.isSelective() && !context.isSelected(ValidationContext.join(path, reference.getRoot())) 
+					&& !context.isSelected(ValidationContext.join(path, reference.getTargetRoot()))) {
+				continue;
+			}
+			Set<Object> index = indexes.computeIfAbsent(reference.getTargetPath(), targetPath -> reference.index(configWrapper));
+			reference.check(configWrapper, index, (referencePath, failMessage) -> {
+				if(collector[0] == null) {
+					collector[0] = context.collectFailures(FailureCollector.SPEC_HEADER);
+				}
+				collector[0].add(referencePath, -1, failMessage, true);
+				context.leafFailed(ValidationContext.join(path, referencePath), failMessage);
+			});
+			if(collector[0] != null && context.isFailFast()) {
+				break;
+			}
+		}
+		return collector[0];
+	}
+	
+	private static boolean ownersPassed(int[] owners, String[] failMessages) {
+		if(failMessages == null) {
+			return true;
+		}
+		for(int owner : owners) {
+			if(failMessages[owner] != null) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * The nodes of a ConfigSpec, shared by all ConfigSpecs derived from it with {@link ConfigSpec#withFilter(ConfigFilter)}.<br>
+	 * Validation iterates over an array snapshot of the nodes that is built once and reused until a node is added, so repeated 
+	 * validations of the same spec (e.g. over many configs or list elements) do not iterate the map.<br>
+	 * A frozen table has no map and holds its snapshot in a final field, so it is safely published without any locking.<br>
+	 * The snapshot orders the nodes by cost, so the costs of nested ConfigSpecs are those at the time it was built.
+	 */
+	private static final class NodeTable {
+		
+		private final Map<String, ConfigNode<?, ?>> nodeMap;
+		
+		private final List<CrossReference> references;
+		
+		private final Snapshot frozen;
+		
+		private volatile Snapshot snapshot;
+		
+		NodeTable() {
+			this.nodeMap = new LinkedHashMap<String, ConfigNode<?,?>>();
+			this.references = new ArrayList<CrossReference>();
+			this.frozen = null;
+		}
+		
+		private NodeTable(Snapshot frozen) {
+			this.nodeMap = null;
+			this.references = null;
+			this.frozen = frozen;
+		}
+		
+		boolean isFrozen() {
+			return frozen != null;
+		}
+		
+		synchronized void put(String path, ConfigNode<?, ?> node) {
+			checkNotFrozen();
+			nodeMap.put(path, node);
+			snapshot = null;
+		}
+		
+		synchronized void putAll(Map<String, ConfigNode<?, ?>> nodes) {
+			checkNotFrozen();
+			nodeMap.putAll(nodes);
+			snapshot = null;
+		}
+		
+		synchronized void addReference(CrossReference reference) {
+			checkNotFrozen();
+			references.add(reference);
+			snapshot = null;
+		}
+		
+		private void checkNotFrozen() {
+			if(frozen != null) {
+				throw new IllegalStateException("Nodes cannot be added to a frozen ConfigSpec");
+			}
+		}
+		
+		/**
+		 * 
+		 * @return a frozen table containing frozen copies of the current nodes
+		 */
+		synchronized NodeTable freeze() {
+			Map<String, ConfigNode<?, ?>> frozenNodes = new LinkedHashMap<String, ConfigNode<?,?>>();
+			for(Entry<String, ConfigNode<?, ?>> entry : nodeMap.entrySet()) {
+				frozenNodes.put(entry.getKey(), entry.getValue().frozen());
+			}
+			return new NodeTable(new Snapshot(frozenNodes, references));
+		}
+		
+		Snapshot snapshot() {
+			if(frozen != null) {
+				return frozen;
+			}
+			Snapshot current = snapshot;
+			if(current == null) {
+				synchronized(this) {
+					current = snapshot;
+					if(current == null) {
+						current = new Snapshot(nodeMap, references);
+						snapshot = current;
+					}
+				}
+			}
+			return current;
+		}
+		
+		private static final class Snapshot {
+			
+			private final String[] paths;
+			
+			private final ConfigNode<?, ?>[] nodes;
+			
+			/**
+			 * The indexes of the nodes in the order they were added.
+			 */
+			private final int[] addedOrder;
+			
+			private final FilterCost cost;
+			
+			private final CrossReference[] references;
+			
+			/**
+			 * The indexes of the nodes that each reference depends on.
+			 */
+			private final int[][] referenceOwners;
+			
+			private Snapshot(Map<String, ConfigNode<?, ?>> nodeMap, List<CrossReference> references) {
+				int size = nodeMap.size();
+				String[] addedPaths = nodeMap.keySet().toArray(new String[size]);
+				ConfigNode<?, ?>[] addedNodes = nodeMap.values().toArray(new ConfigNode<?, ?>[size]);
+				FilterCost[] costs = new FilterCost[size];
+				FilterCost max = FilterCost.CHEAP;
+				for(int i = 0; i < size; i++) {
+					costs[i] = addedNodes[i].getCost();
+					max = FilterCost.max(max, costs[i]);
+				}
+				paths = new String[size];
+				nodes = new ConfigNode<?, ?>[size];
+				addedOrder = new int[size];
+				// a stable sort by cost, so nodes of equal cost keep the order they were added in
+				int i = 0;
+				for(FilterCost cost : FilterCost.values()) {
+					for(int added = 0; added < size; added++) {
+						if(costs[added] == cost) {
+							paths[i] = addedPaths[added];
+							nodes[i] = addedNodes[added];
+							addedOrder[added] = i;
+							i++;
+						}
+					}
+				}
+				cost = max;
+				this.references = references.toArray(new CrossReference[references.size()]);
+				referenceOwners = new int[this.references.length][];
+				for(int r = 0; r < this.references.length; r++) {
+					CrossReference reference = this.references[r];
+					referenceOwners[r] = IntStream.range(0, size).filter(n -> reference.dependsOn(paths[n])).toArray();
+				}
+			}
+			
+		}
+		
+	}
+	
 }
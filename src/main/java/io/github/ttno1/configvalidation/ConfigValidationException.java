@@ -0,0 +1,42 @@
+package io.github.ttno1.configvalidation;
+
+/**
+ * Thrown when a configuration fails validation at a point where a value is required and a
+ * {@linkplain ConfigValidationResult} cannot be returned instead (e.g. when binding a config to an object).
+ */
+public class ConfigValidationException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient ConfigValidationResult result;
+
+	/**
+	 *
+	 * @param result the failed validation result
+	 * @throws NullPointerException if {@code result} is null
+	 * @throws IllegalArgumentException if {@code result} passed
+	 */
+	public ConfigValidationException(ConfigValidationResult result) {
+		super(checkFailed(result).getFailMessage());
+		this.result = result;
+	}
+
+	/**
+	 *
+	 * @return the failed validation result that caused this exception
+	 */
+	public ConfigValidationResult getResult() {
+		return result;
+	}
+
+	private static ConfigValidationResult checkFailed(ConfigValidationResult result) {
+		if(result == null) {
+			throw new NullPointerException("Result cannot be null");
+		}
+		if(result.passed()) {
+			throw new IllegalArgumentException("Result must be a failed result");
+		}
+		return result;
+	}
+
+}
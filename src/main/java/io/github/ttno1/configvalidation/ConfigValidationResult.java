@@ -12,6 +12,8 @@ public class ConfigValidationResult {
 	
 	private final String failMessage;
 	
+	private static final ConfigValidationResult PASS = new ConfigValidationResult(true, null);
+	
 	private ConfigValidationResult(boolean passed, String failMessage) {
 		this.passed = passed;
 		this.failMessage = failMessage;
@@ -61,11 +63,21 @@ public class ConfigValidationResult {
 		return this;
 	}
 	
-	protected static ConfigValidationResult pass() {
-		return new ConfigValidationResult(true, null);
+	/**
+	 * Returns a ConfigValidationResult that passed.<br>
+	 * Passed results are immutable and carry no data, so a single shared instance is returned.
+	 * @return a ConfigValidationResult that passed
+	 */
+	public static ConfigValidationResult pass() {
+		return PASS;
 	}
 	
-	protected static ConfigValidationResult fail(String failMessage) {
+	/**
+	 * Creates a new ConfigValidationResult that failed with the specified fail message.
+	 * @param failMessage the fail message
+	 * @return a new ConfigValidationResult that failed with the specified fail message
+	 */
+	public static ConfigValidationResult fail(String failMessage) {
 		return new ConfigValidationResult(false, failMessage);
 	}
 
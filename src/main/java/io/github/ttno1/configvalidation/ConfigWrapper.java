@@ -54,4 +54,14 @@ public interface ConfigWrapper {
 	
 	boolean isString(String path);
 	
+	/**
+	 * Returns the object that holds the data of this wrapper (e.g. the underlying map), if there is one.<br>
+	 * Wrappers that return the identical object must contain the same data, which lets validation recognize sections that 
+	 * are shared between several paths (such as YAML anchors and aliases).
+	 * @return the object that holds the data of this wrapper or null if there is none (the default)
+	 */
+	default Object getSource() {
+		return null;
+	}
+	
 }
@@ -0,0 +1,34 @@
+package io.github.ttno1.configvalidation;
+
+/**
+ * A filter with a {@linkplain FilterCost} hint, returned by {@linkplain ConfigFilter#withCost(FilterCost)}.
+ * @param <T> the input type
+ * @param <U> the output type
+ */
+final class CostedFilter<T, U> implements ConfigFilter<T, U> {
+	
+	private final ConfigFilter<T, U> filter;
+	
+	private final FilterCost cost;
+	
+	CostedFilter(ConfigFilter<T, U> filter, FilterCost cost) {
+		this.filter = filter;
+		this.cost = cost;
+	}
+	
+	@Override
+	public ConfigFilterResult<U> filter(T input) {
+		return filter.filter(input);
+	}
+	
+	@Override
+	public FilterCost getCost() {
+		return cost;
+	}
+	
+	@Override
+	public ConfigFilter<T, U> withCost(FilterCost cost) {
+		return filter.withCost(cost);
+	}
+	
+}
@@ -0,0 +1,264 @@
+package io.github.ttno1.configvalidation;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A constraint that each value at one path of a config section names a value at another path of the same section, added
+ * with {@linkplain ConfigSpec#addReference(String, String)}.<br>
+ * Both paths may contain {@code [*]} to denote every element of a list, e.g. {@code routes[*].backend} refers to the
+ * {@code backend} node of each config section in the {@code routes} list. The values at the target path are collected into a
+ * hash set once per validation of the section, so checking the referencing values takes time linear in the number of values.<br>
+ * Values are compared as strings, integral numbers (as {@code long}s), floating point numbers (as {@code double}s) or booleans.
+ */
+final class CrossReference {
+	
+	private final String path;
+	
+	private final String targetPath;
+	
+	private final String[] parts;
+	
+	private final String[] targetParts;
+	
+	private final String failMessage;
+	
+	/**
+	 * 
+	 * @throws NullPointerException if {@code path} or {@code targetPath} are null
+	 * @throws IllegalArgumentException if either path is malformed
+	 */
+	CrossReference(String path, String targetPath) {
+		if(path == null) {
+			throw new NullPointerException("Path cannot be null");
+		}
+		if(targetPath == null) {
+			throw new NullPointerException("Target path cannot be null");
+		}
+		this.path = path;
+		this.targetPath = targetPath;
+		this.parts = parse(path);
+		this.targetParts = parse(targetPath);
+		this.failMessage = "The referenced value does not exist at " + targetPath + ": ";
+	}
+	
+	/**
+	 * Splits a path at each {@code [*]} into the keys of the lists and the key of the value.
+	 * @return the keys, the last of which is empty if the path ends with {@code [*]}
+	 */
+	private static String[] parse(String path) {
+		String[] parts = path.split("\\[\\*\\]", -1);
+		for(int i = 0; i < parts.length; i++) {
+			if(i > 0 && !parts[i].isEmpty()) {
+				if(!parts[i].startsWith(".")) {
+					throw new IllegalArgumentException("[*] must be followed by a '.' or the end of the path: " + path);
+				}
+				parts[i] = parts[i].substring(1);
+			}
+			if(parts[i].isEmpty() && (i == 0 || i < parts.length - 1)) {
+				throw new IllegalArgumentException("Path contains an empty key: " + path);
+			}
+		}
+		return parts;
+	}
+	
+	/**
+	 * 
+	 * @return the path of the referencing values
+	 */
+	String getPath() {
+		return path;
+	}
+	
+	/**
+	 * 
+	 * @return the path of the referenced values
+	 */
+	String getTargetPath() {
+		return targetPath;
+	}
+	
+	/**
+	 * 
+	 * @return the path of the list or value at the start of the path
+	 */
+	String getRoot() {
+		return parts[0];
+	}
+	
+	/**
+	 * 
+	 * @return the path of the list or value at the start of the target path
+	 */
+	String getTargetRoot() {
+		return targetParts[0];
+	}
+	
+	/**
+	 * 
+	 * @param nodePath the path of a node of the ConfigSpec
+	 * @return whether the node contains, or is contained in, the node at the start of either path, so the reference is only
+	 * checked if it passed
+	 */
+	boolean dependsOn(String nodePath) {
+		return related(nodePath, parts[0]) || related(nodePath, targetParts[0]);
+	}
+	
+	private static boolean related(String nodePath, String key) {
+		return nodePath.equals(key) || contains(nodePath, key) || contains(key, nodePath);
+	}
+	
+	private static boolean contains(String outer, String inner) {
+		return inner.length() > outer.length() && inner.startsWith(outer)
+				&& (inner.charAt(outer.length()) == '.' || inner.charAt(outer.length()) == '[');
+	}
+	
+	/**
+	 * 
+	 * @param configWrapper the section that contains the target path
+	 * @return the values at the target path
+	 */
+	Set<Object> index(ConfigWrapper configWrapper) {
+		Set<Object> index = new HashSet<Object>();
+		forEachValue(configWrapper, targetParts, 0, new int[targetParts.length - 1], (indexes, value) -> index.add(value));
+		return index;
+	}
+	
+	/**
+	 * Checks each value at the path against the index of the target values.
+	 * @param configWrapper the section that contains the path
+	 * @param index the values at the target path
+	 * @param failures the collector that each dangling reference is added to, with its path relative to the section
+	 */
+	void check(ConfigWrapper configWrapper, Set<Object> index, FailureSink failures) {
+		forEachValue(configWrapper, parts, 0, new int[parts.length - 1], (indexes, value) -> {
+			if(!index.contains(value)) {
+				failures.add(pathOf(indexes), failMessage + value);
+			}
+		});
+	}
+	
+	/**
+	 * 
+	 * @return the path of a referencing value with each {@code [*]} replaced by the index of the element
+	 */
+	private String pathOf(int[] indexes) {
+		StringBuilder builder = new StringBuilder(parts[0]);
+		for(int i = 1; i < parts.length; i++) {
+			builder.append('[').append(indexes[i - 1]).append(']');
+			if(!parts[i].isEmpty()) {
+				builder.append('.').append(parts[i]);
+			}
+		}
+		return builder.toString();
+	}
+	
+	private static void forEachValue(ConfigWrapper configWrapper, String[] parts, int part, int[] indexes, ValueAction action) {
+		String key = parts[part];
+		if(part == parts.length - 1) {
+			Object value = value(configWrapper, key);
+			if(value != null) {
+				action.accept(indexes, value);
+			}
+			return;
+		}
+		if(part == parts.length - 2 && parts[part + 1].isEmpty()) {
+			if(!configWrapper.isList(key, BaseType.STRING, Object.class)) {
+				return;
+			}
+			List<Object> elements = configWrapper.getList(key, BaseType.STRING, Object.class);
+			if(elements == null) {
+				return;
+			}
+			int i = 0;
+			for(Object element : elements) {
+				Object value = normalize(element);
+				if(value != null) {
+					indexes[part] = i;
+					action.accept(indexes, value);
+				}
+				i++;
+			}
+			return;
+		}
+		if(!configWrapper.isList(key, BaseType.CONFIG_SECTION, ConfigWrapper.class)) {
+			return;
+		}
+		List<ConfigWrapper> sections = configWrapper.getList(key, BaseType.CONFIG_SECTION, ConfigWrapper.class);
+		if(sections == null) {
+			return;
+		}
+		int i = 0;
+		for(ConfigWrapper section : sections) {
+			if(section != null) {
+				indexes[part] = i;
+				forEachValue(section, parts, part + 1, indexes, action);
+			}
+			i++;
+		}
+	}
+	
+	/**
+	 * 
+	 * @return the value at the key of the section in its comparable form or null if there is no scalar value
+	 */
+	private static Object value(ConfigWrapper configWrapper, String key) {
+		if(!configWrapper.containsNode(key)) {
+			return null;
+		}
+		if(configWrapper.isString(key)) {
+			return configWrapper.getString(key);
+		}
+		if(configWrapper.isInteger(key)) {
+			return normalize(configWrapper.getInteger(key));
+		}
+		if(configWrapper.isLong(key)) {
+			return configWrapper.getLong(key);
+		}
+		if(configWrapper.isShort(key)) {
+			return normalize(configWrapper.getShort(key));
+		}
+		if(configWrapper.isByte(key)) {
+			return normalize(configWrapper.getByte(key));
+		}
+		if(configWrapper.isDouble(key)) {
+			return configWrapper.getDouble(key);
+		}
+		if(configWrapper.isFloat(key)) {
+			return normalize(configWrapper.getFloat(key));
+		}
+		if(configWrapper.isBoolean(key)) {
+			return configWrapper.getBoolean(key);
+		}
+		return null;
+	}
+	
+	private static Object normalize(Object value) {
+		if(value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number) value).longValue();
+		}
+		if(value instanceof Float f) {
+			return f.doubleValue();
+		}
+		return value;
+	}
+	
+	@FunctionalInterface
+	private interface ValueAction {
+		
+		void accept(int[] indexes, Object value);
+		
+	}
+	
+	/**
+	 * Receives the dangling references found by {@linkplain CrossReference#check(ConfigWrapper, Set, FailureSink)}.
+	 */
+	@FunctionalInterface
+	interface FailureSink {
+		
+		void add(String path, String failMessage);
+		
+	}
+	
+}
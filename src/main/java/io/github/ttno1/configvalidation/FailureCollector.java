@@ -0,0 +1,254 @@
+package io.github.ttno1.configvalidation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Builds the fail message of a node that lists the failures of several nodes or elements.<br>
+ * Keeps at most {@code maxFailures} failures and only counts the rest, so a node with many failures allocates nothing 
+ * per failure once the limit is reached. Leaf failures (those of filters and of nodes that do not contain other nodes) 
+ * additionally draw from the budget shared by the whole validation and are truncated to {@code maxMessageLength}.<br>
+ * When {@code maxExamples} is positive, failures are grouped by their {@linkplain #template(String) template} instead and 
+ * each group is listed once with its count and the paths or indexes of its first {@code maxExamples} failures. The limits 
+ * then apply to groups rather than to single failures.<br>
+ * Instances are not thread-safe.
+ */
+final class FailureCollector {
+	
+	static final String SPEC_HEADER = "The following nodes in the config spec failed validation: ";
+	
+	static final String LIST_HEADER = "One or more filters failed while being applied to a list:";
+	
+	private final String header;
+	
+	private final int maxFailures;
+	
+	private final int maxMessageLength;
+	
+	private final AtomicInteger budget;
+	
+	private final int maxExamples;
+	
+	private List<Failure> failures = Collections.emptyList();
+	
+	private Map<String, Group> groups;
+	
+	private int count;
+	
+	private int omitted;
+	
+	/**
+	 * 
+	 * @param header the first line of the fail message
+	 * @param maxFailures the maximum number of failures (or groups) to keep
+	 * @param maxMessageLength the maximum length of a leaf fail message
+	 * @param budget the number of leaf failures the validation may still keep or null if unlimited
+	 * @param maxExamples the number of paths or indexes listed per group or 0 to list failures without grouping them
+	 */
+	FailureCollector(String header, int maxFailures, int maxMessageLength, AtomicInteger budget, int maxExamples) {
+		this.header = header;
+		this.maxFailures = maxFailures;
+		this.maxMessageLength = maxMessageLength;
+		this.budget = budget;
+		this.maxExamples = maxExamples;
+	}
+	
+	/**
+	 * 
+	 * @return a collector with the same limits and no budget, for a part of a list whose failures are later added with {@link #addAll(FailureCollector, boolean)}
+	 */
+	FailureCollector newPart() {
+		return new FailureCollector(header, maxFailures, maxMessageLength, null, maxExamples);
+	}
+	
+	/**
+	 * Adds a failure.
+	 * @param path the path the failure is listed under or null if it is the failure of a list element
+	 * @param index the index of the list element or -1 if the failure is listed under a path
+	 * @param failMessage the fail message
+	 * @param leaf whether the failure is a leaf failure
+	 */
+	void add(String path, int index, String failMessage, boolean leaf) {
+		count++;
+		if(maxExamples > 0) {
+			String template = template(failMessage);
+			Group group = groups == null ? null : groups.get(template);
+			if(group != null) {
+				group.add(path, index, 1);
+				return;
+			}
+			if(!keep(groups == null ? 0 : groups.size(), leaf)) {
+				omitted++;
+				return;
+			}
+			if(groups == null) {
+				groups = new LinkedHashMap<String, Group>();
+			}
+			group = new Group(truncate(failMessage, leaf));
+			group.add(path, index, 1);
+			groups.put(template, group);
+			return;
+		}
+		if(!keep(failures.size(), leaf)) {
+			omitted++;
+			return;
+		}
+		if(failures.isEmpty()) {
+			failures = new ArrayList<Failure>();
+		}
+		failures.add(new Failure(path, truncate(failMessage, leaf)));
+	}
+	
+	/**
+	 * Adds a failure whose fail message is only created if the failure is kept or grouped by its template.
+	 * @param path the path the failure is listed under or null if it is the failure of a list element
+	 * @param index the index of the list element or -1 if the failure is listed under a path
+	 * @param failMessage supplies the fail message
+	 * @param leaf whether the failure is a leaf failure
+	 */
+	void add(String path, int index, Supplier<String> failMessage, boolean leaf) {
+		if(maxExamples <= 0 && (failures.size() >= maxFailures || (leaf && budget != null && budget.get() <= 0))) {
+			count++;
+			omitted++;
+			return;
+		}
+		add(path, index, failMessage.get(), leaf);
+	}
+	
+	/**
+	 * Adds the failures of a collector created by {@link #newPart()} after the failures of this collector.
+	 * @param part the collector of the next part of a list
+	 * @param leaf whether the failures are leaf failures
+	 */
+	void addAll(FailureCollector part, boolean leaf) {
+		for(Failure failure : part.failures) {
+			add(failure.path, -1, failure.failMessage, leaf);
+		}
+		if(part.groups != null) {
+			for(Map.Entry<String, Group> entry : part.groups.entrySet()) {
+				Group partGroup = entry.getValue();
+				count += partGroup.count;
+				Group group = groups == null ? null : groups.get(entry.getKey());
+				if(group == null) {
+					if(!keep(groups == null ? 0 : groups.size(), leaf)) {
+						omitted += partGroup.count;
+						continue;
+					}
+					if(groups == null) {
+						groups = new LinkedHashMap<String, Group>();
+					}
+					group = new Group(partGroup.failMessage);
+					groups.put(entry.getKey(), group);
+				}
+				for(String example : partGroup.examples) {
+					group.add(example, -1, 0);
+				}
+				group.count += partGroup.count;
+			}
+		}
+		count += part.omitted;
+		omitted += part.omitted;
+	}
+	
+	private boolean keep(int kept, boolean leaf) {
+		return kept < maxFailures && !(leaf && budget != null && budget.getAndDecrement() <= 0);
+	}
+	
+	private String truncate(String failMessage, boolean leaf) {
+		if(leaf && failMessage.length() > maxMessageLength) {
+			return failMessage.substring(0, maxMessageLength) + "...";
+		}
+		return failMessage;
+	}
+	
+	/**
+	 * 
+	 * @return the fail message or null if no failure was added
+	 */
+	String getFailMessage() {
+		if(count == 0) {
+			return null;
+		}
+		StringBuilder builder = new StringBuilder(header);
+		for(Failure failure : failures) {
+			builder.append(System.lineSeparator());
+			if(failure.path != null) {
+				builder.append(failure.path).append(" - ");
+			}
+			builder.append(failure.failMessage);
+		}
+		if(groups != null) {
+			for(Group group : groups.values()) {
+				builder.append(System.lineSeparator()).append(String.join(", ", group.examples));
+				if(group.count > group.examples.size()) {
+					builder.append(" and ").append(group.count - group.examples.size()).append(" more");
+				}
+				builder.append(" - ").append(group.failMessage);
+			}
+		}
+		if(omitted > 0) {
+			builder.append(System.lineSeparator()).append("... and ").append(omitted).append(" more");
+		}
+		return builder.toString();
+	}
+	
+	/**
+	 * Returns the template of a fail message, which is the message without the value that follows the last {@code ": "} 
+	 * of each line (e.g. {@code "Invalid URL: "} for {@code "Invalid URL: example"}).
+	 * @param failMessage the fail message
+	 * @return the template of the fail message
+	 */
+	static String template(String failMessage) {
+		if(failMessage.indexOf('\n') < 0) {
+			return lineTemplate(failMessage);
+		}
+		StringBuilder builder = new StringBuilder(failMessage.length());
+		failMessage.lines().forEach(line -> builder.append(lineTemplate(line)).append('\n'));
+		return builder.toString();
+	}
+	
+	private static String lineTemplate(String line) {
+		int separator = line.lastIndexOf(": ");
+		return separator < 0 ? line : line.substring(0, separator + 2);
+	}
+	
+	private static final class Failure {
+		
+		private final String path;
+		
+		private final String failMessage;
+		
+		private Failure(String path, String failMessage) {
+			this.path = path;
+			this.failMessage = failMessage;
+		}
+		
+	}
+	
+	private final class Group {
+		
+		private final String failMessage;
+		
+		private final List<String> examples = new ArrayList<String>(Math.min(maxExamples, 16));
+		
+		private int count;
+		
+		private Group(String failMessage) {
+			this.failMessage = failMessage;
+		}
+		
+		private void add(String path, int index, int count) {
+			this.count += count;
+			if(examples.size() < maxExamples) {
+				examples.add(path != null ? path : "[" + index + "]");
+			}
+		}
+		
+	}
+	
+}
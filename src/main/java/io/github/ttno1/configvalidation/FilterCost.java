@@ -0,0 +1,32 @@
+package io.github.ttno1.configvalidation;
+
+/**
+ * A hint of how expensive a {@linkplain ConfigFilter} is to run.<br>
+ * A {@linkplain ConfigSpec} validates its nodes in order of increasing cost, so cheap structural and type checks run before 
+ * filters that do I/O or heavy parsing. The cost of a node is the highest cost of its filters and of any nodes nested within it. 
+ * Fail messages still list failures in the order the nodes were added.
+ */
+public enum FilterCost {
+	
+	/**
+	 * A filter that only inspects its input, such as a type conversion or a range check.
+	 */
+	CHEAP,
+	/**
+	 * The cost of a filter without a hint.
+	 */
+	MODERATE,
+	/**
+	 * A filter that accesses the file system or network or otherwise takes much longer than other filters.
+	 */
+	EXPENSIVE;
+	
+	/**
+	 * 
+	 * @return the higher of the two costs
+	 */
+	static FilterCost max(FilterCost a, FilterCost b) {
+		return a.compareTo(b) >= 0 ? a : b;
+	}
+	
+}
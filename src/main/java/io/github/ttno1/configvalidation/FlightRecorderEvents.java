@@ -0,0 +1,131 @@
+package io.github.ttno1.configvalidation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events emitted during validation.<br>
+ * All events are disabled by default and must be enabled in the recording settings by name, e.g.
+ * {@code io.github.ttno1.configvalidation.NodeValidation#enabled=true}. Whether any of them is enabled is only re-evaluated
+ * when a recording changes state, so validation checks a single field when nothing is recording.
+ */
+final class FlightRecorderEvents {
+
+	private static final String CATEGORY = "Config Validation";
+
+	private static volatile boolean enabled;
+
+	static {
+		try {
+			FlightRecorder.addListener(new FlightRecorderListener() {
+				@Override
+				public void recorderInitialized(FlightRecorder recorder) {
+					update();
+				}
+				@Override
+				public void recordingStateChanged(Recording recording) {
+					update();
+				}
+			});
+		} catch(LinkageError | SecurityException e) {
+			// Flight Recorder is not available, the events stay disabled
+		}
+	}
+
+	private FlightRecorderEvents() {}
+
+	/**
+	 *
+	 * @return whether any validation event is enabled in a running recording
+	 */
+	static boolean isEnabled() {
+		return enabled;
+	}
+
+	private static void update() {
+		enabled = EventType.getEventType(SpecValidation.class).isEnabled()
+				|| EventType.getEventType(NodeValidation.class).isEnabled()
+				|| EventType.getEventType(FilterExecution.class).isEnabled()
+				|| EventType.getEventType(WrapperLookup.class).isEnabled();
+	}
+
+	@Name("io.github.ttno1.configvalidation.SpecValidation")
+	@Label("Config Spec Validation")
+	@Description("Validation of all nodes of a ConfigSpec against a config section")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	static final class SpecValidation extends Event {
+
+		@Label("Path")
+		String path;
+
+		@Label("Nodes")
+		int nodes;
+
+		@Label("Passed")
+		boolean passed;
+
+	}
+
+	@Name("io.github.ttno1.configvalidation.NodeValidation")
+	@Label("Config Node Validation")
+	@Description("Validation of a single node, including the nodes nested within it")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	static final class NodeValidation extends Event {
+
+		@Label("Path")
+		String path;
+
+		@Label("Type")
+		String type;
+
+		@Label("Passed")
+		boolean passed;
+
+	}
+
+	@Name("io.github.ttno1.configvalidation.FilterExecution")
+	@Label("Config Filter Execution")
+	@Description("Execution of the filter of a node")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	static final class FilterExecution extends Event {
+
+		@Label("Path")
+		String path;
+
+		@Label("Passed")
+		boolean passed;
+
+	}
+
+	@Name("io.github.ttno1.configvalidation.WrapperLookup")
+	@Label("Config Wrapper Lookup")
+	@Description("A call to a ConfigWrapper method")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	static final class WrapperLookup extends Event {
+
+		@Label("Method")
+		String method;
+
+		@Label("Path")
+		String path;
+
+	}
+
+}
@@ -0,0 +1,55 @@
+package io.github.ttno1.configvalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * A node that checks that a config section exists and defers the validation of its contents to a {@linkplain LazyValue}, 
+ * created with {@linkplain ConfigSpec#lazy()}.<br>
+ * Filters appended with {@link #withFilter(ConfigFilter)} or {@link #thenRun(Consumer)} return lazy nodes as well, so the 
+ * ConfigSpec is still frozen along with the spec that the node is added to.
+ * @param <U> the return type of the filter of the ConfigSpec
+ * @param <V> the output type of this node's filter
+ */
+final class LazyNode<U, V> extends ConfigNode<ConfigWrapper, V> {
+	
+	private final ConfigSpec<U> spec;
+	
+	private final ConfigFilter<LazyValue<U>, V> then;
+	
+	/**
+	 * 
+	 * @param spec the ConfigSpec that the section is validated against when the value is accessed
+	 * @param then the filter that is applied to the {@link LazyValue}
+	 */
+	LazyNode(ConfigSpec<U> spec, ConfigFilter<LazyValue<U>, V> then) {
+		super(lazyFilter(spec).withFilter(then), BaseType.CONFIG_SECTION);
+		this.spec = spec;
+		this.then = then;
+	}
+	
+	private static <U> ConfigFilter<ConfigWrapper, LazyValue<U>> lazyFilter(ConfigSpec<U> spec) {
+		ConfigFilter<ConfigWrapper, LazyValue<U>> filter = (ConfigWrapper section) -> {
+			return ConfigFilterResult.pass(new LazyValue<U>(spec, section));
+		};
+		return filter.withCost(FilterCost.CHEAP);
+	}
+	
+	@Override
+	public <W> LazyNode<U, W> withFilter(ConfigFilter<V, W> filter) {
+		return new LazyNode<U, W>(spec, then.withFilter(filter));
+	}
+	
+	@Override
+	public LazyNode<U, V> thenRun(Consumer<V> consumer) {
+		return withFilter(ConfigFilter.run(consumer));
+	}
+	
+	/**
+	 * A lazy node of a frozen ConfigSpec, so that the deferred validation does not see nodes that are added to the spec later.
+	 */
+	@Override
+	LazyNode<U, V> frozen() {
+		return spec.isFrozen() ? this : new LazyNode<U, V>(spec.freeze(), then);
+	}
+	
+}
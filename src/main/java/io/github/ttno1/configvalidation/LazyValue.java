@@ -0,0 +1,58 @@
+package io.github.ttno1.configvalidation;
+
+/**
+ * The value of a config section that is validated the first time it is accessed, as bound by a node created with 
+ * {@linkplain ConfigSpec#lazy()}.<br>
+ * The first call to {@link #get()} validates the section against the ConfigSpec and every later call returns the same 
+ * value or throws the same failure without validating again. Concurrent first calls are safe, and the section is validated 
+ * by exactly one of them while the others wait for its result.<br>
+ * The section is read when the value is first accessed, so the {@linkplain ConfigWrapper} it came from must remain valid 
+ * until then (e.g. it cannot be a view of a {@link io.github.ttno1.configvalidation.defaultwrappers.PayloadCursor}).
+ * @param <T> the type of the value
+ */
+public final class LazyValue<T> {
+	
+	private final ConfigSpec<T> spec;
+	
+	private ConfigWrapper section;
+	
+	private volatile ConfigFilterResult<T> result;
+	
+	LazyValue(ConfigSpec<T> spec, ConfigWrapper section) {
+		this.spec = spec;
+		this.section = section;
+	}
+	
+	/**
+	 * Returns the value of the section, validating it first if this is the first access.
+	 * @return the output of the filter of the ConfigSpec
+	 * @throws ConfigValidationException if the section failed validation
+	 */
+	public T get() {
+		ConfigFilterResult<T> current = result;
+		if(current == null) {
+			synchronized(this) {
+				current = result;
+				if(current == null) {
+					current = spec.filter(section);
+					result = current;
+					// the section is no longer needed once it has been validated
+					section = null;
+				}
+			}
+		}
+		if(!current.passed()) {
+			throw new ConfigValidationException(ConfigValidationResult.fail(current.getFailMessage()));
+		}
+		return current.getResult();
+	}
+	
+	/**
+	 * 
+	 * @return whether the section has been validated
+	 */
+	public boolean isValidated() {
+		return result != null;
+	}
+	
+}
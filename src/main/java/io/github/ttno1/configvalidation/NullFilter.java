@@ -0,0 +1,45 @@
+package io.github.ttno1.configvalidation;
+
+/**
+ * The filter returned by {@linkplain ConfigFilter#nullFilter()}.<br>
+ * A single shared instance lets nodes and filter chains recognize it and skip it where its output is not needed.
+ * @param <X> the type of the filter input and output
+ */
+final class NullFilter<X> implements ConfigFilter<X, X> {
+	
+	static final NullFilter<Object> INSTANCE = new NullFilter<Object>();
+	
+	private NullFilter() {}
+	
+	/**
+	 * 
+	 * @param filter the filter to check
+	 * @return whether {@code filter} is the null filter
+	 */
+	static boolean isNullFilter(ConfigFilter<?, ?> filter) {
+		return filter == INSTANCE;
+	}
+	
+	@Override
+	public ConfigFilterResult<X> filter(X input) {
+		return ConfigFilterResult.pass(input);
+	}
+	
+	@Override
+	public FilterCost getCost() {
+		return FilterCost.CHEAP;
+	}
+	
+	/**
+	 * 
+	 * @return {@code filter}, since applying it after this filter is the same as applying it alone
+	 */
+	@Override
+	public <V> ConfigFilter<X, V> withFilter(ConfigFilter<X, V> filter) {
+		if(filter == null) {
+			throw new NullPointerException("Filter cannot be null");
+		}
+		return filter;
+	}
+	
+}
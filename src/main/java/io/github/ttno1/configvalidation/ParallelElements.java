@@ -0,0 +1,127 @@
+package io.github.ttno1.configvalidation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Applies a filter to each element of a list on the common fork/join pool.<br>
+ * The list's spliterator is split until each part holds at most {@code threshold} elements. Each part writes its outputs 
+ * into one presized array at the indexes of its elements, so joining the parts only merges their failures, and the output 
+ * and the fail messages are in exactly the same order as when the elements are filtered sequentially.<br>
+ * Each part collects its failures with the limits of the list's {@linkplain FailureCollector}, which only keeps the failures 
+ * that the joined parts can keep. The tasks are never serialized, so their fields are not serializable.
+ * @param <T> the element type of the input list
+ * @param <U> the element type of the output list
+ */
+@SuppressWarnings("serial")
+final class ParallelElements<T, U> extends RecursiveTask<FailureCollector> {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final Spliterator<T> spliterator;
+	
+	private final int offset;
+	
+	private final int threshold;
+	
+	private final ElementFilter<T, U> filter;
+	
+	private final FailureCollector failures;
+	
+	private final boolean leaf;
+	
+	/**
+	 * The outputs of all elements of the list, shared by all parts.
+	 */
+	private final Object[] output;
+	
+	private ParallelElements(Spliterator<T> spliterator, int offset, int threshold, ElementFilter<T, U> filter, FailureCollector failures, boolean leaf, Object[] output) {
+		this.spliterator = spliterator;
+		this.offset = offset;
+		this.threshold = threshold;
+		this.filter = filter;
+		this.failures = failures;
+		this.leaf = leaf;
+		this.output = output;
+	}
+	
+	/**
+	 * Filters each element of the input, splitting the work across the common fork/join pool.
+	 * @param input the list to filter
+	 * @param threshold the maximum number of elements filtered by a single task
+	 * @param filter the filter to apply to each element
+	 * @param failures the collector that the failures are added to in list order
+	 * @param leaf whether the failures of the elements are leaf failures
+	 * @return an unmodifiable list of the outputs or null if any element failed
+	 */
+	@SuppressWarnings("unchecked")
+	static <T, U> List<U> filter(List<T> input, int threshold, ElementFilter<T, U> filter, FailureCollector failures, boolean leaf) {
+		Spliterator<T> spliterator = input.spliterator();
+		if(!spliterator.hasCharacteristics(Spliterator.SUBSIZED)) {
+			// the offset of each part is only known if every split reports its exact size
+			spliterator = new ArrayList<T>(input).spliterator();
+		}
+		Object[] output = new Object[input.size()];
+		FailureCollector partFailures = new ParallelElements<T, U>(spliterator, 0, threshold, filter, failures, leaf, output).invoke();
+		if(partFailures != null) {
+			failures.addAll(partFailures, leaf);
+			return null;
+		}
+		return Collections.unmodifiableList((List<U>) Arrays.asList(output));
+	}
+	
+	/**
+	 * 
+	 * @return the failures of this part or null if all of its elements passed
+	 */
+	@Override
+	protected FailureCollector compute() {
+		if(spliterator.estimateSize() > threshold) {
+			Spliterator<T> prefix = spliterator.trySplit();
+			if(prefix != null) {
+				ParallelElements<T, U> left = new ParallelElements<T, U>(prefix, offset, threshold, filter, failures, leaf, output);
+				ParallelElements<T, U> right = new ParallelElements<T, U>(spliterator, offset + (int) prefix.getExactSizeIfKnown(), threshold, filter, failures, leaf, output);
+				left.fork();
+				FailureCollector rightFailures = right.compute();
+				FailureCollector leftFailures = left.join();
+				if(leftFailures == null) {
+					return rightFailures;
+				}
+				if(rightFailures != null) {
+					leftFailures.addAll(rightFailures, leaf);
+				}
+				return leftFailures;
+			}
+		}
+		FailureCollector[] partFailures = {null};
+		int[] index = {offset};
+		spliterator.forEachRemaining(element -> {
+			ConfigFilterResult<U> result = filter.filter(element, index[0]);
+			if(result.passed()) {
+				output[index[0]] = result.getResult();
+			} else {
+				if(partFailures[0] == null) {
+					partFailures[0] = failures.newPart();
+				}
+				partFailures[0].add(null, index[0], result.getFailMessage(), leaf);
+			}
+			index[0]++;
+		});
+		return partFailures[0];
+	}
+	
+	/**
+	 * A filter that is also given the index of the element in the list.
+	 */
+	@FunctionalInterface
+	interface ElementFilter<T, U> {
+		
+		ConfigFilterResult<U> filter(T element, int index);
+		
+	}
+	
+}
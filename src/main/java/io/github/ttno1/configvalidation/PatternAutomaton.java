@@ -0,0 +1,831 @@
+package io.github.ttno1.configvalidation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * A deterministic finite automaton that matches a string against many regular expressions in a single pass, for 
+ * {@linkplain PatternSet}.<br>
+ * Expressions that only use literals, character classes, {@code .}, groups, alternation, greedy or lazy quantifiers, 
+ * {@code ^} and {@code $} at their ends and a leading {@code (?i)} describe regular languages, so they can be 
+ * {@linkplain #parse(String) parsed} and their union compiled into one automaton ahead of time. Matching a string then 
+ * costs one class lookup and one table lookup per character, regardless of the number of expressions. Expressions that 
+ * use other constructs (e.g. back references, lookarounds or possessive quantifiers) are left to {@linkplain Pattern}.<br>
+ * The automaton reads UTF-16 chars, while {@linkplain Pattern} reads code points, so strings that contain surrogates are 
+ * matched against the compiled expressions one by one instead.
+ */
+final class PatternAutomaton {
+	
+	/**
+	 * The maximum number of states of an automaton. Unions of expressions that need more states are not compiled.
+	 */
+	static final int MAX_STATES = 10000;
+	
+	/**
+	 * The maximum number of states of the nondeterministic automaton that the states are built from, which bounds the 
+	 * expansion of counted quantifiers such as {@code {1,63}}.
+	 */
+	private static final int MAX_NFA_STATES = 100000;
+	
+	private static final int MAX_CHAR = Character.MAX_VALUE;
+	
+	/**
+	 * The characters matched by {@code .}, which are all but the line terminators.
+	 */
+	private static final int[] DOT = complement(new int[] {'\n', '\n', '\r', '\r', 0x85, 0x85, 0x2028, 0x2029});
+	
+	private static final int[] DIGIT = {'0', '9'};
+	
+	private static final int[] WORD = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+	
+	private static final int[] SPACE = {'\t', '\r', ' ', ' '};
+	
+	private final Pattern[] patterns;
+	
+	/**
+	 * The boundaries between the classes of characters that no expression distinguishes, in ascending order. Class 
+	 * {@code k} holds the characters from {@code boundaries[k - 1]} (or 0) up to but excluding {@code boundaries[k]}.
+	 */
+	private final int[] boundaries;
+	
+	private final int[] asciiClasses = new int[128];
+	
+	private final int classCount;
+	
+	/**
+	 * The next state of each state and character class at {@code state * classCount + class}, or -1 if no string continuing 
+	 * with the class can match.
+	 */
+	private final int[] transitions;
+	
+	private final boolean[] accepting;
+	
+	private PatternAutomaton(Pattern[] patterns, int[] boundaries, int[] transitions, boolean[] accepting) {
+		this.patterns = patterns;
+		this.boundaries = boundaries;
+		this.classCount = boundaries.length + 1;
+		this.transitions = transitions;
+		this.accepting = accepting;
+		for(char c = 0; c < asciiClasses.length; c++) {
+			asciiClasses[c] = classOf(c);
+		}
+	}
+	
+	/**
+	 * Compiles the union of the patterns into an automaton.
+	 * @param patterns the patterns, which must all be {@linkplain #parse(String) parsable} and compiled without flags
+	 * @return the automaton or null if it would have more than {@linkplain #MAX_STATES} states
+	 * @throws IllegalArgumentException if a pattern cannot be parsed
+	 */
+	static PatternAutomaton of(List<Pattern> patterns) {
+		Nfa nfa = new Nfa();
+		int start = nfa.add();
+		for(Pattern pattern : patterns) {
+			Node node = parse(pattern.pattern());
+			// a leading (?i) shows up in the flags, any other flag changes what the expression matches
+			int flags = pattern.pattern().startsWith("(?i)") ? Pattern.CASE_INSENSITIVE : 0;
+			if(node == null || pattern.flags() != flags) {
+				throw new IllegalArgumentException("Pattern cannot be compiled into an automaton: " + pattern.pattern());
+			}
+			int patternStart = nfa.add();
+			nfa.epsilon(start, patternStart);
+			int end = nfa.build(node, patternStart);
+			if(end < 0) {
+				return null;
+			}
+			nfa.accepting.set(end);
+		}
+		return nfa.determinize(patterns.toArray(new Pattern[patterns.size()]));
+	}
+	
+	/**
+	 * 
+	 * @param input the string to match
+	 * @return whether the entire string matches any of the patterns
+	 */
+	boolean matches(String input) {
+		int state = 0;
+		for(int i = 0; i < input.length(); i++) {
+			char c = input.charAt(i);
+			if(Character.isSurrogate(c)) {
+				return matchesEach(input);
+			}
+			state = transitions[state * classCount + (c < 128 ? asciiClasses[c] : classOf(c))];
+			if(state < 0) {
+				// a surrogate later in the string could still be matched by the patterns as part of a code point
+				return containsSurrogate(input, i + 1) && matchesEach(input);
+			}
+		}
+		return accepting[state];
+	}
+	
+	private boolean matchesEach(String input) {
+		for(Pattern pattern : patterns) {
+			if(pattern.matcher(input).matches()) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static boolean containsSurrogate(String input, int start) {
+		for(int i = start; i < input.length(); i++) {
+			if(Character.isSurrogate(input.charAt(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private int classOf(char c) {
+		int index = Arrays.binarySearch(boundaries, c);
+		return index >= 0 ? index + 1 : -(index + 1);
+	}
+	
+	/**
+	 * 
+	 * @return the number of states of the automaton
+	 */
+	int size() {
+		return accepting.length;
+	}
+	
+	/**
+	 * Parses a regular expression that describes a regular language.
+	 * @param regex a valid regular expression
+	 * @return the syntax tree of the expression or null if it uses constructs that an automaton cannot match
+	 */
+	static Node parse(String regex) {
+		try {
+			return new Parser(regex).parse();
+		} catch(UnsupportedException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * 
+	 * @return the sorted, disjoint and non-adjacent ranges of the characters that are in any of the ranges
+	 */
+	private static int[] normalize(int[] ranges) {
+		int count = ranges.length / 2;
+		long[] sorted = new long[count];
+		for(int i = 0; i < count; i++) {
+			sorted[i] = ((long) ranges[2 * i] << 32) | ranges[2 * i + 1];
+		}
+		Arrays.sort(sorted);
+		int[] normalized = new int[ranges.length];
+		int length = 0;
+		for(long range : sorted) {
+			int low = (int) (range >>> 32);
+			int high = (int) range;
+			if(length > 0 && low <= normalized[length - 1] + 1) {
+				normalized[length - 1] = Math.max(normalized[length - 1], high);
+			} else {
+				normalized[length++] = low;
+				normalized[length++] = high;
+			}
+		}
+		return Arrays.copyOf(normalized, length);
+	}
+	
+	private static int[] complement(int[] ranges) {
+		int[] normalized = normalize(ranges);
+		int[] complement = new int[normalized.length + 2];
+		int length = 0;
+		int next = 0;
+		for(int i = 0; i < normalized.length; i += 2) {
+			if(normalized[i] > next) {
+				complement[length++] = next;
+				complement[length++] = normalized[i] - 1;
+			}
+			next = normalized[i + 1] + 1;
+		}
+		if(next <= MAX_CHAR) {
+			complement[length++] = next;
+			complement[length++] = MAX_CHAR;
+		}
+		return Arrays.copyOf(complement, length);
+	}
+	
+	/**
+	 * 
+	 * @return the ranges with the other case of every ASCII letter in them added, as matched by {@code (?i)}
+	 */
+	private static int[] foldCase(int[] ranges) {
+		int[] folded = Arrays.copyOf(ranges, ranges.length * 3);
+		int length = ranges.length;
+		for(int i = 0; i < ranges.length; i += 2) {
+			int low = Math.max(ranges[i], 'a');
+			int high = Math.min(ranges[i + 1], 'z');
+			if(low <= high) {
+				folded[length++] = low - 'a' + 'A';
+				folded[length++] = high - 'a' + 'A';
+			}
+			low = Math.max(ranges[i], 'A');
+			high = Math.min(ranges[i + 1], 'Z');
+			if(low <= high) {
+				folded[length++] = low - 'A' + 'a';
+				folded[length++] = high - 'A' + 'a';
+			}
+		}
+		return normalize(Arrays.copyOf(folded, length));
+	}
+	
+	/**
+	 * A node of the syntax tree of a regular expression.
+	 */
+	sealed interface Node permits Chars, Concat, Alternation, Repeat {}
+	
+	/**
+	 * Matches one character in the ranges.
+	 * @param ranges the sorted pairs of the first and last characters of each range
+	 */
+	record Chars(int[] ranges) implements Node {}
+	
+	record Concat(List<Node> nodes) implements Node {}
+	
+	record Alternation(List<Node> nodes) implements Node {}
+	
+	/**
+	 * 
+	 * @param max the maximum number of repetitions or -1 if there is none
+	 */
+	record Repeat(Node node, int min, int max) implements Node {}
+	
+	/**
+	 * A set of states of a nondeterministic automaton as the words of its bits, which hash better than a {@linkplain BitSet}.
+	 */
+	private record StateSet(long[] words) {
+		
+		private StateSet(BitSet states) {
+			this(states.toLongArray());
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof StateSet other && Arrays.equals(words, other.words);
+		}
+		
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(words);
+		}
+		
+	}
+	
+	/**
+	 * Thrown by the {@linkplain Parser} when an expression uses a construct that an automaton cannot match.
+	 */
+	@SuppressWarnings("serial")
+	private static final class UnsupportedException extends Exception {
+		
+		private UnsupportedException() {
+			super(null, null, false, false);
+		}
+		
+	}
+	
+	/**
+	 * Parses the regular subset of the syntax of {@linkplain Pattern}. The expression has already been compiled by 
+	 * {@linkplain Pattern}, so it is known to be valid.
+	 */
+	private static final class Parser {
+		
+		private static final UnsupportedException UNSUPPORTED = new UnsupportedException();
+		
+		private final String regex;
+		
+		private int end;
+		
+		private int position;
+		
+		private boolean caseInsensitive;
+		
+		private Parser(String regex) {
+			this.regex = regex;
+			this.end = regex.length();
+		}
+		
+		private Node parse() throws UnsupportedException {
+			if(regex.startsWith("(?i)")) {
+				caseInsensitive = true;
+				position = 4;
+			}
+			if(position < end && regex.charAt(position) == '^') {
+				position++;
+			}
+			if(end > position && regex.charAt(end - 1) == '$' && !isEscaped(end - 1)) {
+				end--;
+			}
+			Node node = parseAlternation();
+			if(position != end) {
+				throw UNSUPPORTED;
+			}
+			return node;
+		}
+		
+		private boolean isEscaped(int index) {
+			int backslashes = 0;
+			for(int i = index - 1; i >= 0 && regex.charAt(i) == '\\'; i--) {
+				backslashes++;
+			}
+			return backslashes % 2 == 1;
+		}
+		
+		private Node parseAlternation() throws UnsupportedException {
+			Node first = parseConcat();
+			if(position == end || regex.charAt(position) != '|') {
+				return first;
+			}
+			List<Node> nodes = new ArrayList<Node>();
+			nodes.add(first);
+			while(position < end && regex.charAt(position) == '|') {
+				position++;
+				nodes.add(parseConcat());
+			}
+			return new Alternation(nodes);
+		}
+		
+		private Node parseConcat() throws UnsupportedException {
+			List<Node> nodes = new ArrayList<Node>();
+			while(position < end && regex.charAt(position) != '|' && regex.charAt(position) != ')') {
+				nodes.add(parseRepeat());
+			}
+			return nodes.size() == 1 ? nodes.get(0) : new Concat(nodes);
+		}
+		
+		private Node parseRepeat() throws UnsupportedException {
+			Node node = parseAtom();
+			while(position < end) {
+				char c = regex.charAt(position);
+				int min;
+				int max;
+				if(c == '*') {
+					min = 0;
+					max = -1;
+					position++;
+				} else if(c == '+') {
+					min = 1;
+					max = -1;
+					position++;
+				} else if(c == '?') {
+					min = 0;
+					max = 1;
+					position++;
+				} else if(c == '{') {
+					int close = regex.indexOf('}', position);
+					if(close < 0 || close >= end) {
+						throw UNSUPPORTED;
+					}
+					String[] bounds = regex.substring(position + 1, close).split(",", -1);
+					try {
+						min = Integer.parseInt(bounds[0].trim());
+						max = bounds.length == 1 ? min : bounds[1].isBlank() ? -1 : Integer.parseInt(bounds[1].trim());
+					} catch(NumberFormatException e) {
+						throw UNSUPPORTED;
+					}
+					position = close + 1;
+				} else {
+					return node;
+				}
+				if(position < end && regex.charAt(position) == '+') {
+					// possessive quantifiers do not give back characters, which changes which strings match
+					throw UNSUPPORTED;
+				}
+				if(position < end && regex.charAt(position) == '?') {
+					// lazy quantifiers match the same strings in a full match
+					position++;
+				}
+				node = new Repeat(node, min, max);
+			}
+			return node;
+		}
+		
+		private Node parseAtom() throws UnsupportedException {
+			char c = regex.charAt(position);
+			switch(c) {
+				case '(' -> {
+					position++;
+					if(regex.startsWith("?:", position)) {
+						position += 2;
+					} else if(position < end && regex.charAt(position) == '?') {
+						throw UNSUPPORTED;
+					}
+					Node node = parseAlternation();
+					if(position == end || regex.charAt(position) != ')') {
+						throw UNSUPPORTED;
+					}
+					position++;
+					return node;
+				}
+				case '[' -> {
+					return new Chars(parseClass());
+				}
+				case '.' -> {
+					position++;
+					return new Chars(DOT);
+				}
+				case '\\' -> {
+					if(regex.startsWith("\\Q", position)) {
+						return parseQuote();
+					}
+					return new Chars(parseEscape(false));
+				}
+				case '^', '$', ')', '|', '*', '+', '?', '{' -> throw UNSUPPORTED;
+				default -> {
+					position++;
+					return literal(c);
+				}
+			}
+		}
+		
+		private Node literal(char c) throws UnsupportedException {
+			if(Character.isSurrogate(c)) {
+				throw UNSUPPORTED;
+			}
+			int[] ranges = {c, c};
+			return new Chars(caseInsensitive ? foldCase(ranges) : ranges);
+		}
+		
+		private Node parseQuote() throws UnsupportedException {
+			int close = regex.indexOf("\\E", position + 2);
+			int quoteEnd = close < 0 || close > end ? end : close;
+			List<Node> nodes = new ArrayList<Node>();
+			for(int i = position + 2; i < quoteEnd; i++) {
+				nodes.add(literal(regex.charAt(i)));
+			}
+			position = quoteEnd == close ? close + 2 : end;
+			return nodes.size() == 1 ? nodes.get(0) : new Concat(nodes);
+		}
+		
+		/**
+		 * 
+		 * @param inClass whether the escape is inside a character class
+		 * @return the ranges of the characters matched by the escape at the current position
+		 */
+		private int[] parseEscape(boolean inClass) throws UnsupportedException {
+			if(position + 1 >= end) {
+				throw UNSUPPORTED;
+			}
+			char c = regex.charAt(position + 1);
+			position += 2;
+			int[] ranges = switch(c) {
+				case 'd' -> DIGIT;
+				case 'D' -> complement(DIGIT);
+				case 'w' -> WORD;
+				case 'W' -> complement(WORD);
+				case 's' -> SPACE;
+				case 'S' -> complement(SPACE);
+				case 't' -> new int[] {'\t', '\t'};
+				case 'n' -> new int[] {'\n', '\n'};
+				case 'r' -> new int[] {'\r', '\r'};
+				case 'f' -> new int[] {'\f', '\f'};
+				case 'a' -> new int[] {'\u0007', '\u0007'};
+				case 'e' -> new int[] {'\u001B', '\u001B'};
+				case 'x' -> hex(2);
+				case 'u' -> hex(4);
+				default -> {
+					// an escaped symbol stands for itself, while other escaped letters and digits are references or classes
+					if(Character.isLetterOrDigit(c) || Character.isSurrogate(c)) {
+						throw UNSUPPORTED;
+					}
+					yield new int[] {c, c};
+				}
+			};
+			return caseInsensitive && !inClass ? foldCase(ranges) : ranges;
+		}
+		
+		private int[] hex(int digits) throws UnsupportedException {
+			if(position + digits > end) {
+				throw UNSUPPORTED;
+			}
+			int value;
+			try {
+				value = Integer.parseInt(regex.substring(position, position + digits), 16);
+			} catch(NumberFormatException e) {
+				throw UNSUPPORTED;
+			}
+			if(Character.isSurrogate((char) value)) {
+				throw UNSUPPORTED;
+			}
+			position += digits;
+			return new int[] {value, value};
+		}
+		
+		private int[] parseClass() throws UnsupportedException {
+			position++;
+			boolean negated = position < end && regex.charAt(position) == '^';
+			if(negated) {
+				position++;
+			}
+			if(position < end && regex.charAt(position) == ']') {
+				throw UNSUPPORTED;
+			}
+			int[] ranges = new int[8];
+			int length = 0;
+			while(true) {
+				if(position >= end) {
+					throw UNSUPPORTED;
+				}
+				char c = regex.charAt(position);
+				if(c == ']') {
+					position++;
+					break;
+				}
+				if(c == '[' || regex.startsWith("&&", position)) {
+					throw UNSUPPORTED;
+				}
+				int[] item = classItem();
+				if(item.length == 2 && item[0] == item[1] && position + 1 < end && regex.charAt(position) == '-' && regex.charAt(position + 1) != ']') {
+					position++;
+					int[] high = classItem();
+					if(high.length != 2 || high[0] != high[1] || high[0] < item[0]) {
+						throw UNSUPPORTED;
+					}
+					item = new int[] {item[0], high[1]};
+				}
+				if(length + item.length > ranges.length) {
+					ranges = Arrays.copyOf(ranges, Math.max(ranges.length * 2, length + item.length));
+				}
+				System.arraycopy(item, 0, ranges, length, item.length);
+				length += item.length;
+			}
+			ranges = normalize(Arrays.copyOf(ranges, length));
+			if(caseInsensitive) {
+				ranges = foldCase(ranges);
+			}
+			return negated ? complement(ranges) : ranges;
+		}
+		
+		/**
+		 * 
+		 * @return the ranges of a single character or escape in a character class
+		 */
+		private int[] classItem() throws UnsupportedException {
+			char c = regex.charAt(position);
+			if(c == '\\') {
+				if(regex.startsWith("\\Q", position)) {
+					throw UNSUPPORTED;
+				}
+				return parseEscape(true);
+			}
+			if(Character.isSurrogate(c)) {
+				throw UNSUPPORTED;
+			}
+			position++;
+			return new int[] {c, c};
+		}
+		
+	}
+	
+	/**
+	 * A nondeterministic automaton built from the syntax trees of expressions, where each state has at most one transition 
+	 * on a set of characters and any number of transitions that consume no character.
+	 */
+	private static final class Nfa {
+		
+		private final List<int[]> ranges = new ArrayList<int[]>();
+		
+		private final List<Integer> targets = new ArrayList<Integer>();
+		
+		private final List<int[]> epsilons = new ArrayList<int[]>();
+		
+		private final BitSet accepting = new BitSet();
+		
+		private int add() {
+			ranges.add(null);
+			targets.add(-1);
+			epsilons.add(new int[0]);
+			return ranges.size() - 1;
+		}
+		
+		private void epsilon(int from, int to) {
+			int[] current = epsilons.get(from);
+			int[] next = Arrays.copyOf(current, current.length + 1);
+			next[current.length] = to;
+			epsilons.set(from, next);
+		}
+		
+		/**
+		 * 
+		 * @return the state that the node ends in when it is matched from the state {@code from} or -1 if the automaton 
+		 * would have too many states
+		 */
+		private int build(Node node, int from) {
+			if(from < 0 || ranges.size() > MAX_NFA_STATES) {
+				return -1;
+			}
+			switch(node) {
+				case Chars chars -> {
+					if(ranges.get(from) != null) {
+						int next = add();
+						epsilon(from, next);
+						from = next;
+					}
+					int to = add();
+					ranges.set(from, chars.ranges());
+					targets.set(from, to);
+					return to;
+				}
+				case Concat concat -> {
+					int current = from;
+					for(Node child : concat.nodes()) {
+						current = build(child, current);
+					}
+					return current;
+				}
+				case Alternation alternation -> {
+					int to = add();
+					for(Node child : alternation.nodes()) {
+						int start = add();
+						epsilon(from, start);
+						int childEnd = build(child, start);
+						if(childEnd < 0) {
+							return -1;
+						}
+						epsilon(childEnd, to);
+					}
+					return to;
+				}
+				case Repeat repeat -> {
+					int current = from;
+					for(int i = 0; i < repeat.min(); i++) {
+						current = build(repeat.node(), current);
+					}
+					if(current < 0) {
+						return -1;
+					}
+					if(repeat.max() < 0) {
+						int loop = add();
+						epsilon(current, loop);
+						int bodyEnd = build(repeat.node(), loop);
+						if(bodyEnd < 0) {
+							return -1;
+						}
+						epsilon(bodyEnd, loop);
+						int to = add();
+						epsilon(loop, to);
+						return to;
+					}
+					int to = add();
+					epsilon(current, to);
+					for(int i = repeat.min(); i < repeat.max(); i++) {
+						current = build(repeat.node(), current);
+						if(current < 0) {
+							return -1;
+						}
+						epsilon(current, to);
+					}
+					return to;
+				}
+			}
+		}
+		
+		/**
+		 * Adds the states reachable from the states in {@code states} without consuming a character to {@code states}.
+		 */
+		private void close(BitSet states, Deque<Integer> stack) {
+			for(int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+				stack.push(state);
+			}
+			while(!stack.isEmpty()) {
+				for(int next : epsilons.get(stack.pop())) {
+					if(!states.get(next)) {
+						states.set(next);
+						stack.push(next);
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Builds the deterministic automaton by the subset construction over the classes of characters that no state 
+		 * distinguishes.
+		 * @return the automaton or null if it would have more than {@linkplain PatternAutomaton#MAX_STATES} states
+		 */
+		private PatternAutomaton determinize(Pattern[] patterns) {
+			TreeSet<Integer> boundarySet = new TreeSet<Integer>();
+			for(int[] stateRanges : ranges) {
+				if(stateRanges != null) {
+					for(int i = 0; i < stateRanges.length; i += 2) {
+						boundarySet.add(stateRanges[i]);
+						boundarySet.add(stateRanges[i + 1] + 1);
+					}
+				}
+			}
+			boundarySet.remove(0);
+			boundarySet.remove(MAX_CHAR + 1);
+			int[] boundaries = boundarySet.stream().mapToInt(Integer::intValue).toArray();
+			int classCount = boundaries.length + 1;
+			
+			// states whose transitions are taken on the same classes (e.g. every .) share a signature
+			int[] signatures = new int[ranges.size()];
+			Map<String, Integer> signatureIds = new HashMap<String, Integer>();
+			List<int[]> signatureClasses = new ArrayList<int[]>();
+			for(int state = 0; state < ranges.size(); state++) {
+				int[] stateRanges = ranges.get(state);
+				if(stateRanges == null) {
+					signatures[state] = -1;
+					continue;
+				}
+				signatures[state] = signatureIds.computeIfAbsent(Arrays.toString(stateRanges), key -> {
+					int[] classes = new int[0];
+					for(int i = 0; i < stateRanges.length; i += 2) {
+						int first = classOf(boundaries, stateRanges[i]);
+						int last = classOf(boundaries, stateRanges[i + 1]);
+						int length = classes.length;
+						classes = Arrays.copyOf(classes, length + last - first + 1);
+						for(int k = first; k <= last; k++) {
+							classes[length + k - first] = k;
+						}
+					}
+					signatureClasses.add(classes);
+					return signatureClasses.size() - 1;
+				});
+			}
+			
+			Deque<Integer> stack = new ArrayDeque<Integer>();
+			Map<StateSet, Integer> ids = new HashMap<StateSet, Integer>();
+			// many classes and states move to the same states, whose closure is then only computed once
+			Map<StateSet, Integer> moveIds = new HashMap<StateSet, Integer>();
+			List<BitSet> sets = new ArrayList<BitSet>();
+			BitSet start = new BitSet();
+			start.set(0);
+			close(start, stack);
+			ids.put(new StateSet(start), 0);
+			sets.add(start);
+			int[] transitions = new int[classCount * 16];
+			for(int id = 0; id < sets.size(); id++) {
+				BitSet set = sets.get(id);
+				BitSet[] signatureTargets = new BitSet[signatureClasses.size()];
+				for(int state = set.nextSetBit(0); state >= 0; state = set.nextSetBit(state + 1)) {
+					int signature = signatures[state];
+					if(signature >= 0) {
+						if(signatureTargets[signature] == null) {
+							signatureTargets[signature] = new BitSet();
+						}
+						signatureTargets[signature].set(targets.get(state));
+					}
+				}
+				BitSet[] moves = new BitSet[classCount];
+				for(int signature = 0; signature < signatureTargets.length; signature++) {
+					if(signatureTargets[signature] != null) {
+						for(int k : signatureClasses.get(signature)) {
+							if(moves[k] == null) {
+								moves[k] = new BitSet();
+							}
+							moves[k].or(signatureTargets[signature]);
+						}
+					}
+				}
+				if((id + 1) * classCount > transitions.length) {
+					transitions = Arrays.copyOf(transitions, transitions.length * 2);
+				}
+				for(int k = 0; k < classCount; k++) {
+					if(moves[k] == null) {
+						transitions[id * classCount + k] = -1;
+						continue;
+					}
+					StateSet move = new StateSet(moves[k]);
+					Integer next = moveIds.get(move);
+					if(next == null) {
+						close(moves[k], stack);
+						StateSet closure = new StateSet(moves[k]);
+						next = ids.get(closure);
+						if(next == null) {
+							if(sets.size() == MAX_STATES) {
+								return null;
+							}
+							next = sets.size();
+							ids.put(closure, next);
+							sets.add(moves[k]);
+						}
+						moveIds.put(move, next);
+					}
+					transitions[id * classCount + k] = next;
+				}
+			}
+			boolean[] accepting = new boolean[sets.size()];
+			for(int id = 0; id < sets.size(); id++) {
+				accepting[id] = sets.get(id).intersects(this.accepting);
+			}
+			return new PatternAutomaton(patterns, boundaries, Arrays.copyOf(transitions, sets.size() * classCount), accepting);
+		}
+		
+		private static int classOf(int[] boundaries, int c) {
+			int index = Arrays.binarySearch(boundaries, c);
+			return index >= 0 ? index + 1 : -(index + 1);
+		}
+		
+	}
+	
+}
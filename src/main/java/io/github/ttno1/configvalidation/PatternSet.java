@@ -0,0 +1,201 @@
+package io.github.ttno1.configvalidation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A set of regular expressions that a string is matched against at once, for 
+ * {@linkplain ConfigFilters#matchesAny(Collection)} and {@linkplain ConfigFilters#matchesNone(Collection)}.<br>
+ * Patterns without metacharacters (after removing escapes, or quoted with {@code \Q...\E}) are kept in a hash set and 
+ * matched with a single lookup. Patterns that describe regular languages, which covers typical host name patterns such as 
+ * {@code .*\.example\.com}, {@code [a-z0-9-]+\.corp\.net} or {@code (?i)cdn-\d+\.example\.net}, are compiled together into a 
+ * {@linkplain PatternAutomaton} that matches a string against all of them in a single pass.<br>
+ * The remaining patterns (e.g. with back references or lookarounds) are compiled on their own and stored in a trie under 
+ * their literal prefix (e.g. {@code host} for {@code host(\d)\1}). A string walks the trie once along its own characters 
+ * and is only matched against the patterns whose prefix it starts with. Those without a literal prefix are matched against 
+ * every string. Regular patterns are stored in the trie as well if their automaton would have more than 
+ * {@linkplain PatternAutomaton#MAX_STATES} states.
+ */
+final class PatternSet {
+	
+	/**
+	 * The characters that are not matched literally outside of character classes and groups.
+	 */
+	private static final String METACHARACTERS = "\\.[]{}()*+?^$|";
+	
+	/**
+	 * The quantifiers that make the character preceding them optional.
+	 */
+	private static final String OPTIONAL_QUANTIFIERS = "*?{";
+	
+	private final Set<String> literals;
+	
+	/**
+	 * The automaton of the regular patterns or null if there are none.
+	 */
+	private final PatternAutomaton automaton;
+	
+	private final TrieNode root;
+	
+	/**
+	 * 
+	 * @param regexes the patterns
+	 * @throws NullPointerException if {@code regexes} is null or contains null
+	 * @throws PatternSyntaxException if any of the patterns is invalid
+	 */
+	PatternSet(Collection<String> regexes) {
+		if(regexes == null) {
+			throw new NullPointerException("Patterns cannot be null");
+		}
+		Set<String> literals = new HashSet<String>();
+		List<Pattern> regular = new ArrayList<Pattern>();
+		TrieNode root = new TrieNode();
+		for(String regex : regexes) {
+			if(regex == null) {
+				throw new NullPointerException("Patterns cannot contain null");
+			}
+			String literal = literal(regex);
+			if(literal != null) {
+				literals.add(literal);
+			} else {
+				Pattern pattern = Pattern.compile(regex);
+				if(PatternAutomaton.parse(regex) != null) {
+					regular.add(pattern);
+				} else {
+					add(root, pattern);
+				}
+			}
+		}
+		PatternAutomaton automaton = regular.isEmpty() ? null : PatternAutomaton.of(regular);
+		if(automaton == null) {
+			for(Pattern pattern : regular) {
+				add(root, pattern);
+			}
+		}
+		this.literals = literals;
+		this.automaton = automaton;
+		this.root = root;
+	}
+	
+	private static void add(TrieNode root, Pattern pattern) {
+		TrieNode node = root;
+		String prefix = prefix(pattern.pattern());
+		for(int i = 0; i < prefix.length(); i++) {
+			node = node.children.computeIfAbsent(prefix.charAt(i), c -> new TrieNode());
+		}
+		node.patterns.add(pattern);
+	}
+	
+	/**
+	 * 
+	 * @param input the string to match
+	 * @return whether the entire string matches any of the patterns
+	 */
+	boolean matches(String input) {
+		if(literals.contains(input) || (automaton != null && automaton.matches(input))) {
+			return true;
+		}
+		TrieNode node = root;
+		for(int i = 0; node != null; i++) {
+			for(Pattern pattern : node.patterns) {
+				if(pattern.matcher(input).matches()) {
+					return true;
+				}
+			}
+			node = i < input.length() ? node.children.get(input.charAt(i)) : null;
+		}
+		return false;
+	}
+	
+	/**
+	 * 
+	 * @param regex a regular expression that is not a {@linkplain #literal(String) literal}
+	 * @return the literal string that every match of {@code regex} starts with, which is empty if there is none
+	 */
+	static String prefix(String regex) {
+		if(containsAlternation(regex)) {
+			return "";
+		}
+		StringBuilder prefix = new StringBuilder(regex.length());
+		for(int i = 0; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			if(c == '\\' && i + 1 < regex.length() && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+				prefix.append(regex.charAt(++i));
+			} else if(c == '\\' || METACHARACTERS.indexOf(c) >= 0) {
+				// a quantifier applies to the last character, which may then be absent from a match
+				if(OPTIONAL_QUANTIFIERS.indexOf(c) >= 0 && prefix.length() > 0) {
+					prefix.setLength(prefix.length() - 1);
+				}
+				break;
+			} else {
+				prefix.append(c);
+			}
+		}
+		return prefix.toString();
+	}
+	
+	/**
+	 * 
+	 * @return whether the regex contains an unescaped {@code |}, which may let a match start with another prefix
+	 */
+	private static boolean containsAlternation(String regex) {
+		for(int i = 0; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			if(c == '\\') {
+				i++;
+			} else if(c == '|') {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * 
+	 * @param regex a regular expression
+	 * @return the only string matched by {@code regex} if it contains no metacharacters, otherwise null
+	 */
+	static String literal(String regex) {
+		if(regex.startsWith("\\Q") && regex.endsWith("\\E") && regex.length() >= 4 && regex.indexOf("\\E") == regex.length() - 2) {
+			return regex.substring(2, regex.length() - 2);
+		}
+		StringBuilder literal = new StringBuilder(regex.length());
+		for(int i = 0; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			if(c == '\\') {
+				// an escaped symbol stands for itself, while escaped letters and digits are classes or references (e.g. \d)
+				if(i + 1 == regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+					return null;
+				}
+				literal.append(regex.charAt(++i));
+			} else if(METACHARACTERS.indexOf(c) >= 0) {
+				return null;
+			} else {
+				literal.append(c);
+			}
+		}
+		return literal.toString();
+	}
+	
+	/**
+	 * A node of the trie of literal prefixes.
+	 */
+	private static final class TrieNode {
+		
+		private final Map<Character, TrieNode> children = new HashMap<Character, TrieNode>();
+		
+		/**
+		 * The patterns whose literal prefix ends at this node.
+		 */
+		private final List<Pattern> patterns = new ArrayList<Pattern>(1);
+		
+	}
+	
+}
@@ -0,0 +1,137 @@
+package io.github.ttno1.configvalidation;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A filter that checks that a number is within inclusive bounds, returned by the {@code range}, {@code min} and {@code max} 
+ * methods of {@linkplain ConfigFilters}.<br>
+ * Values are compared as primitive {@code long}s or {@code double}s and passed on as the same instance. 
+ * {@linkplain ConfigList}s recognize range filters as element filters and check each element without creating a result 
+ * or copying the list.
+ * @param <T> the type of the numbers
+ */
+final class RangeFilter<T extends Number> implements ConfigFilter<T, T> {
+	
+	private final boolean floating;
+	
+	private final long min;
+	
+	private final long max;
+	
+	private final double minDouble;
+	
+	private final double maxDouble;
+	
+	private final String bounds;
+	
+	private RangeFilter(boolean floating, long min, long max, double minDouble, double maxDouble, String bounds) {
+		this.floating = floating;
+		this.min = min;
+		this.max = max;
+		this.minDouble = minDouble;
+		this.maxDouble = maxDouble;
+		this.bounds = bounds;
+	}
+	
+	/**
+	 * 
+	 * @throws IllegalArgumentException if {@code min} is greater than {@code max}
+	 */
+	static <T extends Number> RangeFilter<T> ofLong(long min, long max) {
+		if(min > max) {
+			throw new IllegalArgumentException("Min cannot be greater than max");
+		}
+		return new RangeFilter<T>(false, min, max, 0, 0, bounds(min == Long.MIN_VALUE, max == Long.MAX_VALUE, String.valueOf(min), String.valueOf(max)));
+	}
+	
+	/**
+	 * 
+	 * @throws IllegalArgumentException if {@code min} is greater than {@code max} or either is NaN
+	 */
+	static <T extends Number> RangeFilter<T> ofDouble(double min, double max) {
+		if(Double.isNaN(min) || Double.isNaN(max)) {
+			throw new IllegalArgumentException("Bounds cannot be NaN");
+		}
+		if(min > max) {
+			throw new IllegalArgumentException("Min cannot be greater than max");
+		}
+		return new RangeFilter<T>(true, 0, 0, min, max, bounds(min == Double.NEGATIVE_INFINITY, max == Double.POSITIVE_INFINITY, 
+				String.valueOf(min), String.valueOf(max)));
+	}
+	
+	private static String bounds(boolean unboundedMin, boolean unboundedMax, String min, String max) {
+		if(unboundedMin) {
+			return "at most " + max;
+		}
+		if(unboundedMax) {
+			return "at least " + min;
+		}
+		return "between " + min + " and " + max;
+	}
+	
+	/**
+	 * 
+	 * @param value the value to check
+	 * @return whether the value is not null and within the bounds, NaN is never within the bounds
+	 */
+	boolean inRange(Number value) {
+		if(value == null) {
+			return false;
+		}
+		if(floating) {
+			double d = value.doubleValue();
+			return d >= minDouble && d <= maxDouble;
+		}
+		long l = value.longValue();
+		return l >= min && l <= max;
+	}
+	
+	/**
+	 * 
+	 * @param value a value that is not within the bounds
+	 * @return the fail message for the value
+	 */
+	String failMessage(Object value) {
+		return "Invalid value, must be " + bounds + ": " + value;
+	}
+	
+	/**
+	 * Checks each element of a list, as the element filter of a list, without creating a result per element.
+	 * @param input the list to check
+	 * @param collector creates the collector for the failures when the first element fails
+	 * @param failFast whether to stop at the first failure
+	 * @return the collector with the failures or null if every element is within the bounds
+	 */
+	FailureCollector filterAll(List<?> input, Supplier<FailureCollector> collector, boolean failFast) {
+		FailureCollector failures = null;
+		int index = 0;
+		for(Object element : input) {
+			if(!(element instanceof Number number && inRange(number))) {
+				if(failures == null) {
+					failures = collector.get();
+				}
+				failures.add(null, index, () -> failMessage(element), true);
+				if(failFast) {
+					break;
+				}
+			}
+			index++;
+		}
+		return failures;
+	}
+	
+	@Override
+	public ConfigFilterResult<T> filter(T input) {
+		if(inRange(input)) {
+			return ConfigFilterResult.pass(input);
+		}
+		return ConfigFilterResult.fail(() -> failMessage(input));
+	}
+	
+	@Override
+	public FilterCost getCost() {
+		return FilterCost.CHEAP;
+	}
+	
+}
@@ -0,0 +1,123 @@
+package io.github.ttno1.configvalidation;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs filters on virtual threads with a time limit, for {@linkplain ConfigFilters#timeout(ConfigFilter, java.time.Duration)} 
+ * and runs with a {@linkplain ValidationOptions#withTimeout(java.time.Duration) timeout}.<br>
+ * A filter that does not finish in time is interrupted and abandoned, so a filter that ignores interrupts (e.g. one blocked 
+ * on file system I/O) keeps running on its virtual thread while validation carries on.<br>
+ * Within a run with a deadline, only {@linkplain Timed timed} and {@linkplain FilterCost#EXPENSIVE expensive} filters are 
+ * moved to a virtual thread. Other filters run on the calling thread and the deadline is checked between them.
+ */
+final class TimedFilter {
+	
+	static final String DEADLINE_MESSAGE = "The validation deadline was exceeded";
+	
+	private TimedFilter() {}
+	
+	/**
+	 * 
+	 * @param timeoutNanos the timeout of the filter
+	 * @return the fail message of a filter that timed out
+	 */
+	static String timeoutMessage(long timeoutNanos) {
+		return "The filter timed out after " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms";
+	}
+	
+	/**
+	 * Applies the filter on a new virtual thread and waits for at most {@code timeoutNanos} for its result.<br>
+	 * Exceptions thrown by the filter are rethrown on the calling thread.
+	 * @param filter the filter to apply
+	 * @param input the input of the filter
+	 * @param timeoutNanos the maximum time to wait
+	 * @param timeoutMessage the fail message if the filter does not finish in time
+	 * @return the result of the filter or a failed result with {@code timeoutMessage}
+	 * @throws IllegalStateException if the calling thread is interrupted while waiting
+	 */
+	static <T, U> ConfigFilterResult<U> apply(ConfigFilter<T, U> filter, T input, long timeoutNanos, String timeoutMessage) {
+		CompletableFuture<ConfigFilterResult<U>> future = new CompletableFuture<ConfigFilterResult<U>>();
+		Thread thread = Thread.ofVirtual().name("config-filter").start(() -> {
+			try {
+				future.complete(filter.filter(input));
+			} catch(Throwable t) {
+				future.completeExceptionally(t);
+			}
+		});
+		try {
+			return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+		} catch(TimeoutException e) {
+			thread.interrupt();
+			return ConfigFilterResult.fail(timeoutMessage);
+		} catch(InterruptedException e) {
+			thread.interrupt();
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a filter", e);
+		} catch(ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if(e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+	
+	/**
+	 * 
+	 * @param filter a filter that is applied within the deadline of a run
+	 * @return whether the filter is run on its own thread so that it can be abandoned when the deadline passes
+	 */
+	static boolean needsThread(ConfigFilter<?, ?> filter) {
+		return filter instanceof Timed<?, ?> || filter.getCost() == FilterCost.EXPENSIVE;
+	}
+	
+	/**
+	 * The filter returned by {@linkplain ConfigFilters#timeout(ConfigFilter, java.time.Duration)}.
+	 * @param <T> the input type
+	 * @param <U> the output type
+	 */
+	static final class Timed<T, U> implements ConfigFilter<T, U> {
+		
+		private final ConfigFilter<T, U> filter;
+		
+		private final long timeoutNanos;
+		
+		private final String timeoutMessage;
+		
+		Timed(ConfigFilter<T, U> filter, long timeoutNanos) {
+			this.filter = filter;
+			this.timeoutNanos = timeoutNanos;
+			this.timeoutMessage = timeoutMessage(timeoutNanos);
+		}
+		
+		@Override
+		public ConfigFilterResult<U> filter(T input) {
+			return apply(filter, input, timeoutNanos, timeoutMessage);
+		}
+		
+		/**
+		 * Applies the filter on a single virtual thread that is bounded by both its timeout and the deadline of a run.
+		 * @param input the input of the filter
+		 * @param remainingNanos the time left until the deadline
+		 * @return the result of the filter or a failed result if either the timeout or the deadline passed
+		 */
+		ConfigFilterResult<U> filter(T input, long remainingNanos) {
+			if(remainingNanos < timeoutNanos) {
+				return apply(filter, input, remainingNanos, DEADLINE_MESSAGE);
+			}
+			return filter(input);
+		}
+		
+		@Override
+		public FilterCost getCost() {
+			return filter.getCost();
+		}
+		
+	}
+	
+}
@@ -0,0 +1,225 @@
+package io.github.ttno1.configvalidation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * A filter that checks that the elements of a list, or the keys extracted from them, are unique, for
+ * {@linkplain ConfigFilters#unique()} and {@linkplain ConfigFilters#uniqueBy(Function)}.<br>
+ * The key extractor is called once per element and each key is hashed once, so a list is checked in linear time. When every key is a boxed primitive of the same type, the
+ * keys are compared as primitive {@code long}s in a {@linkplain LongIndexMap} instead of a {@link HashMap} of boxed keys.
+ * @param <T> the type of the elements
+ */
+final class UniqueFilter<T> implements ConfigFilter<List<T>, List<T>> {
+	
+	/**
+	 * The maximum number of duplicated keys that are listed in the fail message.
+	 */
+	static final int MAX_REPORTED_KEYS = 10;
+	
+	/**
+	 * The maximum number of indexes that are listed for each duplicated key.
+	 */
+	static final int MAX_REPORTED_INDEXES = 10;
+	
+	private final Function<? super T, ?> keyExtractor;
+	
+	private final String header;
+	
+	private final String omitted;
+	
+	/**
+	 * 
+	 * @param keyExtractor the function that extracts the key of an element or null to compare the elements themselves
+	 */
+	UniqueFilter(Function<? super T, ?> keyExtractor) {
+		this.keyExtractor = keyExtractor;
+		this.header = keyExtractor == null ? "The list contains duplicate values:" : "The list contains elements with duplicate keys:";
+		this.omitted = keyExtractor == null ? " more duplicated values" : " more duplicated keys";
+	}
+	
+	@Override
+	public ConfigFilterResult<List<T>> filter(List<T> input) {
+		int size = input.size();
+		if(size < 2) {
+			return ConfigFilterResult.pass(input);
+		}
+		// the keys are extracted once and reused by both passes and the fail message
+		Object[] keys = new Object[size];
+		int i = 0;
+		for(T element : input) {
+			keys[i++] = keyExtractor == null ? element : keyExtractor.apply(element);
+		}
+		Map<Integer, List<Integer>> duplicates = isPrimitive(keys[0]) ? primitiveDuplicates(keys, keys[0].getClass()) : null;
+		if(duplicates == null) {
+			duplicates = duplicates(keys);
+		}
+		if(duplicates.isEmpty()) {
+			return ConfigFilterResult.pass(input);
+		}
+		Map<Integer, List<Integer>> found = duplicates;
+		return ConfigFilterResult.fail(() -> failMessage(keys, found));
+	}
+	
+	/**
+	 * 
+	 * @return the indexes of each duplicated key by the index of its first occurrence or null if not every key is a boxed
+	 * primitive of the provided type
+	 */
+	private static Map<Integer, List<Integer>> primitiveDuplicates(Object[] keys, Class<?> type) {
+		LongIndexMap firstIndexes = new LongIndexMap(keys.length);
+		Map<Integer, List<Integer>> duplicates = new LinkedHashMap<Integer, List<Integer>>();
+		for(int index = 0; index < keys.length; index++) {
+			Object key = keys[index];
+			if(key == null || key.getClass() != type) {
+				return null;
+			}
+			int firstIndex = firstIndexes.putIfAbsent(bits(key), index);
+			if(firstIndex >= 0) {
+				duplicates.computeIfAbsent(firstIndex, j -> new ArrayList<Integer>()).add(index);
+			}
+		}
+		return duplicates;
+	}
+	
+	private static Map<Integer, List<Integer>> duplicates(Object[] keys) {
+		Map<Object, Integer> firstIndexes = new HashMap<Object, Integer>(keys.length * 2);
+		Map<Integer, List<Integer>> duplicates = new LinkedHashMap<Integer, List<Integer>>();
+		for(int index = 0; index < keys.length; index++) {
+			Integer firstIndex = firstIndexes.putIfAbsent(keys[index], index);
+			if(firstIndex != null) {
+				duplicates.computeIfAbsent(firstIndex, j -> new ArrayList<Integer>()).add(index);
+			}
+		}
+		return duplicates;
+	}
+	
+	private static boolean isPrimitive(Object key) {
+		return key instanceof Integer || key instanceof Long || key instanceof Short || key instanceof Byte || key instanceof Character
+				|| key instanceof Double || key instanceof Float || key instanceof Boolean;
+	}
+	
+	/**
+	 * 
+	 * @param key a boxed primitive
+	 * @return a {@code long} that is equal for two keys of the same type exactly when they are {@linkplain Object#equals(Object) equal}
+	 */
+	private static long bits(Object key) {
+		if(key instanceof Double d) {
+			return Double.doubleToLongBits(d);
+		}
+		if(key instanceof Float f) {
+			return Float.floatToIntBits(f);
+		}
+		if(key instanceof Character c) {
+			return c;
+		}
+		if(key instanceof Boolean b) {
+			return b ? 1 : 0;
+		}
+		return ((Number) key).longValue();
+	}
+	
+	private String failMessage(Object[] keys, Map<Integer, List<Integer>> duplicates) {
+		StringJoiner message = new StringJoiner(System.lineSeparator());
+		message.add(header);
+		int reported = 0;
+		for(Map.Entry<Integer, List<Integer>> entry : duplicates.entrySet()) {
+			if(reported == MAX_REPORTED_KEYS) {
+				message.add("... and " + (duplicates.size() - reported) + omitted);
+				break;
+			}
+			int firstIndex = entry.getKey();
+			message.add(keys[firstIndex] + " at " + indexes(firstIndex, entry.getValue()));
+			reported++;
+		}
+		return message.toString();
+	}
+	
+	/**
+	 * 
+	 * @return the indexes in ascending order with runs of three or more consecutive indexes written as ranges, e.g. {@code [0, 4-9]}
+	 */
+	private static String indexes(int firstIndex, List<Integer> duplicateIndexes) {
+		StringJoiner joiner = new StringJoiner(", ", "[", "]");
+		int total = duplicateIndexes.size() + 1;
+		int listed = 0;
+		int i = -1;
+		while(i < duplicateIndexes.size() && listed < MAX_REPORTED_INDEXES) {
+			int start = i < 0 ? firstIndex : duplicateIndexes.get(i);
+			int end = start;
+			while(i + 1 < duplicateIndexes.size() && duplicateIndexes.get(i + 1) == end + 1) {
+				end++;
+				i++;
+			}
+			if(end - start >= 2) {
+				joiner.add(start + "-" + end);
+			} else {
+				joiner.add(String.valueOf(start));
+				if(end != start) {
+					joiner.add(String.valueOf(end));
+				}
+			}
+			listed += end - start + 1;
+			i++;
+		}
+		if(listed < total) {
+			joiner.add("... (" + total + " total)");
+		}
+		return joiner.toString();
+	}
+	
+	/**
+	 * An open addressing hash map from primitive {@code long} keys to the non-negative index at which each was first added.<br>
+	 * The map is sized for a fixed number of keys when it is created and never grows.
+	 */
+	static final class LongIndexMap {
+		
+		private final long[] keys;
+		
+		/**
+		 * The index of each key plus one, so that zero marks an empty slot.
+		 */
+		private final int[] indexes;
+		
+		private final int mask;
+		
+		/**
+		 * 
+		 * @param maxSize the maximum number of keys that will be added
+		 */
+		LongIndexMap(int maxSize) {
+			int capacity = Integer.highestOneBit(Math.max(maxSize, 2) * 2 - 1) << 1;
+			this.keys = new long[capacity];
+			this.indexes = new int[capacity];
+			this.mask = capacity - 1;
+		}
+		
+		/**
+		 * 
+		 * @param key the key to add
+		 * @param index the non-negative index to associate with the key if it is not already contained
+		 * @return the index that was already associated with the key or -1 if the key was added
+		 */
+		int putIfAbsent(long key, int index) {
+			long hash = key * 0x9E3779B97F4A7C15L;
+			int slot = (int) (hash ^ (hash >>> 32)) & mask;
+			while(indexes[slot] != 0) {
+				if(keys[slot] == key) {
+					return indexes[slot] - 1;
+				}
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = key;
+			indexes[slot] = index + 1;
+			return -1;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,465 @@
+package io.github.ttno1.configvalidation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The state of a single validation run, created from {@linkplain ValidationOptions}.<br>
+ * Absolute paths are only built when something observes the run (a listener, a {@linkplain FailureRecorder}, selected paths 
+ * or an enabled {@linkplain FlightRecorderEvents} event), 
+ * so the default context costs nothing beyond a null check and a field read per node.
+ */
+final class ValidationContext {
+	
+	static final ValidationContext DEFAULT = new ValidationContext(ValidationOptions.defaults(), null);
+	
+	private final ValidationListener listener;
+	
+	private final Map<SectionKey, ConfigFilterResult<?>> sectionResults;
+	
+	private final int maxFailuresPerNode;
+	
+	private final int maxMessageLength;
+	
+	private final AtomicInteger failureBudget;
+	
+	private final int failureExamples;
+	
+	private final boolean failFast;
+	
+	private final boolean hasDeadline;
+	
+	private final long deadline;
+	
+	private final String[] selectedPaths;
+	
+	private final FailureRecorder failureRecorder;
+	
+	private ValidationContext(ValidationOptions options, FailureRecorder failureRecorder) {
+		this.listener = options.getListener();
+		this.sectionResults = options.isSubtreeMemoization() ? new ConcurrentHashMap<SectionKey, ConfigFilterResult<?>>() : null;
+		this.maxFailuresPerNode = options.getMaxFailuresPerNode();
+		this.maxMessageLength = options.getMaxMessageLength();
+		this.failureBudget = options.getMaxFailures() == Integer.MAX_VALUE ? null : new AtomicInteger(options.getMaxFailures());
+		this.failureExamples = options.getFailureAggregation();
+		this.failFast = options.isFailFast();
+		this.hasDeadline = options.getTimeout() != null;
+		this.deadline = hasDeadline ? System.nanoTime() + options.getTimeout().toNanos() : 0;
+		this.selectedPaths = options.getSelectedPaths() == null ? null : options.getSelectedPaths().toArray(new String[0]);
+		this.failureRecorder = failureRecorder;
+	}
+	
+	static ValidationContext of(ValidationOptions options) {
+		return of(options, null);
+	}
+	
+	/**
+	 * 
+	 * @param options the options of the run
+	 * @param failureRecorder the recorder of the leaf failures of the run or null if they are not recorded
+	 * @return the context of a new run
+	 */
+	static ValidationContext of(ValidationOptions options, FailureRecorder failureRecorder) {
+		if(failureRecorder == null && options.getListener() == null && !options.isSubtreeMemoization() && !options.limitsFailures() && options.getFailureAggregation() == 0 
+				&& !options.isFailFast() && options.getTimeout() == null && options.getSelectedPaths() == null) {
+			return DEFAULT;
+		}
+		return new ValidationContext(options, failureRecorder);
+	}
+	
+	/**
+	 * 
+	 * @param header the first line of the fail message
+	 * @return a new collector that applies the failure limits of this run
+	 */
+	FailureCollector collectFailures(String header) {
+		return new FailureCollector(header, maxFailuresPerNode, maxMessageLength, failureBudget, failureExamples);
+	}
+	
+	/**
+	 * 
+	 * @return whether specs and lists stop at their first failure in this run
+	 */
+	boolean isFailFast() {
+		return failFast;
+	}
+	
+	/**
+	 * 
+	 * @return whether this run has a deadline
+	 */
+	boolean hasDeadline() {
+		return hasDeadline;
+	}
+	
+	/**
+	 * 
+	 * @return whether the deadline of this run has passed
+	 */
+	boolean isPastDeadline() {
+		return hasDeadline && System.nanoTime() - deadline >= 0;
+	}
+	
+	/**
+	 * Applies a filter within the deadline of this run.<br>
+	 * Only {@linkplain ConfigFilters#timeout(ConfigFilter, java.time.Duration) timed} and 
+	 * {@linkplain FilterCost#EXPENSIVE expensive} filters are run on a virtual thread and abandoned if the deadline passes. 
+	 * Other filters are applied directly, so they are not interrupted mid-call and the deadline is only checked before them.
+	 * @param filter the filter to apply
+	 * @param input the input of the filter
+	 * @return the result of the filter or a failed result if the deadline passed
+	 */
+	<T, U> ConfigFilterResult<U> applyFilter(ConfigFilter<T, U> filter, T input) {
+		if(!hasDeadline || NullFilter.isNullFilter(filter)) {
+			return filter.filter(input);
+		}
+		long remaining = deadline - System.nanoTime();
+		if(remaining <= 0) {
+			return ConfigFilterResult.fail(TimedFilter.DEADLINE_MESSAGE);
+		}
+		if(filter instanceof TimedFilter.Timed<T, U> timed) {
+			return timed.filter(input, remaining);
+		}
+		if(!TimedFilter.needsThread(filter)) {
+			return filter.filter(input);
+		}
+		return TimedFilter.apply(filter, input, remaining, TimedFilter.DEADLINE_MESSAGE);
+	}
+	
+	/**
+	 * 
+	 * @return whether this run only validates selected paths
+	 */
+	boolean isSelective() {
+		return selectedPaths != null;
+	}
+	
+	/**
+	 * 
+	 * @param path the absolute path of a node
+	 * @return whether the node is selected or encloses a selected node, so it must be validated in this run
+	 */
+	boolean isSelected(String path) {
+		if(selectedPaths == null) {
+			return true;
+		}
+		for(String selected : selectedPaths) {
+			if(path.equals(selected) || path.isEmpty() || selected.isEmpty() || isNested(selected, path) || isNested(path, selected)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * 
+	 * @param path the absolute path of a section or null if the run does not track paths
+	 * @return whether the section and everything nested within it is selected, so its result does not depend on the selection
+	 */
+	boolean isFullySelected(String path) {
+		if(selectedPaths == null) {
+			return true;
+		}
+		for(String selected : selectedPaths) {
+			if(path.equals(selected) || selected.isEmpty() || isNested(selected, path)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * 
+	 * @return whether {@code inner} is the path of a node nested within the node at {@code outer}
+	 */
+	private static boolean isNested(String outer, String inner) {
+		if(inner.length() <= outer.length() || !inner.startsWith(outer)) {
+			return false;
+		}
+		char next = inner.charAt(outer.length());
+		return next == '.' || next == '[';
+	}
+	
+	/**
+	 * 
+	 * @return whether the results of shared sections are memoized in this run
+	 */
+	boolean memoizesSections() {
+		return sectionResults != null;
+	}
+	
+	/**
+	 * 
+	 * @param spec the spec that validated the section
+	 * @param source the {@link ConfigWrapper#getSource()} of the section
+	 * @return the memoized result or null if the section has not been validated by {@code spec} in this run
+	 */
+	@SuppressWarnings("unchecked")
+	<U> ConfigFilterResult<U> getSectionResult(ConfigSpec<U> spec, Object source) {
+		return (ConfigFilterResult<U>) sectionResults.get(new SectionKey(spec, source));
+	}
+	
+	<U> void putSectionResult(ConfigSpec<U> spec, Object source, ConfigFilterResult<U> result) {
+		sectionResults.put(new SectionKey(spec, source), result);
+	}
+	
+	/**
+	 * 
+	 * @return whether a listener is registered for this run
+	 */
+	boolean hasListener() {
+		return listener != null;
+	}
+	
+	/**
+	 * 
+	 * @return whether absolute paths need to be tracked for this run
+	 */
+	boolean tracksPaths() {
+		return listener != null || selectedPaths != null || failureRecorder != null || FlightRecorderEvents.isEnabled();
+	}
+	
+	/**
+	 * Records a failure that was not caused by a nested node, if this run records them.
+	 * @param parent the absolute path of the parent of the node or null if paths are not tracked
+	 * @param path the path of the node relative to its parent
+	 * @param result the failed result of the node
+	 * @return {@code result}
+	 */
+	ConfigValidationResult leafFailed(String parent, String path, ConfigValidationResult result) {
+		if(failureRecorder != null) {
+			failureRecorder.leafFailed(join(parent, path), result.getFailMessage());
+		}
+		return result;
+	}
+	
+	/**
+	 * Records a failure that was not caused by a nested node, if this run records them.
+	 * @param path the absolute path of the node or null if paths are not tracked
+	 * @param failMessage the fail message of the node
+	 */
+	void leafFailed(String path, String failMessage) {
+		if(failureRecorder != null) {
+			failureRecorder.leafFailed(path, failMessage);
+		}
+	}
+	
+	/**
+	 * Joins an absolute parent path and a relative child path.
+	 * @param parent the absolute path of the parent or null if paths are not tracked
+	 * @param path the path relative to the parent
+	 * @return the absolute path or null if paths are not tracked
+	 */
+	static String join(String parent, String path) {
+		if(parent == null) {
+			return null;
+		}
+		if(parent.isEmpty()) {
+			return path;
+		}
+		if(path.isEmpty()) {
+			return parent;
+		}
+		return parent + "." + path;
+	}
+	
+	/**
+	 * Returns the absolute path of a list element.
+	 * @param list the absolute path of the list or null if paths are not tracked
+	 * @param index the index of the element
+	 * @return the absolute path or null if paths are not tracked
+	 */
+	static String element(String list, int index) {
+		if(list == null) {
+			return null;
+		}
+		return list + "[" + index + "]";
+	}
+	
+	/**
+	 * Called when a node is about to be validated.
+	 * @param parent the absolute path of the parent of the node or null if paths were not tracked
+	 * @param path the path of the node relative to its parent
+	 * @param baseType the base type of the node
+	 * @return a probe to report the node's progress to or null if the run is not observed
+	 */
+	Probe enter(String parent, String path, BaseType baseType) {
+		boolean recording = FlightRecorderEvents.isEnabled();
+		if(listener == null && !recording) {
+			return null;
+		}
+		String absolutePath = parent == null ? path : join(parent, path);
+		if(listener != null) {
+			listener.nodeEntered(absolutePath, baseType);
+		}
+		return new Probe(absolutePath, baseType, recording);
+	}
+	
+	/**
+	 * Called when the nodes of a {@link ConfigSpec} are about to be validated against a section.
+	 * @return an event to pass to {@link #exitSpec(FlightRecorderEvents.SpecValidation, String, int, boolean)} or null if it is not recorded
+	 */
+	FlightRecorderEvents.SpecValidation enterSpec() {
+		if(!FlightRecorderEvents.isEnabled()) {
+			return null;
+		}
+		FlightRecorderEvents.SpecValidation event = new FlightRecorderEvents.SpecValidation();
+		event.begin();
+		return event;
+	}
+	
+	void exitSpec(FlightRecorderEvents.SpecValidation event, String path, int nodes, boolean passed) {
+		if(event != null && event.shouldCommit()) {
+			event.path = path;
+			event.nodes = nodes;
+			event.passed = passed;
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Measures the validation of a single node and reports it to the listener and Flight Recorder.
+	 */
+	final class Probe {
+		
+		private final String path;
+		
+		private final BaseType baseType;
+		
+		private final FlightRecorderEvents.NodeValidation nodeEvent;
+		
+		private FlightRecorderEvents.WrapperLookup wrapperEvent;
+		
+		private FlightRecorderEvents.FilterExecution filterEvent;
+		
+		private long wrapperNanos;
+		
+		private long filterNanos;
+		
+		private Probe(String path, BaseType baseType, boolean recording) {
+			this.path = path;
+			this.baseType = baseType;
+			if(recording) {
+				nodeEvent = new FlightRecorderEvents.NodeValidation();
+				nodeEvent.begin();
+			} else {
+				nodeEvent = null;
+			}
+		}
+		
+		String getPath() {
+			return path;
+		}
+		
+		/**
+		 * 
+		 * @return the start time to pass to {@link #wrapperCalled(String, long)}
+		 */
+		long beginWrapperCall() {
+			if(nodeEvent != null) {
+				wrapperEvent = new FlightRecorderEvents.WrapperLookup();
+				wrapperEvent.begin();
+			}
+			return System.nanoTime();
+		}
+		
+		void wrapperCalled(String method, long start) {
+			long nanos = System.nanoTime() - start;
+			wrapperNanos += nanos;
+			if(listener != null) {
+				listener.wrapperCalled(path, method, nanos);
+			}
+			if(wrapperEvent != null) {
+				if(wrapperEvent.shouldCommit()) {
+					wrapperEvent.method = method;
+					wrapperEvent.path = path;
+					wrapperEvent.commit();
+				}
+				wrapperEvent = null;
+			}
+		}
+		
+		/**
+		 * 
+		 * @return the start time to pass to {@link #filterCalled(long, boolean)}
+		 */
+		long beginFilter() {
+			if(nodeEvent != null) {
+				filterEvent = new FlightRecorderEvents.FilterExecution();
+				filterEvent.begin();
+			}
+			return System.nanoTime();
+		}
+		
+		void filterCalled(long start, boolean passed) {
+			filterNanos += System.nanoTime() - start;
+			if(filterEvent != null) {
+				if(filterEvent.shouldCommit()) {
+					filterEvent.path = path;
+					filterEvent.passed = passed;
+					filterEvent.commit();
+				}
+				filterEvent = null;
+			}
+		}
+		
+		ConfigValidationResult exit(ConfigValidationResult result) {
+			if(listener != null) {
+				listener.nodeExited(path, baseType, wrapperNanos, filterNanos, result);
+			}
+			if(nodeEvent != null && nodeEvent.shouldCommit()) {
+				nodeEvent.path = path;
+				nodeEvent.type = baseType.toString();
+				nodeEvent.passed = result.passed();
+				nodeEvent.commit();
+			}
+			return result;
+		}
+		
+	}
+	
+	/**
+	 * Identifies a section validated by a spec by the identity of both.
+	 */
+	private static final class SectionKey {
+		
+		private final ConfigSpec<?> spec;
+		
+		private final Object source;
+		
+		private SectionKey(ConfigSpec<?> spec, Object source) {
+			this.spec = spec;
+			this.source = source;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof SectionKey key && key.spec == spec && key.source == source;
+		}
+		
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(spec) + System.identityHashCode(source);
+		}
+		
+	}
+	
+	/**
+	 * Receives the failures of a run that were not caused by a failing node nested within them, without the cost of a 
+	 * {@linkplain ValidationListener}.<br>
+	 * Lists may validate their elements in parallel, so the recorder may be called from several threads at once.
+	 */
+	@FunctionalInterface
+	interface FailureRecorder {
+		
+		/**
+		 * 
+		 * @param path the absolute path of the node, list element or reference that failed
+		 * @param failMessage the fail message of the node
+		 */
+		void leafFailed(String path, String failMessage);
+		
+	}
+	
+}
@@ -0,0 +1,20 @@
+package io.github.ttno1.configvalidation;
+
+/**
+ * The completed validation of a single node, as published by {@linkplain ConfigSpec#publish(ConfigWrapper, ValidationOptions)}.
+ * @param index the index of the validated config, always 0 when a single config is validated
+ * @param path the absolute path of the node, which is empty for the root of the config
+ * @param baseType the base type of the node
+ * @param result the result of the node's validation
+ */
+public record ValidationEvent(int index, String path, BaseType baseType, ConfigValidationResult result) {
+	
+	/**
+	 * 
+	 * @return whether the node passed validation
+	 */
+	public boolean passed() {
+		return result.passed();
+	}
+	
+}
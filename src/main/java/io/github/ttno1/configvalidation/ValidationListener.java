@@ -0,0 +1,73 @@
+package io.github.ttno1.configvalidation;
+
+/**
+ * A listener that is notified as each node of a config is validated.<br>
+ * Register a listener with {@linkplain ValidationOptions#withListener(ValidationListener)}. When no listener is registered, 
+ * validation does not measure or report anything.<br>
+ * Paths are absolute paths from the root of the validation, with nested nodes separated by {@code "."} and list elements 
+ * denoted by {@code "[index]"}. All times are in nanoseconds as measured by {@linkplain System#nanoTime()}.<br>
+ * Listener methods are called on the validating thread and should return quickly.
+ */
+public interface ValidationListener {
+	
+	/**
+	 * Called before a node is validated.
+	 * @param path the absolute path of the node
+	 * @param baseType the base type of the node
+	 */
+	default void nodeEntered(String path, BaseType baseType) {}
+	
+	/**
+	 * Called after a node calls a method of its {@linkplain ConfigWrapper}.
+	 * @param path the absolute path of the node
+	 * @param method the name of the {@code ConfigWrapper} method that was called (e.g. {@code "containsNode"} or {@code "getString"})
+	 * @param nanos how long the call took
+	 */
+	default void wrapperCalled(String path, String method, long nanos) {}
+	
+	/**
+	 * Called after a node is validated.
+	 * @param path the absolute path of the node
+	 * @param baseType the base type of the node
+	 * @param wrapperNanos the total time spent in {@linkplain ConfigWrapper} calls made by the node
+	 * @param filterNanos the time spent in the node's filter, including the validation of any nodes nested within it
+	 * @param result the result of the validation
+	 */
+	default void nodeExited(String path, BaseType baseType, long wrapperNanos, long filterNanos, ConfigValidationResult result) {}
+	
+	/**
+	 * Returns a listener that forwards every event to each of the provided listeners in order.
+	 * @param listeners the listeners to forward to
+	 * @return a listener that forwards to all of the provided listeners
+	 * @throws NullPointerException if {@code listeners} is null or contains null
+	 */
+	static ValidationListener of(ValidationListener... listeners) {
+		ValidationListener[] copy = listeners.clone();
+		for(ValidationListener listener : copy) {
+			if(listener == null) {
+				throw new NullPointerException("Listeners cannot contain null");
+			}
+		}
+		return new ValidationListener() {
+			@Override
+			public void nodeEntered(String path, BaseType baseType) {
+				for(ValidationListener listener : copy) {
+					listener.nodeEntered(path, baseType);
+				}
+			}
+			@Override
+			public void wrapperCalled(String path, String method, long nanos) {
+				for(ValidationListener listener : copy) {
+					listener.wrapperCalled(path, method, nanos);
+				}
+			}
+			@Override
+			public void nodeExited(String path, BaseType baseType, long wrapperNanos, long filterNanos, ConfigValidationResult result) {
+				for(ValidationListener listener : copy) {
+					listener.nodeExited(path, baseType, wrapperNanos, filterNanos, result);
+				}
+			}
+		};
+	}
+	
+}
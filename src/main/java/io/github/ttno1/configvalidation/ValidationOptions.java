@@ -0,0 +1,287 @@
+package io.github.ttno1.configvalidation;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Options that control how a config is validated.<br>
+ * Instances are immutable. Start with {@linkplain #defaults()} and use the {@code with} methods to derive new options.
+ */
+public final class ValidationOptions {
+	
+	private static final ValidationOptions DEFAULTS = new ValidationOptions();
+	
+	private ValidationListener listener;
+	
+	private boolean subtreeMemoization;
+	
+	private int maxFailuresPerNode = Integer.MAX_VALUE;
+	
+	private int maxFailures = Integer.MAX_VALUE;
+	
+	private int maxMessageLength = Integer.MAX_VALUE;
+	
+	private int failureAggregation;
+	
+	private boolean failFast;
+	
+	private Duration timeout;
+	
+	private Set<String> selectedPaths;
+	
+	private ValidationOptions() {}
+	
+	/**
+	 * Copies the options for a {@code with} method, which sets a single field of the copy before returning it.
+	 * @param options the options to copy
+	 */
+	private ValidationOptions(ValidationOptions options) {
+		this.listener = options.listener;
+		this.subtreeMemoization = options.subtreeMemoization;
+		this.maxFailuresPerNode = options.maxFailuresPerNode;
+		this.maxFailures = options.maxFailures;
+		this.maxMessageLength = options.maxMessageLength;
+		this.failureAggregation = options.failureAggregation;
+		this.failFast = options.failFast;
+		this.timeout = options.timeout;
+		this.selectedPaths = options.selectedPaths;
+	}
+	
+	/**
+	 * 
+	 * @return the default options, which validate every node without a listener or memoization and keep every failure
+	 */
+	public static ValidationOptions defaults() {
+		return DEFAULTS;
+	}
+	
+	/**
+	 * Returns options that report validation progress to the provided listener.
+	 * @param listener the listener to notify, or null for no listener
+	 * @return new options with the provided listener
+	 */
+	public ValidationOptions withListener(ValidationListener listener) {
+		ValidationOptions options = new ValidationOptions(this);
+		options.listener = listener;
+		return options;
+	}
+	
+	/**
+	 * Returns options that validate each config section only once per {@linkplain ConfigSpec} when the same section appears at 
+	 * several paths, such as a YAML anchor that is referenced by aliases.<br>
+	 * Sections are recognized by the identity of {@linkplain ConfigWrapper#getSource()}. The result of the first validation is 
+	 * reused at every other path, so failures are still reported at each of them, but filters (including 
+	 * {@linkplain ConfigFilter#thenRun(java.util.function.Consumer)} consumers) of the section's nodes only run once and 
+	 * listeners only see the nested nodes of the first validation.
+	 * @param subtreeMemoization whether to memoize the validation of shared sections
+	 * @return new options with the provided memoization setting
+	 */
+	public ValidationOptions withSubtreeMemoization(boolean subtreeMemoization) {
+		ValidationOptions options = new ValidationOptions(this);
+		options.subtreeMemoization = subtreeMemoization;
+		return options;
+	}
+	
+	/**
+	 * Returns options that keep at most {@code maxFailuresPerNode} failures in the fail message of each {@linkplain ConfigSpec} 
+	 * and {@linkplain ConfigList}.<br>
+	 * Further failures are only counted and reported as {@code "... and N more"}.
+	 * @param maxFailuresPerNode the maximum number of failures listed by a single node
+	 * @return new options with the provided limit
+	 * @throws IllegalArgumentException if {@code maxFailuresPerNode} is less than 1
+	 */
+	public ValidationOptions withMaxFailuresPerNode(int maxFailuresPerNode) {
+		if(maxFailuresPerNode < 1) {
+			throw new IllegalArgumentException("Max failures per node must be at least 1");
+		}
+		ValidationOptions options = new ValidationOptions(this);
+		options.maxFailuresPerNode = maxFailuresPerNode;
+		return options;
+	}
+	
+	/**
+	 * Returns options that keep at most {@code maxFailures} failures of filters and leaf nodes in the whole validation.<br>
+	 * Once the limit is reached, further failures are only counted and reported as {@code "... and N more"} by the 
+	 * {@linkplain ConfigSpec} or {@linkplain ConfigList} that contains them. Which failures are kept may vary for 
+	 * {@linkplain ConfigList#parallel(int) parallel} lists of config sections.
+	 * @param maxFailures the maximum number of failures listed by a validation
+	 * @return new options with the provided limit
+	 * @throws IllegalArgumentException if {@code maxFailures} is less than 1
+	 */
+	public ValidationOptions withMaxFailures(int maxFailures) {
+		if(maxFailures < 1) {
+			throw new IllegalArgumentException("Max failures must be at least 1");
+		}
+		ValidationOptions options = new ValidationOptions(this);
+		options.maxFailures = maxFailures;
+		return options;
+	}
+	
+	/**
+	 * Returns options that truncate the fail message of each filter and leaf node to {@code maxMessageLength} characters.
+	 * @param maxMessageLength the maximum length of a single fail message
+	 * @return new options with the provided limit
+	 * @throws IllegalArgumentException if {@code maxMessageLength} is less than 1
+	 */
+	public ValidationOptions withMaxMessageLength(int maxMessageLength) {
+		if(maxMessageLength < 1) {
+			throw new IllegalArgumentException("Max message length must be at least 1");
+		}
+		ValidationOptions options = new ValidationOptions(this);
+		options.maxMessageLength = maxMessageLength;
+		return options;
+	}
+	
+	/**
+	 * Returns options that group the failures listed by each {@linkplain ConfigSpec} and {@linkplain ConfigList} by their template, 
+	 * as in {@linkplain ConfigFilters#forEachAggregated(ConfigFilter, int)}. Each template is listed once with the paths or 
+	 * element indexes of its first {@code maxExamples} failures and the number of remaining ones.<br>
+	 * The failure limits then apply to the number of templates rather than the number of failures.
+	 * @param maxExamples the maximum number of paths or indexes listed per template or 0 to list every failure separately
+	 * @return new options with the provided aggregation setting
+	 * @throws IllegalArgumentException if {@code maxExamples} is negative
+	 */
+	public ValidationOptions withFailureAggregation(int maxExamples) {
+		if(maxExamples < 0) {
+			throw new IllegalArgumentException("Max examples cannot be negative");
+		}
+		ValidationOptions options = new ValidationOptions(this);
+		options.failureAggregation = maxExamples;
+		return options;
+	}
+	
+	/**
+	 * Returns options that stop validating the nodes of a {@linkplain ConfigSpec} or the elements of a {@linkplain ConfigList} 
+	 * after the first failure, so only that failure is reported by each of them.<br>
+	 * Nodes are validated in order of their {@linkplain FilterCost cost}, so a fail-fast run reports a failure of a cheap node 
+	 * without running the expensive filters of the remaining nodes. Parallel lists are validated sequentially in fail-fast runs.
+	 * @param failFast whether to stop at the first failure
+	 * @return new options with the provided fail-fast setting
+	 */
+	public ValidationOptions withFailFast(boolean failFast) {
+		ValidationOptions options = new ValidationOptions(this);
+		options.failFast = failFast;
+		return options;
+	}
+	
+	/**
+	 * Returns options that give each validation a deadline of {@code timeout} after it starts.<br>
+	 * Filters wrapped with {@linkplain ConfigFilters#timeout(ConfigFilter, Duration)} or with a cost of 
+	 * {@linkplain FilterCost#EXPENSIVE} run on virtual threads and are abandoned when the deadline passes, and nodes and list 
+	 * elements that have not been validated by then fail without being validated. Both are reported at their paths with the 
+	 * message {@code "The validation deadline was exceeded"}. Other filters run on the calling thread and are not interrupted 
+	 * mid-call, and calls to the {@linkplain ConfigWrapper} are not bounded by the deadline.
+	 * @param timeout the maximum duration of a validation or null for no deadline
+	 * @return new options with the provided timeout
+	 * @throws IllegalArgumentException if {@code timeout} is not positive
+	 */
+	public ValidationOptions withTimeout(Duration timeout) {
+		if(timeout != null && (timeout.isNegative() || timeout.isZero())) {
+			throw new IllegalArgumentException("Timeout must be positive");
+		}
+		ValidationOptions options = new ValidationOptions(this);
+		options.timeout = timeout;
+		return options;
+	}
+	
+	/**
+	 * Returns options that only validate the nodes at or below the provided path prefixes, e.g. {@code modules.billing} to 
+	 * revalidate a single module after a reload.<br>
+	 * A prefix selects the node at that absolute path and every node nested within it, where nested paths continue with 
+	 * {@code "."} or a list index (so {@code modules.bill} does not select {@code modules.billing}). The {@linkplain ConfigSpec}s 
+	 * and {@linkplain ConfigList}s that enclose a selected node are validated as well, since their input contains it, but only 
+	 * their selected nested nodes are validated. Their own filters still run, and references added with 
+	 * {@linkplain ConfigSpec#addReference(String, String)} are checked if either of their paths is selected. All other nodes 
+	 * are skipped and count as passed.
+	 * @param pathPrefixes the absolute path prefixes to validate or null to validate every node
+	 * @return new options with the provided selection
+	 * @throws NullPointerException if {@code pathPrefixes} contains null
+	 */
+	public ValidationOptions withSelectedPaths(Collection<String> pathPrefixes) {
+		ValidationOptions options = new ValidationOptions(this);
+		options.selectedPaths = pathPrefixes == null ? null : Set.copyOf(pathPrefixes);
+		return options;
+	}
+	
+	/**
+	 * 
+	 * @return the listener or null if there is none
+	 */
+	public ValidationListener getListener() {
+		return listener;
+	}
+	
+	/**
+	 * 
+	 * @return whether the validation of shared sections is memoized
+	 */
+	public boolean isSubtreeMemoization() {
+		return subtreeMemoization;
+	}
+	
+	/**
+	 * 
+	 * @return the maximum number of failures listed by a single node, {@link Integer#MAX_VALUE} if unlimited
+	 */
+	public int getMaxFailuresPerNode() {
+		return maxFailuresPerNode;
+	}
+	
+	/**
+	 * 
+	 * @return the maximum number of failures listed by a validation, {@link Integer#MAX_VALUE} if unlimited
+	 */
+	public int getMaxFailures() {
+		return maxFailures;
+	}
+	
+	/**
+	 * 
+	 * @return the maximum length of a single fail message, {@link Integer#MAX_VALUE} if unlimited
+	 */
+	public int getMaxMessageLength() {
+		return maxMessageLength;
+	}
+	
+	/**
+	 * 
+	 * @return the maximum number of paths or indexes listed per failure template or 0 if failures are not grouped
+	 */
+	public int getFailureAggregation() {
+		return failureAggregation;
+	}
+	
+	/**
+	 * 
+	 * @return whether validation stops at the first failure of each spec and list
+	 */
+	public boolean isFailFast() {
+		return failFast;
+	}
+	
+	/**
+	 * 
+	 * @return the maximum duration of a validation or null if there is no deadline
+	 */
+	public Duration getTimeout() {
+		return timeout;
+	}
+	
+	/**
+	 * 
+	 * @return the absolute path prefixes that are validated or null if every node is validated
+	 */
+	public Set<String> getSelectedPaths() {
+		return selectedPaths;
+	}
+	
+	/**
+	 * 
+	 * @return whether any failure limit is set
+	 */
+	boolean limitsFailures() {
+		return maxFailuresPerNode != Integer.MAX_VALUE || maxFailures != Integer.MAX_VALUE || maxMessageLength != Integer.MAX_VALUE;
+	}
+	
+}
@@ -0,0 +1,105 @@
+package io.github.ttno1.configvalidation;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Publishes a {@linkplain ValidationEvent} for each node as its validation completes.<br>
+ * Every subscription validates the configs again on its own virtual thread, which reports each node to a {@link SubmissionPublisher}. 
+ * Submitting blocks while the subscriber's buffer is full, so validation never runs further ahead of the subscriber than the buffer, 
+ * and a cancelled subscription stops the validation at the next node.
+ */
+final class ValidationPublisher implements Flow.Publisher<ValidationEvent> {
+	
+	private final ConfigSpec<?> spec;
+	
+	private final Iterable<? extends ConfigWrapper> configWrappers;
+	
+	private final ValidationOptions options;
+	
+	ValidationPublisher(ConfigSpec<?> spec, Iterable<? extends ConfigWrapper> configWrappers, ValidationOptions options) {
+		if(configWrappers == null) {
+			throw new NullPointerException("Config wrappers cannot be null");
+		}
+		if(options == null) {
+			throw new NullPointerException("Options cannot be null");
+		}
+		this.spec = spec;
+		this.configWrappers = configWrappers;
+		this.options = options;
+	}
+	
+	@Override
+	public void subscribe(Flow.Subscriber<? super ValidationEvent> subscriber) {
+		if(subscriber == null) {
+			throw new NullPointerException("Subscriber cannot be null");
+		}
+		SubmissionPublisher<ValidationEvent> publisher = new SubmissionPublisher<ValidationEvent>();
+		publisher.subscribe(subscriber);
+		Thread.ofVirtual().name("config-validation-publisher").start(() -> publish(publisher));
+	}
+	
+	private void publish(SubmissionPublisher<ValidationEvent> publisher) {
+		try {
+			int index = 0;
+			for(ConfigWrapper configWrapper : configWrappers) {
+				if(configWrapper == null) {
+					throw new NullPointerException("Config wrappers cannot contain null");
+				}
+				Emitter emitter = new Emitter(publisher, index++);
+				ValidationListener listener = options.getListener() == null ? emitter : ValidationListener.of(options.getListener(), emitter);
+				spec.validate(configWrapper, options.withListener(listener));
+			}
+			publisher.close();
+		} catch(Cancelled e) {
+			publisher.close();
+		} catch(RuntimeException | Error e) {
+			publisher.closeExceptionally(e);
+		}
+	}
+	
+	/**
+	 * Submits an event for each validated node and aborts the validation once the subscription is cancelled.
+	 */
+	private static final class Emitter implements ValidationListener {
+		
+		private final SubmissionPublisher<ValidationEvent> publisher;
+		
+		private final int index;
+		
+		private Emitter(SubmissionPublisher<ValidationEvent> publisher, int index) {
+			this.publisher = publisher;
+			this.index = index;
+		}
+		
+		@Override
+		public void nodeEntered(String path, BaseType baseType) {
+			if(!publisher.hasSubscribers()) {
+				throw new Cancelled();
+			}
+		}
+		
+		@Override
+		public void nodeExited(String path, BaseType baseType, long wrapperNanos, long filterNanos, ConfigValidationResult result) {
+			if(!publisher.hasSubscribers()) {
+				throw new Cancelled();
+			}
+			publisher.submit(new ValidationEvent(index, path, baseType, result));
+		}
+		
+	}
+	
+	/**
+	 * Unwinds the validation of a cancelled subscription.
+	 */
+	private static final class Cancelled extends RuntimeException {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private Cancelled() {
+			super(null, null, false, false);
+		}
+		
+	}
+	
+}
@@ -0,0 +1,150 @@
+package io.github.ttno1.configvalidation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * A {@linkplain ValidationListener} that aggregates the timing of validation runs.<br>
+ * Keeps the slowest nodes (by wrapper time plus filter time) and counts the calls made to each {@linkplain ConfigWrapper} method.
+ * Note that the filter time of a {@linkplain ConfigSpec} or {@linkplain ConfigList} includes the time of the nodes nested within it.<br>
+ * Instances may be reused across runs to aggregate them and are safe to use from multiple threads.
+ */
+public class ValidationStatistics implements ValidationListener {
+
+	private static final Comparator<NodeTiming> BY_TOTAL_NANOS = Comparator.comparingLong(NodeTiming::totalNanos);
+
+	private final int slowestNodeCount;
+
+	private final PriorityQueue<NodeTiming> slowestNodes;
+
+	private final Map<String, Long> wrapperCalls = new TreeMap<String, Long>();
+
+	private final Map<String, Long> wrapperNanos = new TreeMap<String, Long>();
+
+	private long nodeCount;
+
+	/**
+	 *
+	 * @param slowestNodeCount the number of slowest nodes to keep
+	 * @throws IllegalArgumentException if {@code slowestNodeCount} is negative
+	 */
+	public ValidationStatistics(int slowestNodeCount) {
+		if(slowestNodeCount < 0) {
+			throw new IllegalArgumentException("Slowest node count cannot be negative");
+		}
+		this.slowestNodeCount = slowestNodeCount;
+		this.slowestNodes = new PriorityQueue<NodeTiming>(slowestNodeCount + 1, BY_TOTAL_NANOS);
+	}
+
+	@Override
+	public synchronized void wrapperCalled(String path, String method, long nanos) {
+		wrapperCalls.merge(method, 1L, Long::sum);
+		wrapperNanos.merge(method, nanos, Long::sum);
+	}
+
+	@Override
+	public synchronized void nodeExited(String path, BaseType baseType, long wrapperNanos, long filterNanos, ConfigValidationResult result) {
+		nodeCount++;
+		if(slowestNodeCount == 0) {
+			return;
+		}
+		if(slowestNodes.size() == slowestNodeCount && slowestNodes.peek().totalNanos() >= wrapperNanos + filterNanos) {
+			return;
+		}
+		slowestNodes.add(new NodeTiming(path, baseType, wrapperNanos, filterNanos, result.passed()));
+		if(slowestNodes.size() > slowestNodeCount) {
+			slowestNodes.poll();
+		}
+	}
+
+	/**
+	 *
+	 * @return the slowest nodes, slowest first
+	 */
+	public synchronized List<NodeTiming> getSlowestNodes() {
+		List<NodeTiming> nodes = new ArrayList<NodeTiming>(slowestNodes);
+		nodes.sort(BY_TOTAL_NANOS.reversed());
+		return nodes;
+	}
+
+	/**
+	 *
+	 * @return the number of calls made to each {@link ConfigWrapper} method, by method name
+	 */
+	public synchronized Map<String, Long> getWrapperCalls() {
+		return new TreeMap<String, Long>(wrapperCalls);
+	}
+
+	/**
+	 *
+	 * @return the total time spent in each {@link ConfigWrapper} method, by method name
+	 */
+	public synchronized Map<String, Long> getWrapperNanos() {
+		return new TreeMap<String, Long>(wrapperNanos);
+	}
+
+	/**
+	 *
+	 * @return the number of nodes that were validated
+	 */
+	public synchronized long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Discards all statistics collected so far.
+	 */
+	public synchronized void reset() {
+		slowestNodes.clear();
+		wrapperCalls.clear();
+		wrapperNanos.clear();
+		nodeCount = 0;
+	}
+
+	/**
+	 *
+	 * @return a human readable report of the slowest nodes and the wrapper calls
+	 */
+	@Override
+	public synchronized String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("Validated ").append(nodeCount).append(" nodes").append(System.lineSeparator());
+		builder.append("Slowest nodes:").append(System.lineSeparator());
+		for(NodeTiming node : getSlowestNodes()) {
+			builder.append("  ").append(node.path().isEmpty() ? "<root>" : node.path()).append(" (").append(node.baseType()).append(") - ")
+					.append(node.totalNanos()).append("ns (wrapper ").append(node.wrapperNanos()).append("ns, filter ").append(node.filterNanos())
+					.append("ns)").append(node.passed() ? "" : " FAILED").append(System.lineSeparator());
+		}
+		builder.append("Wrapper calls:").append(System.lineSeparator());
+		for(Map.Entry<String, Long> entry : wrapperCalls.entrySet()) {
+			builder.append("  ").append(entry.getKey()).append(" - ").append(entry.getValue()).append(" calls, ")
+					.append(wrapperNanos.get(entry.getKey())).append("ns").append(System.lineSeparator());
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * The timing of a single validated node.
+	 * @param path the absolute path of the node
+	 * @param baseType the base type of the node
+	 * @param wrapperNanos the time spent in {@link ConfigWrapper} calls
+	 * @param filterNanos the time spent in the filter, including nested nodes
+	 * @param passed whether the node passed validation
+	 */
+	public record NodeTiming(String path, BaseType baseType, long wrapperNanos, long filterNanos, boolean passed) {
+
+		/**
+		 *
+		 * @return the wrapper time plus the filter time
+		 */
+		public long totalNanos() {
+			return wrapperNanos + filterNanos;
+		}
+
+	}
+
+}
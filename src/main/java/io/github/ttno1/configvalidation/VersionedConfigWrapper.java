@@ -0,0 +1,27 @@
+package io.github.ttno1.configvalidation;
+
+/**
+ * A {@linkplain ConfigWrapper} that can tell whether its data changed, so results derived from it can be cached and reused 
+ * until then.<br>
+ * Versions are modification stamps: the version of a path changes whenever the value at that path or any value nested 
+ * within it changes, and stays the same as long as neither does. A version that is equal to one read earlier for the same 
+ * path of the same wrapper means the data at that path is unchanged. Versions of different paths or wrappers are not comparable.<br>
+ * A version may also change when nothing that it covers changed (e.g. when a sibling of the path changed), but it never 
+ * stays the same after a change.
+ */
+public interface VersionedConfigWrapper extends ConfigWrapper {
+	
+	/**
+	 * 
+	 * @return the version of all of the data of this wrapper
+	 */
+	long getVersion();
+	
+	/**
+	 * 
+	 * @param path the path relative to this wrapper
+	 * @return the version of the value at {@code path} and of everything nested within it, including whether it exists
+	 */
+	long getVersion(String path);
+	
+}
@@ -0,0 +1,34 @@
+package io.github.ttno1.configvalidation.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * References the {@linkplain io.github.ttno1.configvalidation.ConfigFilter} of a {@linkplain ConfigRecord} component.<br>
+ * The referenced filter must be a static, non-private field declared with the type {@code ConfigFilter<T, U>}, where {@code T} is a 
+ * type supported by {@linkplain io.github.ttno1.configvalidation.Cfg.Node} or {@linkplain io.github.ttno1.configvalidation.ConfigWrapper} 
+ * and determines the type of the node.<br>
+ * For a component of type {@code U}, the filter is applied to the node. For a component of type {@code List<U>}, the filter is 
+ * applied to each element of the list (i.e. it is the element filter).
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.RECORD_COMPONENT)
+public @interface ConfigFilterRef {
+
+	/**
+	 * 
+	 * @return the class that declares the filter field, or {@code void.class} (the default) for the annotated record itself
+	 */
+	Class<?> type() default void.class;
+	
+	/**
+	 * 
+	 * @return the name of the filter field
+	 */
+	String value();
+	
+}
@@ -0,0 +1,24 @@
+package io.github.ttno1.configvalidation.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Specifies the path of a {@linkplain ConfigRecord} component relative to the root of the record's config section.<br>
+ * Components without this annotation use the component name as their path.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.RECORD_COMPONENT)
+public @interface ConfigPath {
+
+	/**
+	 * 
+	 * @return the path of the node in the config
+	 */
+	String value();
+	
+}
@@ -0,0 +1,28 @@
+package io.github.ttno1.configvalidation.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a record as a configuration binding.<br>
+ * At compile time, the {@linkplain io.github.ttno1.configvalidation.processor.ConfigRecordProcessor} generates a class named 
+ * {@code <RecordName>Binder} in the same package as the record (the names of enclosing types are prepended to the name of a nested 
+ * record, separated by underscores). The generated class validates a 
+ * {@linkplain io.github.ttno1.configvalidation.ConfigWrapper} and binds it to a new instance of the record with straight-line code, 
+ * without building a {@linkplain io.github.ttno1.configvalidation.ConfigSpec} at runtime. It also provides a {@code spec()} method 
+ * that constructs the equivalent {@code ConfigSpec} for when one is needed.<br>
+ * Every record component is a required node. Its path is specified by {@linkplain ConfigPath} (or is the component name by default), 
+ * and it may be given a filter with {@linkplain ConfigFilterRef}.<br>
+ * Supported component types are the types supported by {@linkplain io.github.ttno1.configvalidation.Cfg.Node} (and their primitives), 
+ * {@linkplain io.github.ttno1.configvalidation.ConfigWrapper}, other records annotated with {@code ConfigRecord}, and 
+ * {@linkplain java.util.List}s of any of those. Components of any other type must have a filter that outputs their type.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface ConfigRecord {
+
+}
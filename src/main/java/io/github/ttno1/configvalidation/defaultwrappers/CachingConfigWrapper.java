@@ -0,0 +1,322 @@
+package io.github.ttno1.configvalidation.defaultwrappers;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import io.github.ttno1.configvalidation.BaseType;
+import io.github.ttno1.configvalidation.ConfigWrapper;
+import io.github.ttno1.configvalidation.VersionedConfigWrapper;
+
+/**
+ * A {@linkplain ConfigWrapper} that decorates another wrapper and remembers the result of every call per path, so each 
+ * {@code containsNode}, type check and get is made at most once against a slow backend.<br>
+ * Config subsections are wrapped in caching wrappers that are cached as well. Results are kept until they are invalidated, 
+ * so a wrapper can either be created for a single validation or kept and invalidated when the backend changes. A wrapper 
+ * that decorates a {@linkplain VersionedConfigWrapper} invalidates itself whenever the version of the decorated wrapper changes.<br>
+ * Instances are safe to use from multiple threads.
+ */
+public class CachingConfigWrapper implements ConfigWrapper {
+	
+	private static final Object NULL = new Object();
+	
+	private static final int BASE_TYPES = BaseType.values().length;
+	
+	private final ConfigWrapper configWrapper;
+	
+	private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	
+	private final VersionedConfigWrapper versioned;
+	
+	private volatile long version;
+	
+	/**
+	 * 
+	 * @param configWrapper the wrapper whose results are cached
+	 * @throws NullPointerException if {@code configWrapper} is null
+	 */
+	public CachingConfigWrapper(ConfigWrapper configWrapper) {
+		if(configWrapper == null) {
+			throw new NullPointerException("Config wrapper cannot be null");
+		}
+		this.configWrapper = configWrapper;
+		this.versioned = configWrapper instanceof VersionedConfigWrapper v ? v : null;
+		this.version = versioned == null ? 0 : versioned.getVersion();
+	}
+	
+	/**
+	 * Discards all cached results, including those of cached subsections.
+	 */
+	public void invalidate() {
+		for(Entry entry : entries.values()) {
+			entry.invalidateSubsection();
+		}
+		entries.clear();
+	}
+	
+	/**
+	 * Discards the cached results of the specified path and of all paths within it, including those of cached subsections 
+	 * that contain the path.
+	 * @param path the path to invalidate
+	 * @throws NullPointerException if {@code path} is null
+	 */
+	public void invalidate(String path) {
+		if(path == null) {
+			throw new NullPointerException("Path cannot be null");
+		}
+		if(path.isEmpty()) {
+			invalidate();
+			return;
+		}
+		Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+		while(iterator.hasNext()) {
+			Map.Entry<String, Entry> entry = iterator.next();
+			String key = entry.getKey();
+			if(key.equals(path) || key.startsWith(path + ".")) {
+				entry.getValue().invalidateSubsection();
+				iterator.remove();
+			} else if(key.isEmpty()) {
+				entry.getValue().invalidateSubsection(path);
+			} else if(path.startsWith(key + ".")) {
+				entry.getValue().invalidateSubsection(path.substring(key.length() + 1));
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * @return the source of the decorated wrapper
+	 */
+	@Override
+	public Object getSource() {
+		return configWrapper.getSource();
+	}
+	
+	private Entry entry(String path) {
+		if(versioned != null) {
+			checkVersion();
+		}
+		Entry entry = entries.get(path);
+		if(entry == null) {
+			entry = entries.computeIfAbsent(path, key -> new Entry());
+		}
+		return entry;
+	}
+	
+	/**
+	 * Discards all cached results if the decorated wrapper changed since they were cached.
+	 */
+	private void checkVersion() {
+		long current = versioned.getVersion();
+		if(current != version) {
+			synchronized(this) {
+				if(current != version) {
+					invalidate();
+					version = current;
+				}
+			}
+		}
+	}
+	
+	private boolean probe(String path, BaseType baseType, Predicate<String> probe) {
+		Entry entry = entry(path);
+		synchronized(entry) {
+			Boolean result = entry.probes[baseType.ordinal()];
+			if(result == null) {
+				result = probe.test(path);
+				entry.probes[baseType.ordinal()] = result;
+			}
+			return result;
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <T> T get(String path, BaseType baseType, Function<String, T> getter) {
+		Entry entry = entry(path);
+		synchronized(entry) {
+			Object result = entry.values[baseType.ordinal()];
+			if(result == null) {
+				result = getter.apply(path);
+				entry.values[baseType.ordinal()] = result == null ? NULL : result;
+			}
+			return result == NULL ? null : (T) result;
+		}
+	}
+	
+	@Override
+	public boolean containsNode(String path) {
+		Entry entry = entry(path);
+		synchronized(entry) {
+			if(entry.contains == null) {
+				entry.contains = configWrapper.containsNode(path);
+			}
+			return entry.contains;
+		}
+	}
+	
+	@Override
+	public Boolean getBoolean(String path) {
+		return get(path, BaseType.BOOLEAN, configWrapper::getBoolean);
+	}
+	
+	@Override
+	public Byte getByte(String path) {
+		return get(path, BaseType.BYTE, configWrapper::getByte);
+	}
+	
+	@Override
+	public ConfigWrapper getConfigSubsection(String path) {
+		return get(path, BaseType.CONFIG_SECTION, key -> {
+			ConfigWrapper subsection = configWrapper.getConfigSubsection(key);
+			return subsection == null ? null : new CachingConfigWrapper(subsection);
+		});
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> List<T> getList(String path, BaseType baseType, Class<T> type) {
+		Entry entry = entry(path);
+		synchronized(entry) {
+			if(entry.lists == null) {
+				entry.lists = new Object[BASE_TYPES];
+			}
+			Object result = entry.lists[baseType.ordinal()];
+			if(result == null) {
+				List<T> list = configWrapper.getList(path, baseType, type);
+				if(list != null && baseType.equals(BaseType.CONFIG_SECTION)) {
+					list = (List<T>) list.stream().map(element -> {
+						return element == null ? null : new CachingConfigWrapper((ConfigWrapper) element);
+					}).toList();
+				}
+				result = list;
+				entry.lists[baseType.ordinal()] = result == null ? NULL : result;
+			}
+			return result == NULL ? null : (List<T>) result;
+		}
+	}
+	
+	@Override
+	public Double getDouble(String path) {
+		return get(path, BaseType.DOUBLE, configWrapper::getDouble);
+	}
+	
+	@Override
+	public Float getFloat(String path) {
+		return get(path, BaseType.FLOAT, configWrapper::getFloat);
+	}
+	
+	@Override
+	public Integer getInteger(String path) {
+		return get(path, BaseType.INTEGER, configWrapper::getInteger);
+	}
+	
+	@Override
+	public Long getLong(String path) {
+		return get(path, BaseType.LONG, configWrapper::getLong);
+	}
+	
+	@Override
+	public Short getShort(String path) {
+		return get(path, BaseType.SHORT, configWrapper::getShort);
+	}
+	
+	@Override
+	public String getString(String path) {
+		return get(path, BaseType.STRING, configWrapper::getString);
+	}
+	
+	@Override
+	public boolean isBoolean(String path) {
+		return probe(path, BaseType.BOOLEAN, configWrapper::isBoolean);
+	}
+	
+	@Override
+	public boolean isByte(String path) {
+		return probe(path, BaseType.BYTE, configWrapper::isByte);
+	}
+	
+	@Override
+	public boolean isConfigSubsection(String path) {
+		return probe(path, BaseType.CONFIG_SECTION, configWrapper::isConfigSubsection);
+	}
+	
+	@Override
+	public boolean isDouble(String path) {
+		return probe(path, BaseType.DOUBLE, configWrapper::isDouble);
+	}
+	
+	@Override
+	public boolean isFloat(String path) {
+		return probe(path, BaseType.FLOAT, configWrapper::isFloat);
+	}
+	
+	@Override
+	public boolean isInteger(String path) {
+		return probe(path, BaseType.INTEGER, configWrapper::isInteger);
+	}
+	
+	@Override
+	public <T> boolean isList(String path, BaseType baseType, Class<T> type) {
+		Entry entry = entry(path);
+		synchronized(entry) {
+			if(entry.listProbes == null) {
+				entry.listProbes = new Boolean[BASE_TYPES];
+			}
+			Boolean result = entry.listProbes[baseType.ordinal()];
+			if(result == null) {
+				result = configWrapper.isList(path, baseType, type);
+				entry.listProbes[baseType.ordinal()] = result;
+			}
+			return result;
+		}
+	}
+	
+	@Override
+	public boolean isLong(String path) {
+		return probe(path, BaseType.LONG, configWrapper::isLong);
+	}
+	
+	@Override
+	public boolean isShort(String path) {
+		return probe(path, BaseType.SHORT, configWrapper::isShort);
+	}
+	
+	@Override
+	public boolean isString(String path) {
+		return probe(path, BaseType.STRING, configWrapper::isString);
+	}
+	
+	/**
+	 * The cached results of a single path.<br>
+	 * Probes and values are indexed by the ordinal of their base type and lists by the ordinal of their element type.
+	 */
+	private static final class Entry {
+		
+		private Boolean contains;
+		
+		private final Boolean[] probes = new Boolean[BASE_TYPES];
+		
+		private final Object[] values = new Object[BASE_TYPES];
+		
+		private Boolean[] listProbes;
+		
+		private Object[] lists;
+		
+		private synchronized void invalidateSubsection() {
+			if(values[BaseType.CONFIG_SECTION.ordinal()] instanceof CachingConfigWrapper subsection) {
+				subsection.invalidate();
+			}
+		}
+		
+		private synchronized void invalidateSubsection(String path) {
+			if(values[BaseType.CONFIG_SECTION.ordinal()] instanceof CachingConfigWrapper subsection) {
+				subsection.invalidate(path);
+			}
+		}
+		
+	}
+	
+}
@@ -2,6 +2,7 @@ package io.github.ttno1.configvalidation.defaultwrappers;
 
 import java.util.List;
 
+import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
 import org.apache.commons.configuration2.ex.ConversionException;
@@ -10,207 +11,373 @@ import io.github.ttno1.configvalidation.BaseType;
 import io.github.ttno1.configvalidation.ConfigWrapper;
 
 /**
- * A {@linkplain ConfigWrapper} that wraps an Apache Commons Config {@linkplain Configuration}.
+ * A {@linkplain ConfigWrapper} that wraps an Apache Commons Config {@linkplain Configuration}.<br>
+ * If the configuration is a {@linkplain BaseHierarchicalConfiguration} (e.g. XML, YAML or JSON) that uses the default
+ * expression engine, the values are read directly from its node tree by an {@linkplain ImmutableNodeConfigWrapper} instead of
+ * resolving each key through the expression engine, and subsections and config section lists point at their nodes in the tree.
+ * Otherwise each value is read from the configuration by its key.
  */
 public class CommonsConfigWrapper implements ConfigWrapper {
 
-	private final Configuration config;
+	/**
+	 * The wrapped configuration or null if this is a section of a node tree whose configuration has not been created yet.
+	 */
+	private volatile Configuration config;
+	
+	/**
+	 * The wrapper that reads the values, either from the node tree of the configuration or by key.
+	 */
+	private final ConfigWrapper delegate;
 	
 	public CommonsConfigWrapper(Configuration config) {
+		this(config, true);
+	}
+	
+	/**
+	 * 
+	 * @param config the configuration to wrap
+	 * @param nodeAccess whether the values may be read from the node tree of the configuration if it supports it
+	 */
+	CommonsConfigWrapper(Configuration config, boolean nodeAccess) {
 		this.config = config;
+		this.delegate = nodeAccess && ImmutableNodeConfigWrapper.supports(config) ? new ImmutableNodeConfigWrapper((BaseHierarchicalConfiguration) config, null) : new KeyConfigWrapper(config);
+	}
+	
+	/**
+	 * 
+	 * @param nodes the wrapper of a section of a node tree, whose configuration is created when it is first requested
+	 */
+	CommonsConfigWrapper(ImmutableNodeConfigWrapper nodes) {
+		this.delegate = nodes;
+	}
+	
+	/**
+	 * 
+	 * @return the configuration that this wrapper gets its values from
+	 */
+	Configuration getConfiguration() {
+		Configuration current = config;
+		if(current == null && delegate instanceof ImmutableNodeConfigWrapper nodes) {
+			current = nodes.toConfiguration();
+			config = current;
+		}
+		return current;
+	}
+	
+	@Override
+	public Object getSource() {
+		return delegate.getSource();
 	}
 	
 	@Override
 	public boolean containsNode(String path) {
-		return config.containsKey(path) || !config.subset(path).isEmpty();
+		return delegate.containsNode(path);
 	}
-
+	
 	@Override
 	public Boolean getBoolean(String path) {
-		try {
-			return config.getBoolean(path);
-		} catch (ConversionException e) {
-			return null;
-		}
+		return delegate.getBoolean(path);
 	}
-
+	
 	@Override
 	public Byte getByte(String path) {
-		try {
-			return config.getByte(path);
-		} catch (ConversionException e) {
-			return null;
-		}
+		return delegate.getByte(path);
 	}
-
+	
 	@Override
 	public ConfigWrapper getConfigSubsection(String path) {
-		return new CommonsConfigWrapper(config.subset(path));
+		return delegate.getConfigSubsection(path);
 	}
-
-	@SuppressWarnings("unchecked")
+	
 	@Override
 	public <T> List<T> getList(String path, BaseType baseType, Class<T> type) {
-		try {
-			if(baseType.equals(BaseType.CONFIG_SECTION) && config instanceof HierarchicalConfiguration hConfig) {
-				return (List<T>) ((List<HierarchicalConfiguration<?>>) hConfig.configurationsAt(path)).stream().map(hCon -> {return new CommonsConfigWrapper(hCon);}).toList();
-			}
-			return config.getList(type, path);
-		} catch (ConversionException e) {
-			return null;
-		}
+		return delegate.getList(path, baseType, type);
 	}
-
+	
 	@Override
 	public Double getDouble(String path) {
-		try {
-			return config.getDouble(path);
-		} catch (ConversionException e) {
-			return null;
-		}
+		return delegate.getDouble(path);
 	}
-
+	
 	@Override
 	public Float getFloat(String path) {
-		try {
-			return config.getFloat(path);
-		} catch (ConversionException e) {
-			return null;
-		}
+		return delegate.getFloat(path);
 	}
-
+	
 	@Override
 	public Integer getInteger(String path) {
-		try {
-			return config.getInt(path);
-		} catch (ConversionException e) {
-			return null;
-		}
+		return delegate.getInteger(path);
 	}
-
+	
 	@Override
 	public Long getLong(String path) {
-		try {
-			return config.getLong(path);
-		} catch (ConversionException e) {
-			return null;
-		}
+		return delegate.getLong(path);
 	}
-
+	
 	@Override
 	public Short getShort(String path) {
-		try {
-			return config.getShort(path);
-		} catch (ConversionException e) {
-			return null;
-		}
+		return delegate.getShort(path);
 	}
-
+	
 	@Override
 	public String getString(String path) {
-		try {
-			return config.getString(path);
-		} catch (ConversionException e) {
-			return null;
-		}
+		return delegate.getString(path);
 	}
-
+	
 	@Override
 	public boolean isBoolean(String path) {
-		try {
-			config.getBoolean(path);
-			return true;
-		} catch (ConversionException e) {
-			return false;
-		}
+		return delegate.isBoolean(path);
 	}
-
+	
 	@Override
 	public boolean isByte(String path) {
-		try {
-			config.getByte(path);
-			return true;
-		} catch (ConversionException e) {
-			return false;
-		}
+		return delegate.isByte(path);
 	}
-
+	
 	@Override
 	public boolean isConfigSubsection(String path) {
-		if(path.isEmpty()) {
-			return true;
-		}
-		return !config.subset(path).isEmpty();
+		return delegate.isConfigSubsection(path);
 	}
-
+	
 	@Override
 	public boolean isDouble(String path) {
-		try {
-			config.getDouble(path);
-			return true;
-		} catch (ConversionException e) {
-			return false;
-		}
+		return delegate.isDouble(path);
 	}
-
+	
 	@Override
 	public boolean isFloat(String path) {
-		try {
-			config.getFloat(path);
-			return true;
-		} catch (ConversionException e) {
-			return false;
-		}
+		return delegate.isFloat(path);
 	}
-
+	
 	@Override
 	public boolean isInteger(String path) {
-		try {
-			config.getInt(path);
-			return true;
-		} catch (ConversionException e) {
-			return false;
-		}
+		return delegate.isInteger(path);
 	}
-
+	
 	@Override
 	public <T> boolean isList(String path, BaseType baseType, Class<T> type) {
-		try {
-			config.getList(type, path);
-			return true;
-		} catch (ConversionException e) {
-			return false;
-		}
+		return delegate.isList(path, baseType, type);
 	}
-
+	
 	@Override
 	public boolean isLong(String path) {
-		try {
-			config.getLong(path);
-			return true;
-		} catch (ConversionException e) {
-			return false;
-		}
+		return delegate.isLong(path);
 	}
-
+	
 	@Override
 	public boolean isShort(String path) {
-		try {
-			config.getShort(path);
-			return true;
-		} catch (ConversionException e) {
-			return false;
-		}
+		return delegate.isShort(path);
 	}
-
+	
 	@Override
 	public boolean isString(String path) {
-		try {
-			config.getString(path);
-			return true;
-		} catch (ConversionException e) {
-			return false;
+		return delegate.isString(path);
+	}
+	
+	/**
+	 * Reads the values of a configuration by key.
+	 */
+	private static final class KeyConfigWrapper implements ConfigWrapper {
+		
+		private final Configuration config;
+		
+		private KeyConfigWrapper(Configuration config) {
+			this.config = config;
+		}
+		
+		@Override
+		public boolean containsNode(String path) {
+			return config.containsKey(path) || !config.subset(path).isEmpty();
+		}
+		
+		@Override
+		public Boolean getBoolean(String path) {
+			try {
+				return config.getBoolean(path);
+			} catch (ConversionException e) {
+				return null;
+			}
+		}
+		
+		@Override
+		public Byte getByte(String path) {
+			try {
+				return config.getByte(path);
+			} catch (ConversionException e) {
+				return null;
+			}
+		}
+		
+		@Override
+		public ConfigWrapper getConfigSubsection(String path) {
+			return new CommonsConfigWrapper(config.subset(path));
+		}
+		
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> List<T> getList(String path, BaseType baseType, Class<T> type) {
+			try {
+				if(baseType.equals(BaseType.CONFIG_SECTION) && config instanceof HierarchicalConfiguration hConfig) {
+					return (List<T>) ((List<HierarchicalConfiguration<?>>) hConfig.configurationsAt(path)).stream().map(hCon -> {return new CommonsConfigWrapper(hCon);}).toList();
+				}
+				return config.getList(type, path);
+			} catch (ConversionException e) {
+				return null;
+			}
+		}
+		
+		@Override
+		public Double getDouble(String path) {
+			try {
+				return config.getDouble(path);
+			} catch (ConversionException e) {
+				return null;
+			}
+		}
+		
+		@Override
+		public Float getFloat(String path) {
+			try {
+				return config.getFloat(path);
+			} catch (ConversionException e) {
+				return null;
+			}
+		}
+		
+		@Override
+		public Integer getInteger(String path) {
+			try {
+				return config.getInt(path);
+			} catch (ConversionException e) {
+				return null;
+			}
 		}
+		
+		@Override
+		public Long getLong(String path) {
+			try {
+				return config.getLong(path);
+			} catch (ConversionException e) {
+				return null;
+			}
+		}
+		
+		@Override
+		public Short getShort(String path) {
+			try {
+				return config.getShort(path);
+			} catch (ConversionException e) {
+				return null;
+			}
+		}
+		
+		@Override
+		public String getString(String path) {
+			try {
+				return config.getString(path);
+			} catch (ConversionException e) {
+				return null;
+			}
+		}
+		
+		@Override
+		public boolean isBoolean(String path) {
+			try {
+				config.getBoolean(path);
+				return true;
+			} catch (ConversionException e) {
+				return false;
+			}
+		}
+		
+		@Override
+		public boolean isByte(String path) {
+			try {
+				config.getByte(path);
+				return true;
+			} catch (ConversionException e) {
+				return false;
+			}
+		}
+		
+		@Override
+		public boolean isConfigSubsection(String path) {
+			if(path.isEmpty()) {
+				return true;
+			}
+			return !config.subset(path).isEmpty();
+		}
+		
+		@Override
+		public boolean isDouble(String path) {
+			try {
+				config.getDouble(path);
+				return true;
+			} catch (ConversionException e) {
+				return false;
+			}
+		}
+		
+		@Override
+		public boolean isFloat(String path) {
+			try {
+				config.getFloat(path);
+				return true;
+			} catch (ConversionException e) {
+				return false;
+			}
+		}
+		
+		@Override
+		public boolean isInteger(String path) {
+			try {
+				config.getInt(path);
+				return true;
+			} catch (ConversionException e) {
+				return false;
+			}
+		}
+		
+		@Override
+		public <T> boolean isList(String path, BaseType baseType, Class<T> type) {
+			try {
+				config.getList(type, path);
+				return true;
+			} catch (ConversionException e) {
+				return false;
+			}
+		}
+		
+		@Override
+		public boolean isLong(String path) {
+			try {
+				config.getLong(path);
+				return true;
+			} catch (ConversionException e) {
+				return false;
+			}
+		}
+		
+		@Override
+		public boolean isShort(String path) {
+			try {
+				config.getShort(path);
+				return true;
+			} catch (ConversionException e) {
+				return false;
+			}
+		}
+		
+		@Override
+		public boolean isString(String path) {
+			try {
+				config.getString(path);
+				return true;
+			} catch (ConversionException e) {
+				return false;
+			}
+		}
+		
 	}
-
+	
 }
@@ -0,0 +1,299 @@
+package io.github.ttno1.configvalidation.defaultwrappers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Function;
+
+import io.github.ttno1.configvalidation.BaseType;
+import io.github.ttno1.configvalidation.ConfigWrapper;
+
+/**
+ * A {@linkplain ConfigWrapper} over a snapshot of flat string variables such as environment variables or system properties.<br>
+ * Names are normalized by converting them to lower case and replacing underscores with {@code "."}, so {@code APP_SERVER_PORT} 
+ * and {@code app.server.port} both become the path {@code app.server.port}. Paths that are looked up are normalized the same 
+ * way, so the camel case path {@code pool.maxSize} finds both {@code app.pool.maxSize} and {@code APP_POOL_MAXSIZE}. Every 
+ * prefix of a path is indexed as a config subsection, so each call is a single lookup.<br>
+ * Values are strings that are converted to the requested type when they are checked or retrieved (e.g. {@code "8080"} is 
+ * an integer and {@code "true"} is a boolean). Lists are comma separated values. Lists of config subsections are not supported.
+ */
+public class EnvironmentConfigWrapper implements ConfigWrapper {
+	
+	private final Map<String, String> values;
+	
+	private final Set<String> sections;
+	
+	private final String prefix;
+	
+	/**
+	 * Creates a snapshot of the provided variables.
+	 * @param variables the variables by name
+	 * @param prefix the normalized prefix that variable names must start with, which is removed from their paths, or an empty string to keep all variables
+	 * @throws NullPointerException if {@code variables} or {@code prefix} are null or {@code variables} contains null keys or values
+	 */
+	public EnvironmentConfigWrapper(Map<String, String> variables, String prefix) {
+		if(variables == null) {
+			throw new NullPointerException("Variables cannot be null");
+		}
+		if(prefix == null) {
+			throw new NullPointerException("Prefix cannot be null");
+		}
+		String normalizedPrefix = prefix.isEmpty() ? "" : normalize(prefix) + ".";
+		Map<String, String> values = new HashMap<String, String>();
+		Set<String> sections = new HashSet<String>();
+		for(Map.Entry<String, String> entry : variables.entrySet()) {
+			if(entry.getKey() == null || entry.getValue() == null) {
+				throw new NullPointerException("Variables cannot contain null keys or values");
+			}
+			String path = normalize(entry.getKey());
+			if(!path.startsWith(normalizedPrefix) || path.length() == normalizedPrefix.length()) {
+				continue;
+			}
+			path = path.substring(normalizedPrefix.length());
+			values.put(path, entry.getValue());
+			for(int separator = path.indexOf('.'); separator >= 0; separator = path.indexOf('.', separator + 1)) {
+				sections.add(path.substring(0, separator));
+			}
+		}
+		this.values = values;
+		this.sections = sections;
+		this.prefix = "";
+	}
+	
+	private EnvironmentConfigWrapper(Map<String, String> values, Set<String> sections, String prefix) {
+		this.values = values;
+		this.sections = sections;
+		this.prefix = prefix;
+	}
+	
+	/**
+	 * Creates a snapshot of the environment variables of this process.
+	 * @param prefix the normalized prefix that variable names must start with (e.g. {@code "app"} for {@code APP_SERVER_PORT}), 
+	 * or an empty string to keep all variables
+	 * @return a new wrapper over the environment variables
+	 */
+	public static EnvironmentConfigWrapper ofEnvironment(String prefix) {
+		return new EnvironmentConfigWrapper(System.getenv(), prefix);
+	}
+	
+	/**
+	 * Creates a snapshot of the system properties.
+	 * @param prefix the normalized prefix that property names must start with or an empty string to keep all properties
+	 * @return a new wrapper over the system properties
+	 */
+	public static EnvironmentConfigWrapper ofSystemProperties(String prefix) {
+		Properties properties = System.getProperties();
+		Map<String, String> variables = new HashMap<String, String>();
+		for(String name : properties.stringPropertyNames()) {
+			variables.put(name, properties.getProperty(name));
+		}
+		return new EnvironmentConfigWrapper(variables, prefix);
+	}
+	
+	/**
+	 * 
+	 * @param name a variable name
+	 * @return the path of the variable
+	 */
+	public static String normalize(String name) {
+		return name.toLowerCase(Locale.ROOT).replace('_', '.');
+	}
+	
+	/**
+	 * 
+	 * @return the normalized absolute path of the path relative to this wrapper
+	 */
+	private String resolve(String path) {
+		if(prefix.isEmpty()) {
+			return normalize(path);
+		}
+		if(path.isEmpty()) {
+			return prefix;
+		}
+		return prefix + "." + normalize(path);
+	}
+	
+	private String value(String path) {
+		return values.get(resolve(path));
+	}
+	
+	@Override
+	public boolean containsNode(String path) {
+		String absolutePath = resolve(path);
+		return path.isEmpty() || values.containsKey(absolutePath) || sections.contains(absolutePath);
+	}
+	
+	@Override
+	public Boolean getBoolean(String path) {
+		return parse(value(path), EnvironmentConfigWrapper::parseBoolean);
+	}
+	
+	@Override
+	public Byte getByte(String path) {
+		return parse(value(path), Byte::valueOf);
+	}
+	
+	@Override
+	public ConfigWrapper getConfigSubsection(String path) {
+		if(path.isEmpty()) {
+			return this;
+		}
+		String absolutePath = resolve(path);
+		return sections.contains(absolutePath) ? new EnvironmentConfigWrapper(values, sections, absolutePath) : null;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> List<T> getList(String path, BaseType baseType, Class<T> type) {
+		String value = value(path);
+		Function<String, ?> parser = parser(baseType);
+		if(value == null || parser == null) {
+			return null;
+		}
+		if(value.isBlank()) {
+			return Collections.emptyList();
+		}
+		String[] elements = value.split(",");
+		List<T> list = new ArrayList<T>(elements.length);
+		for(String element : elements) {
+			Object parsed = parse(element.trim(), parser);
+			if(parsed == null) {
+				return null;
+			}
+			list.add((T) parsed);
+		}
+		return Collections.unmodifiableList(list);
+	}
+	
+	@Override
+	public Double getDouble(String path) {
+		return parse(value(path), Double::valueOf);
+	}
+	
+	@Override
+	public Float getFloat(String path) {
+		return parse(value(path), Float::valueOf);
+	}
+	
+	@Override
+	public Integer getInteger(String path) {
+		return parse(value(path), Integer::valueOf);
+	}
+	
+	@Override
+	public Long getLong(String path) {
+		return parse(value(path), Long::valueOf);
+	}
+	
+	@Override
+	public Short getShort(String path) {
+		return parse(value(path), Short::valueOf);
+	}
+	
+	@Override
+	public String getString(String path) {
+		return value(path);
+	}
+	
+	@Override
+	public boolean isBoolean(String path) {
+		return getBoolean(path) != null;
+	}
+	
+	@Override
+	public boolean isByte(String path) {
+		return getByte(path) != null;
+	}
+	
+	@Override
+	public boolean isConfigSubsection(String path) {
+		return path.isEmpty() || sections.contains(resolve(path));
+	}
+	
+	@Override
+	public boolean isDouble(String path) {
+		return getDouble(path) != null;
+	}
+	
+	@Override
+	public boolean isFloat(String path) {
+		return getFloat(path) != null;
+	}
+	
+	@Override
+	public boolean isInteger(String path) {
+		return getInteger(path) != null;
+	}
+	
+	@Override
+	public <T> boolean isList(String path, BaseType baseType, Class<T> type) {
+		return getList(path, baseType, type) != null;
+	}
+	
+	@Override
+	public boolean isLong(String path) {
+		return getLong(path) != null;
+	}
+	
+	@Override
+	public boolean isShort(String path) {
+		return getShort(path) != null;
+	}
+	
+	@Override
+	public boolean isString(String path) {
+		return value(path) != null;
+	}
+	
+	private static <T> T parse(String value, Function<String, T> parser) {
+		if(value == null) {
+			return null;
+		}
+		try {
+			return parser.apply(value.trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+	
+	private static Boolean parseBoolean(String value) {
+		if(value.equalsIgnoreCase("true")) {
+			return true;
+		}
+		if(value.equalsIgnoreCase("false")) {
+			return false;
+		}
+		return null;
+	}
+	
+	private static Function<String, ?> parser(BaseType baseType) {
+		return switch (baseType) {
+		case BOOLEAN:
+			yield EnvironmentConfigWrapper::parseBoolean;
+		case BYTE:
+			yield Byte::valueOf;
+		case DOUBLE:
+			yield Double::valueOf;
+		case FLOAT:
+			yield Float::valueOf;
+		case INTEGER:
+			yield Integer::valueOf;
+		case LONG:
+			yield Long::valueOf;
+		case SHORT:
+			yield Short::valueOf;
+		case STRING:
+			yield Function.identity();
+		case LIST:
+		case CONFIG_SECTION:
+			yield null;
+		};
+	}
+	
+}
@@ -0,0 +1,460 @@
+package io.github.ttno1.configvalidation.defaultwrappers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.ex.ConversionException;
+import org.apache.commons.configuration2.tree.DefaultExpressionEngine;
+import org.apache.commons.configuration2.tree.ImmutableNode;
+
+import io.github.ttno1.configvalidation.BaseType;
+import io.github.ttno1.configvalidation.ConfigWrapper;
+
+/**
+ * A {@linkplain ConfigWrapper} that reads a section of a hierarchical Apache Commons Config configuration (e.g. XML, YAML or
+ * JSON) directly from its {@linkplain ImmutableNode} tree, used by {@linkplain CommonsConfigWrapper} for
+ * {@linkplain BaseHierarchicalConfiguration}s that use the default expression engine.<br>
+ * Keys are resolved by walking the children of the section by name instead of through the expression engine. The children
+ * of the section are indexed by name the first time they are looked up, so validating a section against a spec takes time
+ * linear in the number of its children. Keys support the syntax of the default expression engine: {@code "."} separates
+ * nodes, {@code ".."} is an escaped dot, {@code "(index)"} selects a child among those with the same name and a trailing
+ * {@code "[@name]"} selects an attribute. Values are converted with the conversion handler and interpolator of the
+ * configuration, as the getters of the configuration do.<br>
+ * Subsections and config section lists are {@linkplain CommonsConfigWrapper}s backed by wrappers of their nodes. A subsection
+ * points at its node in the tree at the time it was created, so it does not see later changes to the configuration. The root
+ * section reads the current root node of the configuration on every call.
+ */
+final class ImmutableNodeConfigWrapper implements ConfigWrapper {
+	
+	private final BaseHierarchicalConfiguration config;
+	
+	/**
+	 * The node of this section or null if this is the root section of the configuration.
+	 */
+	private final ImmutableNode node;
+	
+	private volatile ChildIndex index;
+	
+	/**
+	 * 
+	 * @param config the configuration that the values are converted with
+	 * @param node the node of the section or null for the current root node of {@code config}
+	 */
+	ImmutableNodeConfigWrapper(BaseHierarchicalConfiguration config, ImmutableNode node) {
+		this.config = config;
+		this.node = node;
+	}
+	
+	/**
+	 * 
+	 * @param config the configuration to check
+	 * @return whether the configuration can be read through its node tree
+	 */
+	static boolean supports(Configuration config) {
+		return config instanceof BaseHierarchicalConfiguration hierarchical && hierarchical.getExpressionEngine() == DefaultExpressionEngine.INSTANCE;
+	}
+	
+	/**
+	 * 
+	 * @return the configuration of the root section or a new configuration of the node of a subsection, which converts and 
+	 * interpolates values like the configuration of the root section
+	 */
+	BaseHierarchicalConfiguration toConfiguration() {
+		if(node == null) {
+			return config;
+		}
+		BaseHierarchicalConfiguration section = new BaseHierarchicalConfiguration();
+		section.getNodeModel().setRootNode(node);
+		section.setExpressionEngine(config.getExpressionEngine());
+		section.setListDelimiterHandler(config.getListDelimiterHandler());
+		section.setConversionHandler(config.getConversionHandler());
+		section.setThrowExceptionOnMissing(config.isThrowExceptionOnMissing());
+		section.getInterpolator().setParentInterpolator(config.getInterpolator());
+		return section;
+	}
+	
+	private ImmutableNode base() {
+		return node != null ? node : config.getNodeModel().getNodeHandler().getRootNode();
+	}
+	
+	/**
+	 * 
+	 * @return the children of the base node by name
+	 */
+	private Map<String, List<ImmutableNode>> children(ImmutableNode base) {
+		ChildIndex current = index;
+		if(current == null || current.node != base) {
+			Map<String, List<ImmutableNode>> children = new HashMap<String, List<ImmutableNode>>();
+			for(ImmutableNode child : base.getChildren()) {
+				children.computeIfAbsent(child.getNodeName(), name -> new ArrayList<ImmutableNode>(1)).add(child);
+			}
+			current = new ChildIndex(base, children);
+			index = current;
+		}
+		return current.children;
+	}
+	
+	/**
+	 * 
+	 * @return the nodes at the key, which is empty if there are none
+	 */
+	private List<ImmutableNode> nodes(Key key) {
+		ImmutableNode base = base();
+		if(key.names.length == 0) {
+			return List.of(base);
+		}
+		List<ImmutableNode> current = select(children(base).getOrDefault(key.names[0], List.of()), key.indexes[0]);
+		for(int i = 1; i < key.names.length && !current.isEmpty(); i++) {
+			List<ImmutableNode> next = new ArrayList<ImmutableNode>();
+			for(ImmutableNode parent : current) {
+				List<ImmutableNode> named = new ArrayList<ImmutableNode>();
+				for(ImmutableNode child : parent.getChildren()) {
+					if(child.getNodeName().equals(key.names[i])) {
+						named.add(child);
+					}
+				}
+				next.addAll(select(named, key.indexes[i]));
+			}
+			current = next;
+		}
+		return current;
+	}
+	
+	private static List<ImmutableNode> select(List<ImmutableNode> nodes, int index) {
+		if(index < 0) {
+			return nodes;
+		}
+		return index < nodes.size() ? List.of(nodes.get(index)) : List.of();
+	}
+	
+	/**
+	 * 
+	 * @return the values at the key, which is empty if there are none
+	 */
+	private List<Object> values(Key key) {
+		List<Object> values = new ArrayList<Object>(1);
+		for(ImmutableNode node : nodes(key)) {
+			Object value = key.attribute == null ? node.getValue() : node.getAttributes().get(key.attribute);
+			if(value instanceof Collection<?> collection) {
+				values.addAll(collection);
+			} else if(value != null) {
+				values.add(value);
+			}
+		}
+		return values;
+	}
+	
+	/**
+	 * 
+	 * @return the value at the path converted to the type or null if there is no value
+	 * @throws ConversionException if the value cannot be converted
+	 */
+	private <T> T convert(String path, Class<T> type) {
+		List<Object> values = values(Key.parse(path));
+		if(values.isEmpty()) {
+			return null;
+		}
+		return config.getConversionHandler().to(values.get(0), type, config.getInterpolator());
+	}
+	
+	private <T> T get(String path, Class<T> type) {
+		try {
+			return convert(path, type);
+		} catch (ConversionException e) {
+			return null;
+		}
+	}
+	
+	private boolean is(String path, Class<?> type) {
+		try {
+			return convert(path, type) != null;
+		} catch (ConversionException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * 
+	 * @return the node of this section or null if this is the root section, whose node changes with the configuration
+	 */
+	@Override
+	public Object getSource() {
+		return node;
+	}
+	
+	@Override
+	public boolean containsNode(String path) {
+		if(path.isEmpty()) {
+			return true;
+		}
+		Key key = Key.parse(path);
+		if(key.attribute != null) {
+			return !values(key).isEmpty();
+		}
+		for(ImmutableNode node : nodes(key)) {
+			if(node.getValue() != null || !node.getChildren().isEmpty() || !node.getAttributes().isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	@Override
+	public Boolean getBoolean(String path) {
+		return get(path, Boolean.class);
+	}
+	
+	@Override
+	public Byte getByte(String path) {
+		return get(path, Byte.class);
+	}
+	
+	@Override
+	public ConfigWrapper getConfigSubsection(String path) {
+		if(path.isEmpty()) {
+			return new CommonsConfigWrapper(this);
+		}
+		Key key = Key.parse(path);
+		if(key.attribute != null) {
+			return null;
+		}
+		List<ImmutableNode> nodes = nodes(key);
+		return nodes.isEmpty() ? null : new CommonsConfigWrapper(new ImmutableNodeConfigWrapper(config, nodes.get(0)));
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> List<T> getList(String path, BaseType baseType, Class<T> type) {
+		Key key = Key.parse(path);
+		if(baseType.equals(BaseType.CONFIG_SECTION)) {
+			if(!isSectionList(key)) {
+				return null;
+			}
+			if(key.attribute != null) {
+				return List.of();
+			}
+			return (List<T>) nodes(key).stream().map(section -> {return new CommonsConfigWrapper(new ImmutableNodeConfigWrapper(config, section));}).toList();
+		}
+		List<Object> values = values(key);
+		if(values.isEmpty()) {
+			return null;
+		}
+		try {
+			List<T> list = new ArrayList<T>(values.size());
+			config.getConversionHandler().toCollection(values, type, config.getInterpolator(), list);
+			return list;
+		} catch (ConversionException e) {
+			return null;
+		}
+	}
+	
+	@Override
+	public Double getDouble(String path) {
+		return get(path, Double.class);
+	}
+	
+	@Override
+	public Float getFloat(String path) {
+		return get(path, Float.class);
+	}
+	
+	@Override
+	public Integer getInteger(String path) {
+		return get(path, Integer.class);
+	}
+	
+	@Override
+	public Long getLong(String path) {
+		return get(path, Long.class);
+	}
+	
+	@Override
+	public Short getShort(String path) {
+		return get(path, Short.class);
+	}
+	
+	@Override
+	public String getString(String path) {
+		return get(path, String.class);
+	}
+	
+	@Override
+	public boolean isBoolean(String path) {
+		return is(path, Boolean.class);
+	}
+	
+	@Override
+	public boolean isByte(String path) {
+		return is(path, Byte.class);
+	}
+	
+	@Override
+	public boolean isConfigSubsection(String path) {
+		if(path.isEmpty()) {
+			return true;
+		}
+		Key key = Key.parse(path);
+		if(key.attribute != null) {
+			return false;
+		}
+		for(ImmutableNode node : nodes(key)) {
+			if(!node.getChildren().isEmpty() || !node.getAttributes().isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	@Override
+	public boolean isDouble(String path) {
+		return is(path, Double.class);
+	}
+	
+	@Override
+	public boolean isFloat(String path) {
+		return is(path, Float.class);
+	}
+	
+	@Override
+	public boolean isInteger(String path) {
+		return is(path, Integer.class);
+	}
+	
+	/**
+	 * Checks if the nodes at a key can be read as a list of sections. <br>
+	 * A key without nodes is an empty list, but a leaf node holds a value rather than a section, 
+	 * as when the configuration is read by key. 
+	 */
+	private boolean isSectionList(Key key) {
+		if(key.attribute != null) {
+			return values(key).isEmpty();
+		}
+		for(ImmutableNode node : nodes(key)) {
+			if(node.getChildren().isEmpty() && node.getAttributes().isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@Override
+	public <T> boolean isList(String path, BaseType baseType, Class<T> type) {
+		if(baseType.equals(BaseType.CONFIG_SECTION)) {
+			return isSectionList(Key.parse(path));
+		}
+		List<Object> values = values(Key.parse(path));
+		try {
+			config.getConversionHandler().toCollection(values, type, config.getInterpolator(), new ArrayList<T>(values.size()));
+			return true;
+		} catch (ConversionException e) {
+			return false;
+		}
+	}
+	
+	@Override
+	public boolean isLong(String path) {
+		return is(path, Long.class);
+	}
+	
+	@Override
+	public boolean isShort(String path) {
+		return is(path, Short.class);
+	}
+	
+	@Override
+	public boolean isString(String path) {
+		return is(path, String.class);
+	}
+	
+	/**
+	 * The children of a node by name, built for the node that it holds.
+	 */
+	private record ChildIndex(ImmutableNode node, Map<String, List<ImmutableNode>> children) {}
+	
+	/**
+	 * A key of the default expression engine split into the names of its nodes.
+	 */
+	private static final class Key {
+		
+		private static final int[] NO_INDEX = {-1};
+		
+		private static final Key EMPTY = new Key(new String[0], new int[0], null);
+		
+		private final String[] names;
+		
+		/**
+		 * The index of each name or -1 if all children with the name are selected.
+		 */
+		private final int[] indexes;
+		
+		/**
+		 * The name of the attribute that is selected or null if the nodes themselves are selected.
+		 */
+		private final String attribute;
+		
+		private Key(String[] names, int[] indexes, String attribute) {
+			this.names = names;
+			this.indexes = indexes;
+			this.attribute = attribute;
+		}
+		
+		static Key parse(String key) {
+			if(key.isEmpty()) {
+				return EMPTY;
+			}
+			if(key.indexOf('.') < 0 && key.indexOf('(') < 0 && key.indexOf('[') < 0) {
+				return new Key(new String[] {key}, NO_INDEX, null);
+			}
+			String attribute = null;
+			int end = key.length();
+			int attributeStart = key.lastIndexOf("[@");
+			if(attributeStart >= 0 && key.endsWith("]")) {
+				attribute = key.substring(attributeStart + 2, key.length() - 1);
+				end = attributeStart;
+			}
+			List<String> names = new ArrayList<String>();
+			List<Integer> indexes = new ArrayList<Integer>();
+			StringBuilder name = new StringBuilder();
+			int index = -1;
+			for(int i = 0; i < end; i++) {
+				char c = key.charAt(i);
+				if(c == '.' && i + 1 < end && key.charAt(i + 1) == '.') {
+					name.append('.');
+					i++;
+				} else if(c == '.') {
+					names.add(name.toString());
+					indexes.add(index);
+					name.setLength(0);
+					index = -1;
+				} else if(c == '(' && key.indexOf(')', i) > i + 1 && isIndex(key, i + 1, key.indexOf(')', i))) {
+					int close = key.indexOf(')', i);
+					index = Integer.parseInt(key, i + 1, close, 10);
+					i = close;
+				} else {
+					name.append(c);
+				}
+			}
+			if(name.length() > 0 || names.size() > 0 || attribute == null) {
+				names.add(name.toString());
+				indexes.add(index);
+			}
+			return new Key(names.toArray(new String[names.size()]), indexes.stream().mapToInt(Integer::intValue).toArray(), attribute);
+		}
+		
+		private static boolean isIndex(String key, int start, int end) {
+			for(int i = start; i < end; i++) {
+				if(!Character.isDigit(key.charAt(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,462 @@
+package io.github.ttno1.configvalidation.defaultwrappers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.tree.ImmutableNode;
+
+import io.github.ttno1.configvalidation.BaseType;
+import io.github.ttno1.configvalidation.ConfigValidationResult;
+import io.github.ttno1.configvalidation.ConfigWrapper;
+import io.github.ttno1.configvalidation.ValidationListener;
+import io.github.ttno1.configvalidation.ValidationOptions;
+
+/**
+ * A {@linkplain ConfigWrapper} that combines several named layers (such as defaults, a site file and environment overrides), 
+ * where the value of a path in a later layer overrides the value of the same path in an earlier layer.<br>
+ * The paths of all layers are merged into a single index when the wrapper is created, so each call resolves the layer that 
+ * supplies a path with one lookup and then asks only that layer. Config subsections are merged across layers, while values 
+ * (including lists) are taken from a single layer. Repeated elements of hierarchical configurations (e.g. several 
+ * {@code <server>} elements in XML) are lists, which are taken from a single layer as well.<br>
+ * Layers must be {@linkplain MapConfigWrapper}s whose separator matches {@code "."} (such as {@linkplain SnakeYamlConfigWrapper}s) 
+ * or {@linkplain CommonsConfigWrapper}s. Paths are separated by {@code "."}. Changes made to the layers after the wrapper 
+ * is created are not reflected in the index.<br>
+ * Validation messages do not name the layers. To report which layer supplied each failing value, validate with the listener 
+ * returned by {@linkplain #layerFailureListener(LayerFailureHandler)}.
+ */
+public class LayeredConfigWrapper implements ConfigWrapper {
+	
+	private final Index index;
+	
+	private final String prefix;
+	
+	/**
+	 * 
+	 * @param layers the layers by name, in order of increasing precedence
+	 * @throws NullPointerException if {@code layers} is null or contains null keys or values
+	 * @throws IllegalArgumentException if a layer is not a supported wrapper
+	 */
+	public LayeredConfigWrapper(Map<String, ? extends ConfigWrapper> layers) {
+		if(layers == null) {
+			throw new NullPointerException("Layers cannot be null");
+		}
+		this.index = new Index(layers);
+		this.prefix = "";
+	}
+	
+	private LayeredConfigWrapper(Index index, String prefix) {
+		this.index = index;
+		this.prefix = prefix;
+	}
+	
+	/**
+	 * Returns the name of the layer that supplies the value at the specified path.<br>
+	 * This only looks up the layer. Use {@linkplain #layerFailureListener(LayerFailureHandler)} to have the layers of failing 
+	 * values reported during validation.
+	 * @param path the path relative to this wrapper
+	 * @return the name of the layer that supplies the value or null if no layer contains the path
+	 */
+	public String getLayerName(String path) {
+		Entry entry = index.entries.get(resolve(path));
+		return entry == null ? null : index.names[entry.layer];
+	}
+	
+	/**
+	 * Returns a listener that reports each value of this wrapper that fails validation along with the name of the layer that 
+	 * supplied it.<br>
+	 * Register the listener with {@linkplain ValidationOptions#withListener(ValidationListener)} when validating this wrapper. 
+	 * A failing list is reported once at its own path, since all of its elements come from the same layer. Sections, which may 
+	 * be merged from several layers, and nodes that no layer contains are not reported. The handler is called on the validating 
+	 * thread, which may be one of several if lists are validated in parallel.
+	 * @param handler the handler that receives the failing values
+	 * @return a listener that reports failing values to the handler
+	 * @throws NullPointerException if {@code handler} is null
+	 */
+	public ValidationListener layerFailureListener(LayerFailureHandler handler) {
+		if(handler == null) {
+			throw new NullPointerException("Handler cannot be null");
+		}
+		return new ValidationListener() {
+			@Override
+			public void nodeExited(String path, BaseType baseType, long wrapperNanos, long filterNanos, ConfigValidationResult result) {
+				if(result.passed()) {
+					return;
+				}
+				Entry entry = value(resolve(path));
+				if(entry != null) {
+					handler.valueFailed(path, index.names[entry.layer], result.getFailMessage());
+				}
+			}
+		};
+	}
+	
+	private String resolve(String path) {
+		if(prefix.isEmpty()) {
+			return path;
+		}
+		if(path.isEmpty()) {
+			return prefix;
+		}
+		return prefix + "." + path;
+	}
+	
+	/**
+	 * 
+	 * @return the entry of the path or null if no layer contains a value at the path
+	 */
+	private Entry value(String path) {
+		Entry entry = index.entries.get(path);
+		return entry == null || !entry.value ? null : entry;
+	}
+	
+	@Override
+	public boolean containsNode(String path) {
+		return path.isEmpty() || index.entries.containsKey(resolve(path));
+	}
+	
+	@Override
+	public Boolean getBoolean(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry == null ? null : index.layers[entry.layer].getBoolean(absolutePath);
+	}
+	
+	@Override
+	public Byte getByte(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry == null ? null : index.layers[entry.layer].getByte(absolutePath);
+	}
+	
+	@Override
+	public ConfigWrapper getConfigSubsection(String path) {
+		if(!isConfigSubsection(path)) {
+			return null;
+		}
+		return path.isEmpty() ? this : new LayeredConfigWrapper(index, resolve(path));
+	}
+	
+	@Override
+	public <T> List<T> getList(String path, BaseType baseType, Class<T> type) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry == null ? null : index.layers[entry.layer].getList(absolutePath, baseType, type);
+	}
+	
+	@Override
+	public Double getDouble(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry == null ? null : index.layers[entry.layer].getDouble(absolutePath);
+	}
+	
+	@Override
+	public Float getFloat(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry == null ? null : index.layers[entry.layer].getFloat(absolutePath);
+	}
+	
+	@Override
+	public Integer getInteger(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry == null ? null : index.layers[entry.layer].getInteger(absolutePath);
+	}
+	
+	@Override
+	public Long getLong(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry == null ? null : index.layers[entry.layer].getLong(absolutePath);
+	}
+	
+	@Override
+	public Short getShort(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry == null ? null : index.layers[entry.layer].getShort(absolutePath);
+	}
+	
+	@Override
+	public String getString(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry == null ? null : index.layers[entry.layer].getString(absolutePath);
+	}
+	
+	@Override
+	public boolean isBoolean(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry != null && index.layers[entry.layer].isBoolean(absolutePath);
+	}
+	
+	@Override
+	public boolean isByte(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry != null && index.layers[entry.layer].isByte(absolutePath);
+	}
+	
+	@Override
+	public boolean isConfigSubsection(String path) {
+		if(path.isEmpty()) {
+			return true;
+		}
+		Entry entry = index.entries.get(resolve(path));
+		return entry != null && entry.section;
+	}
+	
+	@Override
+	public boolean isDouble(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry != null && index.layers[entry.layer].isDouble(absolutePath);
+	}
+	
+	@Override
+	public boolean isFloat(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry != null && index.layers[entry.layer].isFloat(absolutePath);
+	}
+	
+	@Override
+	public boolean isInteger(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry != null && index.layers[entry.layer].isInteger(absolutePath);
+	}
+	
+	@Override
+	public <T> boolean isList(String path, BaseType baseType, Class<T> type) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry != null && index.layers[entry.layer].isList(absolutePath, baseType, type);
+	}
+	
+	@Override
+	public boolean isLong(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry != null && index.layers[entry.layer].isLong(absolutePath);
+	}
+	
+	@Override
+	public boolean isShort(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry != null && index.layers[entry.layer].isShort(absolutePath);
+	}
+	
+	@Override
+	public boolean isString(String path) {
+		String absolutePath = resolve(path);
+		Entry entry = value(absolutePath);
+		return entry != null && index.layers[entry.layer].isString(absolutePath);
+	}
+	
+	/**
+	 * The merged paths of all layers, shared by a wrapper and its subsections.
+	 */
+	private static final class Index {
+		
+		private final String[] names;
+		
+		private final ConfigWrapper[] layers;
+		
+		private final Map<String, Entry> entries = new HashMap<String, Entry>();
+		
+		private Index(Map<String, ? extends ConfigWrapper> layerMap) {
+			Map<String, ? extends ConfigWrapper> copy = new LinkedHashMap<String, ConfigWrapper>(layerMap);
+			names = new String[copy.size()];
+			layers = new ConfigWrapper[copy.size()];
+			int layer = 0;
+			for(Map.Entry<String, ? extends ConfigWrapper> entry : copy.entrySet()) {
+				if(entry.getKey() == null || entry.getValue() == null) {
+					throw new NullPointerException("Layers cannot contain null keys or values");
+				}
+				names[layer] = entry.getKey();
+				layers[layer] = entry.getValue();
+				if(entry.getValue() instanceof MapConfigWrapper mapWrapper) {
+					if(!".".matches(mapWrapper.getSeparator())) {
+						throw new IllegalArgumentException("The separator of map layers must match \".\": " + entry.getKey());
+					}
+					addMap(layer, "", (Map<?, ?>) mapWrapper.getSource());
+				} else if(entry.getValue() instanceof CommonsConfigWrapper commonsWrapper) {
+					Configuration config = commonsWrapper.getConfiguration();
+					if(ImmutableNodeConfigWrapper.supports(config)) {
+						addNode(layer, "", ((BaseHierarchicalConfiguration) config).getNodeModel().getNodeHandler().getRootNode());
+					} else {
+						addConfiguration(layer, config);
+					}
+				} else {
+					throw new IllegalArgumentException("Layers must be MapConfigWrappers or CommonsConfigWrappers: " + entry.getKey());
+				}
+				layer++;
+			}
+		}
+		
+		/**
+		 * Adds the path to the children of its parent section, which is indexed before the path.
+		 */
+		private void addChild(String path) {
+			int separator = path.lastIndexOf('.');
+			Entry parent = separator < 0 ? null : entries.get(path.substring(0, separator));
+			if(parent != null) {
+				if(parent.children == null) {
+					parent.children = new ArrayList<String>();
+				}
+				parent.children.add(path);
+			}
+		}
+		
+		/**
+		 * Removes everything within the section of the entry from the index.
+		 */
+		private void removeChildren(Entry entry) {
+			if(entry.children == null) {
+				return;
+			}
+			for(String child : entry.children) {
+				Entry removed = entries.remove(child);
+				if(removed != null) {
+					removeChildren(removed);
+				}
+			}
+			entry.children = null;
+		}
+		
+		private void addMap(int layer, String parent, Map<?, ?> map) {
+			for(Map.Entry<?, ?> entry : map.entrySet()) {
+				String path = parent.isEmpty() ? String.valueOf(entry.getKey()) : parent + "." + entry.getKey();
+				if(entry.getValue() instanceof Map<?, ?> subMap) {
+					addSection(layer, path);
+					addMap(layer, path, subMap);
+				} else {
+					addValue(layer, path);
+				}
+			}
+		}
+		
+		/**
+		 * Indexes the children and attributes of a node of a hierarchical configuration that uses the default expression engine. 
+		 * Children that share their name are a list, which is indexed as a single value.
+		 */
+		private void addNode(int layer, String parent, ImmutableNode node) {
+			for(String attribute : node.getAttributes().keySet()) {
+				addValue(layer, parent + "[@" + attribute.replace(".", "..") + "]");
+			}
+			Map<String, List<ImmutableNode>> children = new LinkedHashMap<String, List<ImmutableNode>>();
+			for(ImmutableNode child : node.getChildren()) {
+				children.computeIfAbsent(child.getNodeName(), name -> new ArrayList<ImmutableNode>(1)).add(child);
+			}
+			for(Map.Entry<String, List<ImmutableNode>> entry : children.entrySet()) {
+				String name = entry.getKey().replace(".", "..");
+				String path = parent.isEmpty() ? name : parent + "." + name;
+				ImmutableNode child = entry.getValue().get(0);
+				if(entry.getValue().size() > 1) {
+					addValue(layer, path);
+				} else if(child.getChildren().isEmpty() && child.getAttributes().isEmpty()) {
+					if(child.getValue() != null) {
+						addValue(layer, path);
+					}
+				} else {
+					addSection(layer, path);
+					if(child.getValue() != null) {
+						addValue(layer, path);
+					}
+					addNode(layer, path, child);
+				}
+			}
+		}
+		
+		private void addConfiguration(int layer, Configuration config) {
+			Iterator<String> keys = config.getKeys();
+			while(keys.hasNext()) {
+				String key = keys.next();
+				for(int separator = key.indexOf('.'); separator >= 0; separator = key.indexOf('.', separator + 1)) {
+					addSection(layer, key.substring(0, separator));
+				}
+				addValue(layer, key);
+			}
+		}
+		
+		private void addSection(int layer, String path) {
+			Entry entry = entries.get(path);
+			if(entry == null || entry.layer != layer) {
+				// a section replaces a value of an earlier layer but is merged with its sections, whose paths stay indexed
+				Entry section = new Entry(layer, true, false);
+				if(entry == null) {
+					addChild(path);
+				} else {
+					section.children = entry.children;
+				}
+				entries.put(path, section);
+			} else {
+				entry.section = true;
+			}
+		}
+		
+		private void addValue(int layer, String path) {
+			Entry entry = entries.get(path);
+			if(entry == null) {
+				addChild(path);
+			} else if(entry.layer != layer) {
+				// a value replaces the section of an earlier layer including everything within it
+				removeChildren(entry);
+			}
+			if(entry == null || entry.layer != layer) {
+				entries.put(path, new Entry(layer, false, true));
+			} else {
+				entry.value = true;
+			}
+		}
+		
+	}
+	
+	/**
+	 * Receives the values that failed validation along with the layers that supplied them.
+	 */
+	@FunctionalInterface
+	public interface LayerFailureHandler {
+		
+		/**
+		 * 
+		 * @param path the path of the value, relative to the validated wrapper
+		 * @param layerName the name of the layer that supplied the value
+		 * @param failMessage the fail message of the value's node
+		 */
+		void valueFailed(String path, String layerName, String failMessage);
+		
+	}
+	
+	private static final class Entry {
+		
+		private final int layer;
+		
+		private boolean section;
+		
+		private boolean value;
+		
+		/**
+		 * The paths directly within the section or null if none are indexed.
+		 */
+		private List<String> children;
+		
+		private Entry(int layer, boolean section, boolean value) {
+			this.layer = layer;
+			this.section = section;
+			this.value = value;
+		}
+		
+	}
+	
+}
@@ -53,6 +53,23 @@ public class MapConfigWrapper extends AbstractConfigWrapper {
 		return map.get(path);
 	}
 	
+	/**
+	 * 
+	 * @return the map that this wrapper gets its values from
+	 */
+	@Override
+	public Object getSource() {
+		return map;
+	}
+	
+	/**
+	 * 
+	 * @return the regex expression that separates nodes from sub-nodes
+	 */
+	String getSeparator() {
+		return separator;
+	}
+	
 	@SuppressWarnings("unchecked")
 	@Override
 	public ConfigWrapper getConfigSubsection(String path) {
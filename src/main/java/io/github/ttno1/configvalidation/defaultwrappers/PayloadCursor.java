@@ -0,0 +1,209 @@
+package io.github.ttno1.configvalidation.defaultwrappers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import io.github.ttno1.configvalidation.BaseType;
+import io.github.ttno1.configvalidation.ConfigSpec;
+import io.github.ttno1.configvalidation.ConfigValidationResult;
+import io.github.ttno1.configvalidation.ConfigWrapper;
+import io.github.ttno1.configvalidation.ValidationOptions;
+
+/**
+ * A reusable cursor that validates decoded payloads (e.g. JSON request bodies) given as maps of strings to objects.<br>
+ * Values are interpreted the same way as by a {@linkplain MapConfigWrapper} with a {@code "."} separator, but no wrapper 
+ * is allocated per validation or per config subsection. Instead, the cursor keeps one view per depth that is pointed at 
+ * the current section as validation descends, splits paths without regular expressions and remembers the last value 
+ * looked up at each depth, since a node looks up the same path to check, type and get its value.<br>
+ * Because views are reused, the config sections passed to filters are only valid until the filter returns, and should not 
+ * be kept. The elements of lists of config sections are independent views that stay valid, so they may be validated in 
+ * parallel.<br>
+ * A cursor must only be used by one thread at a time. {@link #forCurrentThread()} returns a cursor for the calling thread.
+ */
+public final class PayloadCursor {
+	
+	private static final ThreadLocal<PayloadCursor> CURSORS = ThreadLocal.withInitial(PayloadCursor::new);
+	
+	private View[] views = new View[4];
+	
+	private boolean validating;
+	
+	/**
+	 * Returns the cursor of the calling thread, or a new cursor if that one is already validating (i.e. when a filter 
+	 * validates another payload).
+	 * @return a cursor that is not in use
+	 */
+	public static PayloadCursor forCurrentThread() {
+		PayloadCursor cursor = CURSORS.get();
+		return cursor.validating ? new PayloadCursor() : cursor;
+	}
+	
+	/**
+	 * Validates the payload against the provided ConfigSpec, as with {@link ConfigSpec#validate(ConfigWrapper)}.
+	 * @param spec the spec to validate against
+	 * @param payload the payload to validate
+	 * @return the result of the validation
+	 * @throws NullPointerException if {@code spec} or {@code payload} are null
+	 * @throws IllegalStateException if this cursor is already validating a payload
+	 */
+	public ConfigValidationResult validate(ConfigSpec<?> spec, Map<String, ?> payload) {
+		return validate(spec, payload, ValidationOptions.defaults());
+	}
+	
+	/**
+	 * Validates the payload against the provided ConfigSpec, as with {@link ConfigSpec#validate(ConfigWrapper, ValidationOptions)}.
+	 * @param spec the spec to validate against
+	 * @param payload the payload to validate
+	 * @param options the options of the validation
+	 * @return the result of the validation
+	 * @throws NullPointerException if {@code spec}, {@code payload} or {@code options} are null
+	 * @throws IllegalStateException if this cursor is already validating a payload
+	 */
+	public ConfigValidationResult validate(ConfigSpec<?> spec, Map<String, ?> payload, ValidationOptions options) {
+		if(spec == null) {
+			throw new NullPointerException("Spec cannot be null");
+		}
+		if(payload == null) {
+			throw new NullPointerException("Payload cannot be null");
+		}
+		if(validating) {
+			throw new IllegalStateException("The cursor is already validating a payload");
+		}
+		validating = true;
+		try {
+			return spec.validate(view(0).reset(payload), options);
+		} finally {
+			validating = false;
+			// do not keep the payload reachable after the validation
+			for(View view : views) {
+				if(view == null) {
+					break;
+				}
+				view.reset(null);
+			}
+		}
+	}
+	
+	private View view(int depth) {
+		if(depth == views.length) {
+			views = Arrays.copyOf(views, depth * 2);
+		}
+		View view = views[depth];
+		if(view == null) {
+			view = new View(this, depth);
+			views[depth] = view;
+		}
+		return view;
+	}
+	
+	/**
+	 * 
+	 * @return the value at the {@code "."} separated path within the map or null if there is none
+	 */
+	private static Object resolve(Map<String, ?> map, String path) {
+		if(path.isEmpty()) {
+			return map;
+		}
+		Object current = map;
+		int start = 0;
+		int end;
+		while((end = path.indexOf('.', start)) >= 0) {
+			if(!(current instanceof Map<?, ?> section)) {
+				return null;
+			}
+			current = section.get(path.substring(start, end));
+			start = end + 1;
+		}
+		if(!(current instanceof Map<?, ?> section)) {
+			return null;
+		}
+		return section.get(start == 0 ? path : path.substring(start));
+	}
+	
+	/**
+	 * A view of a section of the payload.<br>
+	 * Views at a depth of the cursor are reused for every section at that depth, while detached views (of list elements) 
+	 * have no cursor and create a new detached view for each of their subsections.
+	 */
+	private static final class View extends AbstractConfigWrapper {
+		
+		private final PayloadCursor cursor;
+		
+		private final int depth;
+		
+		private Map<String, ?> map;
+		
+		private String lastPath;
+		
+		private Object lastValue;
+		
+		private View(PayloadCursor cursor, int depth) {
+			this.cursor = cursor;
+			this.depth = depth;
+		}
+		
+		private View reset(Map<String, ?> map) {
+			this.map = map;
+			lastPath = null;
+			lastValue = null;
+			return this;
+		}
+		
+		@Override
+		public Object get(String path) {
+			// paths are the same string instances for the checks and gets of a node
+			if(path == lastPath) {
+				return lastValue;
+			}
+			Object value = resolve(map, path);
+			lastPath = path;
+			lastValue = value;
+			return value;
+		}
+		
+		@Override
+		public Object getSource() {
+			return map;
+		}
+		
+		@SuppressWarnings("unchecked")
+		@Override
+		public ConfigWrapper getConfigSubsection(String path) {
+			if(get(path) instanceof Map<?, ?> section) {
+				View view = cursor == null ? new View(null, -1) : cursor.view(depth + 1);
+				return view.reset((Map<String, ?>) section);
+			}
+			return null;
+		}
+		
+		@Override
+		public boolean isConfigSubsection(String path) {
+			return get(path) instanceof Map;
+		}
+		
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> List<T> getList(String path, BaseType baseType, Class<T> type) {
+			if(!(get(path) instanceof List<?> list)) {
+				return null;
+			}
+			if(baseType.equals(BaseType.CONFIG_SECTION)) {
+				List<ConfigWrapper> sections = new ArrayList<ConfigWrapper>(list.size());
+				for(Object element : list) {
+					sections.add(element instanceof Map<?, ?> section ? new View(null, -1).reset((Map<String, ?>) section) : null);
+				}
+				return (List<T>) sections;
+			}
+			return (List<T>) list;
+		}
+		
+		@Override
+		public <T> boolean isList(String path, BaseType baseType, Class<T> type) {
+			return get(path) instanceof List;
+		}
+		
+	}
+	
+}
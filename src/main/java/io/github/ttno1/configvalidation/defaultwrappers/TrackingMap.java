@@ -0,0 +1,126 @@
+package io.github.ttno1.configvalidation.defaultwrappers;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A map of strings to objects that records a modification stamp for itself and each map nested within it, for 
+ * {@linkplain VersionedMapConfigWrapper}.<br>
+ * Nested maps are copied into tracking maps when they are added, so changes to them are only tracked when they are made 
+ * through the maps returned by {@link #get(Object)}. Each change stamps the map it was made to and every map that contains it 
+ * with a new value of a global counter. Lists and other values are not tracked and must be replaced to be changed.<br>
+ * The key, value and entry views are unmodifiable. This class is not synchronized.
+ */
+public final class TrackingMap extends AbstractMap<String, Object> {
+	
+	private static final AtomicLong CLOCK = new AtomicLong();
+	
+	private final Map<String, Object> map;
+	
+	private TrackingMap parent;
+	
+	private volatile long version;
+	
+	/**
+	 * 
+	 * @param map the initial contents, which are copied
+	 * @throws NullPointerException if {@code map} is null
+	 */
+	public TrackingMap(Map<String, ?> map) {
+		this(map, null);
+	}
+	
+	private TrackingMap(Map<String, ?> map, TrackingMap parent) {
+		if(map == null) {
+			throw new NullPointerException("Map cannot be null");
+		}
+		this.parent = parent;
+		this.map = new LinkedHashMap<String, Object>();
+		for(Map.Entry<String, ?> entry : map.entrySet()) {
+			this.map.put(entry.getKey(), track(entry.getValue()));
+		}
+	}
+	
+	/**
+	 * 
+	 * @return a stamp that changes whenever this map or any map nested within it changes
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Object track(Object value) {
+		if(value instanceof Map<?, ?> nested) {
+			return new TrackingMap((Map<String, ?>) nested, this);
+		}
+		return value;
+	}
+	
+	private static void detach(Object value) {
+		if(value instanceof TrackingMap nested) {
+			nested.parent = null;
+		}
+	}
+	
+	private void changed() {
+		long stamp = CLOCK.incrementAndGet();
+		for(TrackingMap map = this; map != null; map = map.parent) {
+			map.version = stamp;
+		}
+	}
+	
+	@Override
+	public Object get(Object key) {
+		return map.get(key);
+	}
+	
+	@Override
+	public boolean containsKey(Object key) {
+		return map.containsKey(key);
+	}
+	
+	@Override
+	public int size() {
+		return map.size();
+	}
+	
+	/**
+	 * Associates the value with the key. A map value is copied into a new tracking map.
+	 */
+	@Override
+	public Object put(String key, Object value) {
+		Object previous = map.put(key, track(value));
+		detach(previous);
+		changed();
+		return previous;
+	}
+	
+	@Override
+	public Object remove(Object key) {
+		if(!map.containsKey(key)) {
+			return null;
+		}
+		Object previous = map.remove(key);
+		detach(previous);
+		changed();
+		return previous;
+	}
+	
+	@Override
+	public void clear() {
+		map.values().forEach(TrackingMap::detach);
+		map.clear();
+		changed();
+	}
+	
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return Collections.unmodifiableMap(map).entrySet();
+	}
+	
+}
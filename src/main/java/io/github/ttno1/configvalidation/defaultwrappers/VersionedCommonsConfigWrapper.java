@@ -0,0 +1,158 @@
+package io.github.ttno1.configvalidation.defaultwrappers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.event.ConfigurationEvent;
+import org.apache.commons.configuration2.event.EventListener;
+import org.apache.commons.configuration2.event.EventSource;
+
+import io.github.ttno1.configvalidation.BaseType;
+import io.github.ttno1.configvalidation.ConfigWrapper;
+import io.github.ttno1.configvalidation.VersionedConfigWrapper;
+
+/**
+ * A {@linkplain CommonsConfigWrapper} that listens to the {@linkplain ConfigurationEvent}s of its configuration and reports 
+ * the modification stamps of the changed keys as versions.<br>
+ * Each change stamps the changed key, which covers everything nested within it, and the sections that contain it. Indexes 
+ * and attributes are removed from the keys of events (e.g. {@code servers.server(1).port} stamps {@code servers.server.port}), 
+ * so a change to one element of a list changes the version of all of its elements. Changes without a key, such as clearing 
+ * the configuration, change every version.<br>
+ * Keys are expected to use the default expression engine. Subsections and lists of config sections are versioned wrappers 
+ * that share the listener of the wrapper they came from, and only changes made through the configuration of the outermost 
+ * wrapper (or subsets of it) are seen. Values are always read by key, since the versions are tracked by key.
+ */
+public class VersionedCommonsConfigWrapper extends CommonsConfigWrapper implements VersionedConfigWrapper {
+	
+	private final ChangeTracker tracker;
+	
+	private final String prefix;
+	
+	/**
+	 * 
+	 * @param config the configuration to wrap, which must be an {@linkplain EventSource}
+	 * @throws NullPointerException if {@code config} is null
+	 * @throws IllegalArgumentException if {@code config} is not an {@linkplain EventSource}
+	 */
+	public VersionedCommonsConfigWrapper(Configuration config) {
+		super(config, false);
+		if(config == null) {
+			throw new NullPointerException("Config cannot be null");
+		}
+		if(!(config instanceof EventSource eventSource)) {
+			throw new IllegalArgumentException("Config must be an EventSource");
+		}
+		this.tracker = new ChangeTracker();
+		this.prefix = "";
+		eventSource.addEventListener(ConfigurationEvent.ANY, tracker);
+	}
+	
+	private VersionedCommonsConfigWrapper(Configuration config, ChangeTracker tracker, String prefix) {
+		super(config, false);
+		this.tracker = tracker;
+		this.prefix = prefix;
+	}
+	
+	private String absolute(String path) {
+		if(prefix.isEmpty()) {
+			return path;
+		}
+		return path.isEmpty() ? prefix : prefix + "." + path;
+	}
+	
+	@Override
+	public long getVersion() {
+		return tracker.version(prefix);
+	}
+	
+	@Override
+	public long getVersion(String path) {
+		return tracker.version(ChangeTracker.normalize(absolute(path)));
+	}
+	
+	@Override
+	public ConfigWrapper getConfigSubsection(String path) {
+		return new VersionedCommonsConfigWrapper(getConfiguration().subset(path), tracker, ChangeTracker.normalize(absolute(path)));
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> List<T> getList(String path, BaseType baseType, Class<T> type) {
+		List<T> list = super.getList(path, baseType, type);
+		if(list == null || !baseType.equals(BaseType.CONFIG_SECTION)) {
+			return list;
+		}
+		String elementPrefix = ChangeTracker.normalize(absolute(path));
+		return (List<T>) list.stream().map(element -> {
+			return new VersionedCommonsConfigWrapper(((CommonsConfigWrapper) element).getConfiguration(), tracker, elementPrefix);
+		}).toList();
+	}
+	
+	/**
+	 * Records the stamp of the latest change of each key, and of each section that contains a changed key.
+	 */
+	private static final class ChangeTracker implements EventListener<ConfigurationEvent> {
+		
+		private static final AtomicLong CLOCK = new AtomicLong();
+		
+		private static final Pattern INDEXES_AND_ATTRIBUTES = Pattern.compile("\\(\\d+\\)|\\[@[^\\]]*\\]");
+		
+		/**
+		 * The stamp of the latest change made directly to each key, which covers everything nested within it.
+		 */
+		private final Map<String, Long> changed = new ConcurrentHashMap<String, Long>();
+		
+		/**
+		 * The stamp of the latest change made to each key or anything nested within it.
+		 */
+		private final Map<String, Long> containing = new ConcurrentHashMap<String, Long>();
+		
+		private volatile long latest;
+		
+		private volatile long cleared;
+		
+		static String normalize(String key) {
+			if(key.indexOf('(') < 0 && key.indexOf('[') < 0) {
+				return key;
+			}
+			return INDEXES_AND_ATTRIBUTES.matcher(key).replaceAll("");
+		}
+		
+		@Override
+		public void onEvent(ConfigurationEvent event) {
+			if(event.isBeforeUpdate()) {
+				return;
+			}
+			long stamp = CLOCK.incrementAndGet();
+			String key = event.getPropertyName();
+			if(key == null || key.isEmpty()) {
+				cleared = stamp;
+			} else {
+				key = normalize(key);
+				changed.put(key, stamp);
+				containing.put(key, stamp);
+				for(int i = key.lastIndexOf('.'); i > 0; i = key.lastIndexOf('.', i - 1)) {
+					containing.put(key.substring(0, i), stamp);
+				}
+			}
+			latest = stamp;
+		}
+		
+		long version(String key) {
+			if(key.isEmpty()) {
+				return latest;
+			}
+			long version = Math.max(cleared, containing.getOrDefault(key, 0L));
+			for(int i = key.lastIndexOf('.'); i > 0; i = key.lastIndexOf('.', i - 1)) {
+				version = Math.max(version, changed.getOrDefault(key.substring(0, i), 0L));
+			}
+			return version;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,56 @@
+package io.github.ttno1.configvalidation.defaultwrappers;
+
+import io.github.ttno1.configvalidation.ConfigWrapper;
+import io.github.ttno1.configvalidation.VersionedConfigWrapper;
+
+/**
+ * A {@linkplain MapConfigWrapper} over a {@linkplain TrackingMap} that reports the modification stamps of the map and its 
+ * nested maps as versions.<br>
+ * The version of a path is that of the deepest map on the path, so changes to the value at a path change the version of the 
+ * map that contains it and of every section above it. Subsections are versioned wrappers over the nested tracking maps.
+ */
+public class VersionedMapConfigWrapper extends MapConfigWrapper implements VersionedConfigWrapper {
+	
+	private final TrackingMap map;
+	
+	/**
+	 * 
+	 * @param map the tracking map to get values from
+	 * @param separator the regex expression that separates nodes from sub-nodes e.g. "\."
+	 * @throws NullPointerException if map is null
+	 * @throws IllegalArgumentException if separator is null or empty
+	 */
+	public VersionedMapConfigWrapper(TrackingMap map, String separator) {
+		super(map, separator);
+		this.map = map;
+	}
+	
+	@Override
+	public long getVersion() {
+		return map.getVersion();
+	}
+	
+	@Override
+	public long getVersion(String path) {
+		if(path.isEmpty()) {
+			return map.getVersion();
+		}
+		TrackingMap deepest = map;
+		for(String key : path.split(getSeparator())) {
+			if(!(deepest.get(key) instanceof TrackingMap nested)) {
+				break;
+			}
+			deepest = nested;
+		}
+		return deepest.getVersion();
+	}
+	
+	@Override
+	public ConfigWrapper getConfigSubsection(String path) {
+		if(get(path) instanceof TrackingMap subMap) {
+			return new VersionedMapConfigWrapper(subMap, getSeparator());
+		}
+		return null;
+	}
+	
+}
@@ -0,0 +1,443 @@
+package io.github.ttno1.configvalidation.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Annotation processor that generates a {@code <RecordName>Binder} class for every record annotated with
+ * {@linkplain io.github.ttno1.configvalidation.annotation.ConfigRecord}.<br>
+ * The generated binder validates and binds each component with its own straight-line block of code. Every filter is invoked
+ * through its own call site on a static field, so filter calls stay monomorphic and no {@code ConfigSpec} object graph
+ * is built unless {@code spec()} is called.<br>
+ * The processor is registered as a service in the library jar, so it runs in the compilation of every project that has the
+ * library on its class path. Projects that do not use {@code @ConfigRecord} can opt out with {@code -proc:none}.
+ */
+@SupportedAnnotationTypes(ConfigRecordProcessor.CONFIG_RECORD)
+public class ConfigRecordProcessor extends AbstractProcessor {
+
+	static final String CONFIG_RECORD = "io.github.ttno1.configvalidation.annotation.ConfigRecord";
+
+	private static final String CONFIG_PATH = "io.github.ttno1.configvalidation.annotation.ConfigPath";
+
+	private static final String CONFIG_FILTER_REF = "io.github.ttno1.configvalidation.annotation.ConfigFilterRef";
+
+	private static final String PACKAGE = "io.github.ttno1.configvalidation.";
+
+	private static final String CONFIG_FILTER = PACKAGE + "ConfigFilter";
+
+	private static final String CONFIG_WRAPPER = PACKAGE + "ConfigWrapper";
+
+	/**
+	 * The failure message of a primitive component whose value is null, which would otherwise throw a
+	 * {@linkplain NullPointerException} when it is unboxed into the record.
+	 */
+	private static final String NULL_PRIMITIVE = "The node's value is null, which cannot be bound to a primitive component";
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		TypeElement configRecord = processingEnv.getElementUtils().getTypeElement(CONFIG_RECORD);
+		if(configRecord == null) {
+			return false;
+		}
+		for(Element element : roundEnv.getElementsAnnotatedWith(configRecord)) {
+			if(element.getKind() != ElementKind.RECORD) {
+				error(element, "@ConfigRecord can only be applied to records");
+				continue;
+			}
+			if(element.getModifiers().contains(Modifier.PRIVATE)) {
+				error(element, "@ConfigRecord records cannot be private");
+				continue;
+			}
+			TypeElement record = (TypeElement) element;
+			List<Component> components = new ArrayList<Component>();
+			boolean valid = true;
+			for(RecordComponentElement recordComponent : record.getRecordComponents()) {
+				Component component = toComponent(record, recordComponent);
+				if(component == null) {
+					valid = false;
+				} else {
+					components.add(component);
+				}
+			}
+			if(valid) {
+				write(record, components);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Resolves the node type, filter and output type of a record component.
+	 * @return the component or null if an error was reported
+	 */
+	private Component toComponent(TypeElement record, RecordComponentElement element) {
+		String name = element.getSimpleName().toString();
+		String path = name;
+		AnnotationMirror pathAnnotation = getAnnotation(element, CONFIG_PATH);
+		if(pathAnnotation != null) {
+			path = (String) getValue(pathAnnotation, "value").getValue();
+		}
+
+		boolean primitive = element.asType().getKind().isPrimitive();
+		TypeMirror type = box(element.asType());
+		TypeMirror elementType = getListElementType(type);
+		boolean list = elementType != null;
+		TypeMirror outputType = list ? elementType : type;
+
+		AnnotationMirror filterAnnotation = getAnnotation(element, CONFIG_FILTER_REF);
+		if(filterAnnotation != null) {
+			TypeMirror owner = (TypeMirror) getValue(filterAnnotation, "type").getValue();
+			TypeElement ownerElement = owner.getKind() == TypeKind.VOID ? record : (TypeElement) processingEnv.getTypeUtils().asElement(owner);
+			String fieldName = (String) getValue(filterAnnotation, "value").getValue();
+			VariableElement field = null;
+			for(VariableElement candidate : ElementFilter.fieldsIn(ownerElement.getEnclosedElements())) {
+				if(candidate.getSimpleName().contentEquals(fieldName)) {
+					field = candidate;
+				}
+			}
+			if(field == null) {
+				error(element, "Filter field " + fieldName + " not found in " + ownerElement.getQualifiedName());
+				return null;
+			}
+			if(!field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.PRIVATE)) {
+				error(element, "Filter field " + fieldName + " must be static and not private");
+				return null;
+			}
+			List<? extends TypeMirror> typeArguments = getTypeArguments(field.asType(), CONFIG_FILTER);
+			if(typeArguments == null) {
+				error(element, "Filter field " + fieldName + " must be declared with the type ConfigFilter<T, U>");
+				return null;
+			}
+			Scalar input = Scalar.of(typeArguments.get(0));
+			if(input == null) {
+				error(element, "Filter field " + fieldName + " has an unsupported input type: " + typeArguments.get(0));
+				return null;
+			}
+			if(!processingEnv.getTypeUtils().isAssignable(typeArguments.get(1), outputType)) {
+				error(element, "Output type of filter field " + fieldName + " is not assignable to " + outputType);
+				return null;
+			}
+			String filterRef = ownerElement.getQualifiedName() + "." + fieldName;
+			return new Component(name, path, input, list, primitive, outputType.toString(), filterRef + ".filter", filterRef, null);
+		}
+
+		Scalar scalar = Scalar.of(outputType);
+		if(scalar != null) {
+			return new Component(name, path, scalar, list, primitive, outputType.toString(), null, null, null);
+		}
+		Element outputElement = processingEnv.getTypeUtils().asElement(outputType);
+		if(outputElement != null && outputElement.getKind() == ElementKind.RECORD && getAnnotation(outputElement, CONFIG_RECORD) != null) {
+			String binder = getBinderName((TypeElement) outputElement);
+			return new Component(name, path, Scalar.CONFIG_SECTION, list, primitive, outputType.toString(), binder + ".filter", null, binder);
+		}
+		error(element, "Unsupported component type " + element.asType() + ", a @ConfigFilterRef that outputs this type must be specified");
+		return null;
+	}
+
+	private void write(TypeElement record, List<Component> components) {
+		String packageName = getPackage(record);
+		String binderName = getBinderName(record);
+		String simpleName = binderName.substring(binderName.lastIndexOf('.') + 1);
+		String recordName = record.getQualifiedName().toString();
+
+		StringBuilder src = new StringBuilder();
+		if(!packageName.isEmpty()) {
+			src.append("package ").append(packageName).append(";\n\n");
+		}
+		src.append("/**\n * Validates and binds {@link ").append(recordName).append("}.<br>\n * Generated by {@link ")
+				.append(ConfigRecordProcessor.class.getName()).append("}.\n */\n");
+		src.append("@javax.annotation.processing.Generated(\"").append(ConfigRecordProcessor.class.getName()).append("\")\n");
+		src.append("public final class ").append(simpleName).append(" {\n\n");
+		src.append("\tprivate ").append(simpleName).append("() {}\n\n");
+
+		src.append("\t/**\n\t * Validates the supplied config against the nodes of {@link ").append(recordName).append("}.\n");
+		src.append("\t * @param configWrapper the config to validate\n");
+		src.append("\t * @return the result of the validation\n\t */\n");
+		src.append("\tpublic static ").append(PACKAGE).append("ConfigValidationResult validate(").append(CONFIG_WRAPPER).append(" configWrapper) {\n");
+		src.append("\t\t").append(PACKAGE).append("ConfigFilterResult<").append(recordName).append("> result = filter(configWrapper);\n");
+		src.append("\t\tif(!result.passed()) {\n");
+		src.append("\t\t\treturn ").append(PACKAGE).append("ConfigValidationResult.fail(\"The node's filter failed with the following message: \" + result.getFailMessage());\n");
+		src.append("\t\t}\n\t\treturn ").append(PACKAGE).append("ConfigValidationResult.pass();\n\t}\n\n");
+
+		src.append("\t/**\n\t * Validates the supplied config and binds it to a new {@link ").append(recordName).append("}.\n");
+		src.append("\t * @param configWrapper the config to bind\n");
+		src.append("\t * @return the bound record\n");
+		src.append("\t * @throws ").append(PACKAGE).append("ConfigValidationException if the config is invalid\n\t */\n");
+		src.append("\tpublic static ").append(recordName).append(" bind(").append(CONFIG_WRAPPER).append(" configWrapper) {\n");
+		src.append("\t\t").append(PACKAGE).append("ConfigFilterResult<").append(recordName).append("> result = filter(configWrapper);\n");
+		src.append("\t\tif(!result.passed()) {\n");
+		src.append("\t\t\tthrow new ").append(PACKAGE).append("ConfigValidationException(").append(PACKAGE)
+				.append("ConfigValidationResult.fail(\"The node's filter failed with the following message: \" + result.getFailMessage()));\n");
+		src.append("\t\t}\n\t\treturn result.getResult();\n\t}\n\n");
+
+		src.append("\t/**\n\t * A filter that validates a config section and binds it to a new {@link ").append(recordName).append("}.\n");
+		src.append("\t * @param configWrapper the config section to bind\n");
+		src.append("\t * @return the result containing the bound record if it passed\n\t */\n");
+		src.append("\tpublic static ").append(PACKAGE).append("ConfigFilterResult<").append(recordName).append("> filter(")
+				.append(CONFIG_WRAPPER).append(" configWrapper) {\n");
+		src.append("\t\tif(configWrapper == null) {\n\t\t\tthrow new NullPointerException(\"Config wrapper cannot be null\");\n\t\t}\n");
+		src.append("\t\tjava.util.StringJoiner failures = null;\n");
+		for(int i = 0; i < components.size(); i++) {
+			writeComponent(src, components.get(i), i);
+		}
+		src.append("\t\tif(failures != null) {\n");
+		src.append("\t\t\treturn ").append(PACKAGE).append("ConfigFilterResult.fail(\"The following nodes in the config spec failed validation: \" + System.lineSeparator() + failures);\n");
+		src.append("\t\t}\n");
+		src.append("\t\treturn ").append(PACKAGE).append("ConfigFilterResult.pass(new ").append(recordName).append("(");
+		for(int i = 0; i < components.size(); i++) {
+			src.append(i == 0 ? "" : ", ").append("value").append(i);
+		}
+		src.append("));\n\t}\n\n");
+
+		src.append("\t/**\n\t * Constructs a {@link ").append(PACKAGE).append("ConfigSpec} that is equivalent to the nodes of {@link ")
+				.append(recordName).append("}.\n");
+		src.append("\t * @return a new ConfigSpec\n\t */\n");
+		src.append("\tpublic static ").append(PACKAGE).append("ConfigSpec<").append(CONFIG_WRAPPER).append("> spec() {\n");
+		src.append("\t\treturn ").append(PACKAGE).append("Cfg.newSpec()");
+		for(Component component : components) {
+			src.append("\n\t\t\t\t.addNode(").append(quote(component.path())).append(", ").append(specNode(component)).append(")");
+		}
+		src.append(";\n\t}\n\n");
+
+		src.append("\tprivate static java.util.StringJoiner fail(java.util.StringJoiner failures, String path, String message) {\n");
+		src.append("\t\tif(failures == null) {\n\t\t\tfailures = new java.util.StringJoiner(System.lineSeparator());\n\t\t}\n");
+		src.append("\t\treturn failures.add(path + \" - \" + message);\n\t}\n\n");
+		src.append("\tprivate static java.util.StringJoiner join(java.util.StringJoiner failures, String message) {\n");
+		src.append("\t\tif(failures == null) {\n\t\t\tfailures = new java.util.StringJoiner(System.lineSeparator());\n\t\t}\n");
+		src.append("\t\treturn failures.add(message);\n\t}\n\n");
+		src.append("}\n");
+
+		try(Writer writer = processingEnv.getFiler().createSourceFile(binderName, record).openWriter()) {
+			writer.write(src.toString());
+		} catch(IOException e) {
+			error(record, "Could not write " + binderName + ": " + e.getLocalizedMessage());
+		}
+	}
+
+	private void writeComponent(StringBuilder src, Component component, int i) {
+		String path = quote(component.path());
+		Scalar scalar = component.input();
+		String valueType = component.list() ? "java.util.List<" + component.outputType() + ">" : component.outputType();
+		src.append("\t\t// ").append(component.name()).append("\n");
+		src.append("\t\t").append(valueType).append(" value").append(i).append(" = null;\n");
+		src.append("\t\tif(!configWrapper.containsNode(").append(path).append(")) {\n");
+		src.append("\t\t\tfailures = fail(failures, ").append(path).append(", \"The node is not contained in the config\");\n");
+		if(component.list()) {
+			String listArgs = path + ", " + PACKAGE + "BaseType." + scalar.name() + ", " + scalar.type + ".class";
+			src.append("\t\t} else if(!configWrapper.isList(").append(listArgs).append(")) {\n");
+			src.append("\t\t\tfailures = fail(failures, ").append(path).append(", \"The node is not a list of type: ").append(scalar.name()).append("\");\n");
+			src.append("\t\t} else {\n");
+			src.append("\t\t\tjava.util.List<").append(scalar.type).append("> input").append(i)
+					.append(" = configWrapper.getList(").append(listArgs).append(");\n");
+			if(component.filterCall() == null) {
+				src.append("\t\t\tvalue").append(i).append(" = java.util.Collections.unmodifiableList(input").append(i).append(");\n");
+			} else {
+				src.append("\t\t\tjava.util.List<").append(component.outputType()).append("> output").append(i)
+						.append(" = new java.util.ArrayList<").append(component.outputType()).append(">(input").append(i).append(".size());\n");
+				src.append("\t\t\tjava.util.StringJoiner elementFailures").append(i).append(" = null;\n");
+				src.append("\t\t\tfor(").append(scalar.type).append(" element : input").append(i).append(") {\n");
+				src.append("\t\t\t\t").append(PACKAGE).append("ConfigFilterResult<? extends ").append(component.outputType())
+						.append("> elementResult = ").append(component.filterCall()).append("(element);\n");
+				src.append("\t\t\t\tif(elementResult.passed()) {\n");
+				src.append("\t\t\t\t\toutput").append(i).append(".add(elementResult.getResult());\n");
+				src.append("\t\t\t\t} else {\n");
+				src.append("\t\t\t\t\telementFailures").append(i).append(" = join(elementFailures").append(i).append(", elementResult.getFailMessage());\n");
+				src.append("\t\t\t\t}\n\t\t\t}\n");
+				src.append("\t\t\tif(elementFailures").append(i).append(" == null) {\n");
+				src.append("\t\t\t\tvalue").append(i).append(" = java.util.Collections.unmodifiableList(output").append(i).append(");\n");
+				src.append("\t\t\t} else {\n");
+				src.append("\t\t\t\tfailures = fail(failures, ").append(path)
+						.append(", \"The node's filter failed with the following message: One or more filters failed while being applied to a list:\" + System.lineSeparator() + elementFailures")
+						.append(i).append(");\n");
+				src.append("\t\t\t}\n");
+			}
+			src.append("\t\t}\n");
+		} else {
+			src.append("\t\t} else if(!configWrapper.is").append(scalar.method).append("(").append(path).append(")) {\n");
+			src.append("\t\t\tfailures = fail(failures, ").append(path).append(", \"The node is not of type: ").append(scalar.name()).append("\");\n");
+			src.append("\t\t} else {\n");
+			if(component.filterCall() == null) {
+				src.append("\t\t\tvalue").append(i).append(" = configWrapper.get").append(scalar.method).append("(").append(path).append(");\n");
+				if(component.primitive()) {
+					src.append("\t\t\tif(value").append(i).append(" == null) {\n");
+					src.append("\t\t\t\tfailures = fail(failures, ").append(path).append(", \"").append(NULL_PRIMITIVE).append("\");\n");
+					src.append("\t\t\t}\n");
+				}
+			} else {
+				src.append("\t\t\t").append(PACKAGE).append("ConfigFilterResult<? extends ").append(component.outputType()).append("> result").append(i)
+						.append(" = ").append(component.filterCall()).append("(configWrapper.get").append(scalar.method).append("(").append(path).append("));\n");
+				src.append("\t\t\tif(!result").append(i).append(".passed()) {\n");
+				src.append("\t\t\t\tfailures = fail(failures, ").append(path).append(", \"The node's filter failed with the following message: \" + result")
+						.append(i).append(".getFailMessage());\n");
+				if(component.primitive()) {
+					src.append("\t\t\t} else if(result").append(i).append(".getResult() == null) {\n");
+					src.append("\t\t\t\tfailures = fail(failures, ").append(path).append(", \"").append(NULL_PRIMITIVE).append("\");\n");
+				}
+				src.append("\t\t\t} else {\n");
+				src.append("\t\t\t\tvalue").append(i).append(" = result").append(i).append(".getResult();\n");
+				src.append("\t\t\t}\n");
+			}
+			src.append("\t\t}\n");
+		}
+	}
+
+	private static String specNode(Component component) {
+		String node;
+		if(component.binder() != null) {
+			node = component.binder() + ".spec()";
+		} else if(component.input() == Scalar.CONFIG_SECTION) {
+			node = PACKAGE + "Cfg.newSpec(" + (component.filterRef() == null ? "" : component.filterRef()) + ")";
+		} else if(!component.list()) {
+			return PACKAGE + "Cfg.Node.of" + component.input().method + "(" + (component.filterRef() == null ? "" : component.filterRef()) + ")";
+		} else if(component.filterRef() == null) {
+			return PACKAGE + "Cfg.List.of" + component.input().method + "()";
+		} else {
+			return PACKAGE + "Cfg.List.of" + component.input().method + "(" + CONFIG_FILTER + ".nullFilter(), " + component.filterRef() + ")";
+		}
+		if(component.list()) {
+			return PACKAGE + "Cfg.List.ofConfigSpec(" + CONFIG_FILTER + ".nullFilter(), " + node + ")";
+		}
+		return node;
+	}
+
+	private TypeMirror box(TypeMirror type) {
+		if(type.getKind().isPrimitive()) {
+			return processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) type).asType();
+		}
+		return type;
+	}
+
+	private TypeMirror getListElementType(TypeMirror type) {
+		List<? extends TypeMirror> typeArguments = getTypeArguments(type, "java.util.List");
+		if(typeArguments == null || typeArguments.get(0).getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+		return typeArguments.get(0);
+	}
+
+	private List<? extends TypeMirror> getTypeArguments(TypeMirror type, String rawType) {
+		if(!(type instanceof DeclaredType declaredType)) {
+			return null;
+		}
+		if(!((TypeElement) declaredType.asElement()).getQualifiedName().contentEquals(rawType) || declaredType.getTypeArguments().isEmpty()) {
+			return null;
+		}
+		return declaredType.getTypeArguments();
+	}
+
+	private String getBinderName(TypeElement record) {
+		String packageName = getPackage(record);
+		String qualifiedName = record.getQualifiedName().toString();
+		String name = (packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1)).replace('.', '_') + "Binder";
+		return packageName.isEmpty() ? name : packageName + "." + name;
+	}
+
+	private String getPackage(Element element) {
+		PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(element);
+		return packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+	}
+
+	private static AnnotationMirror getAnnotation(Element element, String annotationType) {
+		for(AnnotationMirror mirror : element.getAnnotationMirrors()) {
+			if(((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationType)) {
+				return mirror;
+			}
+		}
+		return null;
+	}
+
+	private AnnotationValue getValue(AnnotationMirror mirror, String name) {
+		for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+			if(entry.getKey().getSimpleName().contentEquals(name)) {
+				return entry.getValue();
+			}
+		}
+		throw new IllegalStateException("Annotation value not found: " + name);
+	}
+
+	private static String quote(String string) {
+		return "\"" + string.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+	}
+
+	/**
+	 * A record component and how it is validated.
+	 * @param input the type of the node (or of each element for lists)
+	 * @param primitive whether the record component is a primitive, which cannot be bound to null
+	 * @param outputType the source representation of the filter output type (or element output type for lists)
+	 * @param filterCall the static method that filters the node (or each element) or null if the node is not filtered
+	 * @param filterRef the referenced filter field or null if there is none
+	 * @param binder the binder of the nested record or null if the component is not a record
+	 */
+	private record Component(String name, String path, Scalar input, boolean list, boolean primitive, String outputType, String filterCall, String filterRef, String binder) {}
+
+	/**
+	 * The node types a component can have, named after their {@code BaseType}.
+	 */
+	private enum Scalar {
+		BOOLEAN("java.lang.Boolean", "Boolean"),
+		BYTE("java.lang.Byte", "Byte"),
+		DOUBLE("java.lang.Double", "Double"),
+		FLOAT("java.lang.Float", "Float"),
+		INTEGER("java.lang.Integer", "Integer"),
+		LONG("java.lang.Long", "Long"),
+		CONFIG_SECTION(CONFIG_WRAPPER, "ConfigSubsection"),
+		SHORT("java.lang.Short", "Short"),
+		STRING("java.lang.String", "String");
+
+		private final String type;
+
+		private final String method;
+
+		private Scalar(String type, String method) {
+			this.type = type;
+			this.method = method;
+		}
+
+		private static Scalar of(TypeMirror type) {
+			if(!(type instanceof DeclaredType declaredType)) {
+				return null;
+			}
+			Element element = declaredType.asElement();
+			for(Scalar scalar : values()) {
+				if(((TypeElement) element).getQualifiedName().contentEquals(scalar.type)) {
+					return scalar;
+				}
+			}
+			return null;
+		}
+	}
+
+}
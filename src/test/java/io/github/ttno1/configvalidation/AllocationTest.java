@@ -0,0 +1,148 @@
+package io.github.ttno1.configvalidation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import io.github.ttno1.configvalidation.defaultwrappers.AbstractConfigWrapper;
+import io.github.ttno1.configvalidation.defaultwrappers.PayloadCursor;
+
+public class AllocationTest {
+
+	private static final int ITERATIONS = 20000;
+	
+	@Test
+	void successPathAllocationTest() {
+		
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+		
+		FlatConfigWrapper section = new FlatConfigWrapper(Map.of("port", 8080, "debug", true));
+		ConfigWrapper wrapper = new FlatConfigWrapper(Map.of("name", "service", "timeout", 30, "ratio", 0.5, "server", section));
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("name", Cfg.Node.ofString())
+				.addNode("timeout", Cfg.Node.ofInteger().withFilter(ConfigFilter.nullFilter()))
+				.addNode("ratio", Cfg.Node.ofDouble())
+				.addNode("server", Cfg.newSpec()
+						.addNode("port", Cfg.Node.ofInteger())
+						.addNode("debug", Cfg.Node.ofBoolean()));
+		
+		// warm up so that the measurement does not include class loading
+		for(int i = 0; i < ITERATIONS; i++) {
+			assertTrue(spec.validate(wrapper).passed());
+		}
+		
+		long threadId = Thread.currentThread().threadId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for(int i = 0; i < ITERATIONS; i++) {
+			if(!spec.validate(wrapper).passed()) {
+				fail();
+			}
+		}
+		long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+		
+		// a single allocation per validation would already be at least 16 bytes each
+		assertTrue(allocated < ITERATIONS, () -> allocated + " bytes allocated by " + ITERATIONS + " validations");
+		
+	}
+	
+	@Test
+	void payloadCursorAllocationTest() {
+		
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+		
+		Map<String, Object> payload = Map.of("name", "service", "timeout", 30, "server", Map.of("port", 8080, "tls", Map.of("enabled", true)));
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("name", Cfg.Node.ofString())
+				.addNode("timeout", Cfg.Node.ofInteger())
+				.addNode("server", Cfg.newSpec()
+						.addNode("port", Cfg.Node.ofInteger())
+						.addNode("tls", Cfg.newSpec()
+								.addNode("enabled", Cfg.Node.ofBoolean())))
+				.freeze();
+		
+		for(int i = 0; i < ITERATIONS; i++) {
+			assertTrue(PayloadCursor.forCurrentThread().validate(spec, payload).passed());
+		}
+		
+		long threadId = Thread.currentThread().threadId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for(int i = 0; i < ITERATIONS; i++) {
+			if(!PayloadCursor.forCurrentThread().validate(spec, payload).passed()) {
+				fail();
+			}
+		}
+		long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+		
+		// nested sections reuse the views of the cursor instead of allocating wrappers
+		assertTrue(allocated < ITERATIONS, () -> allocated + " bytes allocated by " + ITERATIONS + " validations");
+		
+	}
+	
+	@Test
+	void sharedPassResultTest() {
+		
+		assertSame(ConfigValidationResult.pass(), ConfigValidationResult.pass());
+		assertSame(ConfigFilterResult.pass(null), ConfigFilterResult.pass(null));
+		assertSame(ConfigFilter.nullFilter(), ConfigFilter.nullFilter());
+		
+		ConfigFilter<String, Integer> length = s -> s.isEmpty() ? ConfigFilterResult.fail("Empty") : ConfigFilterResult.pass(s.length());
+		assertSame(length, ConfigFilter.<String>nullFilter().withFilter(length));
+		assertSame(length, length.withFilter(ConfigFilter.nullFilter()));
+		
+		ConfigFilterResult<String> failed = ConfigFilterResult.fail("Empty");
+		ConfigFilter<String, String> failing = s -> failed;
+		assertSame(failed, failing.withFilter(length).filter(""));
+		
+	}
+	
+	/**
+	 * A wrapper of a single level map, which does not allocate for lookups.
+	 */
+	private static final class FlatConfigWrapper extends AbstractConfigWrapper {
+		
+		private final Map<String, Object> map;
+		
+		private FlatConfigWrapper(Map<String, Object> map) {
+			this.map = map;
+		}
+		
+		@Override
+		public Object get(String path) {
+			return path.isEmpty() ? this : map.get(path);
+		}
+		
+		@Override
+		public boolean containsNode(String path) {
+			return path.isEmpty() || map.containsKey(path);
+		}
+		
+		@Override
+		public ConfigWrapper getConfigSubsection(String path) {
+			return (ConfigWrapper) get(path);
+		}
+		
+		@Override
+		public boolean isConfigSubsection(String path) {
+			return get(path) instanceof ConfigWrapper;
+		}
+		
+		@Override
+		public <T> List<T> getList(String path, BaseType baseType, Class<T> type) {
+			return null;
+		}
+		
+		@Override
+		public <T> boolean isList(String path, BaseType baseType, Class<T> type) {
+			return false;
+		}
+		
+	}
+
+}
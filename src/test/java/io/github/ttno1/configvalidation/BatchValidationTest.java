@@ -0,0 +1,78 @@
+package io.github.ttno1.configvalidation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ttno1.configvalidation.defaultwrappers.SnakeYamlConfigWrapper;
+
+public class BatchValidationTest {
+
+	@Test
+	void batchReportTest() {
+		
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("name", Cfg.Node.ofString())
+				.addNode("port", Cfg.Node.ofInteger(port -> port > 0 ? ConfigFilterResult.pass(port) : ConfigFilterResult.fail("Invalid port: " + port)))
+				.addNode("routes", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), Cfg.newSpec().addNode("backend", Cfg.Node.ofString())));
+		
+		// every third config has an invalid port and every fifth config is missing a backend
+		List<ConfigWrapper> wrappers = IntStream.range(0, 1000).<ConfigWrapper>mapToObj(i -> new SnakeYamlConfigWrapper(Map.of(
+				"name", "tenant" + i,
+				"port", i % 3 == 0 ? -1 : 8080,
+				"routes", List.of(i % 5 == 0 ? Map.of() : Map.of("backend", "b"))))).toList();
+		
+		for(int parallelism : new int[] {1, 4}) {
+			BatchValidationReport report = spec.validateAll(wrappers, parallelism);
+			assertEquals(1000, report.size());
+			for(int i = 0; i < 1000; i++) {
+				assertEquals(i % 3 != 0 && i % 5 != 0, report.passed(i), "index " + i);
+			}
+			assertEquals(2, report.getFailuresByPath().size(), report::toString);
+			assertEquals(334, report.getFailuresByPath().get("port").count());
+			assertEquals(0, report.getFailuresByPath().get("port").firstIndex());
+			assertTrue(report.getFailuresByPath().get("port").firstFailMessage().contains("Invalid port: -1"));
+			assertEquals(200, report.getFailuresByPath().get("routes[0].backend").count());
+		}
+		
+		assertTrue(spec.validateAll(wrappers.stream().skip(1).limit(1), 2).allPassed());
+		
+	}
+	
+	@Test
+	void batchReportPathsTest() {
+		
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+		ConfigSpec<ConfigWrapper> host = Cfg.newSpec().addNode("port", Cfg.Node.ofInteger(port -> {
+			threads.add(Thread.currentThread().getName());
+			return port > 0 ? ConfigFilterResult.pass(port) : ConfigFilterResult.fail("Invalid port: " + port);
+		}));
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("hosts", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), host).parallel(16))
+				.addNode("weights", Cfg.List.ofInteger(ConfigFilter.nullFilter(), weight -> weight >= 0 ? ConfigFilterResult.pass(weight) : ConfigFilterResult.fail("Negative")))
+				.addNode("limits", Cfg.newSpec().addNode("min", Cfg.Node.ofInteger()).addNode("max", Cfg.Node.ofInteger())
+						.withFilter((ConfigWrapper limits) -> limits.getInteger("min") <= limits.getInteger("max") ? ConfigFilterResult.pass(limits) : ConfigFilterResult.fail("min > max")));
+		
+		List<Map<String, Object>> hosts = IntStream.range(0, 1000).<Map<String, Object>>mapToObj(i -> Map.of("port", i == 700 ? 0 : 8080)).toList();
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(Map.of("hosts", hosts, "weights", List.of(1, -1, -2), "limits", Map.of("min", 5, "max", 1)));
+		BatchValidationReport report = spec.validateAll(List.of(wrapper, wrapper), 1);
+		
+		assertEquals(Set.of("hosts[700].port", "weights", "limits"), report.getFailuresByPath().keySet(), report::toString);
+		assertEquals(2, report.getFailuresByPath().get("hosts[700].port").count());
+		assertTrue(report.getFailuresByPath().get("weights").firstFailMessage().contains("Negative"));
+		assertTrue(report.getFailuresByPath().get("limits").firstFailMessage().endsWith("min > max"));
+		// recording the failures does not keep the list from validating its elements in parallel
+		if(ForkJoinPool.getCommonPoolParallelism() > 1) {
+			assertTrue(threads.size() > 1, threads::toString);
+		}
+		
+	}
+
+}
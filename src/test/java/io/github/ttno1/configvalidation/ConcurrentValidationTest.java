@@ -0,0 +1,122 @@
+package io.github.ttno1.configvalidation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ttno1.configvalidation.defaultwrappers.SnakeYamlConfigWrapper;
+
+public class ConcurrentValidationTest {
+	
+	private static final int THREADS = 8;
+	
+	@Test
+	void freezeTest() {
+		
+		ConfigSpec<ConfigWrapper> nested = Cfg.newSpec().addNode("port", Cfg.Node.ofInteger());
+		ConfigSpec<ConfigWrapper> element = Cfg.newSpec().addNode("name", Cfg.Node.ofString());
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("server", nested)
+				.addNode("users", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), element));
+		ConfigSpec<ConfigWrapper> frozen = spec.freeze();
+		
+		assertFalse(spec.isFrozen());
+		assertTrue(frozen.isFrozen());
+		assertSame(frozen, frozen.freeze());
+		assertTrue(frozen.thenRun(wrapper -> {}).isFrozen());
+		assertThrows(IllegalStateException.class, () -> frozen.addNode("other", Cfg.Node.ofString()));
+		assertThrows(IllegalStateException.class, () -> frozen.addNodes(new HashMap<String, ConfigNode<?, ?>>(Map.of("other", Cfg.Node.ofString()))));
+		
+		// nodes added after freezing, including to nested specs, are not seen by the frozen spec
+		spec.addNode("missing", Cfg.Node.ofString());
+		nested.addNode("missing", Cfg.Node.ofString());
+		element.addNode("missing", Cfg.Node.ofString());
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(Map.of("server", Map.of("port", 80), "users", List.of(Map.of("name", "a"))));
+		assertTrue(frozen.validate(wrapper).passed(), () -> frozen.validate(wrapper).getFailMessage());
+		ConfigValidationResult result = spec.validate(wrapper);
+		assertFalse(result.passed());
+		assertEquals(3, result.getFailMessage().lines().filter(line -> line.contains("missing - ")).count(), result::getFailMessage);
+		
+	}
+	
+	@Test
+	void concurrentValidationStressTest() throws Exception {
+		
+		ConfigSpec<ConfigWrapper> spec = newSpec().freeze();
+		List<ConfigWrapper> configs = new ArrayList<ConfigWrapper>();
+		List<ConfigValidationResult> expected = new ArrayList<ConfigValidationResult>();
+		for(int i = 0; i < 64; i++) {
+			ConfigWrapper config = newConfig(i);
+			configs.add(config);
+			expected.add(spec.validate(config));
+		}
+		assertTrue(expected.stream().anyMatch(ConfigValidationResult::passed));
+		assertTrue(expected.stream().anyMatch(result -> !result.passed()));
+		
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			CyclicBarrier barrier = new CyclicBarrier(THREADS);
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for(int t = 0; t < THREADS; t++) {
+				int offset = t;
+				futures.add(executor.submit(() -> {
+					barrier.await();
+					for(int i = 0; i < 2000; i++) {
+						int index = (i * 7 + offset) % configs.size();
+						ValidationOptions options = i % 3 == 0 ? ValidationOptions.defaults().withSubtreeMemoization(true) : ValidationOptions.defaults();
+						ConfigValidationResult result = spec.validate(configs.get(index), options);
+						assertEquals(expected.get(index).passed(), result.passed());
+						if(!result.passed()) {
+							assertEquals(expected.get(index).getFailMessage(), result.getFailMessage());
+						}
+					}
+					return null;
+				}));
+			}
+			for(Future<?> future : futures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		
+	}
+	
+	private static ConfigFilter<Integer, Integer> range(int min, int max) {
+		return value -> value >= min && value <= max ? ConfigFilterResult.pass(value) : ConfigFilterResult.fail("Out of range: " + value);
+	}
+	
+	private static ConfigSpec<ConfigWrapper> newSpec() {
+		return Cfg.newSpec()
+				.addNode("name", Cfg.Node.ofString(name -> name.matches("[a-z]+") ? ConfigFilterResult.pass(name) : ConfigFilterResult.fail("Invalid name: " + name)))
+				.addNode("server", Cfg.newSpec()
+						.addNode("host", Cfg.Node.ofString())
+						.addNode("port", Cfg.Node.ofInteger(range(1, 65535))))
+				.addNode("users", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), Cfg.newSpec()
+						.addNode("id", Cfg.Node.ofInteger(range(0, 100)))
+						.addNode("roles", Cfg.List.ofString())));
+	}
+	
+	private static ConfigWrapper newConfig(int seed) {
+		List<Map<String, Object>> users = new ArrayList<Map<String, Object>>();
+		for(int i = 0; i < 10; i++) {
+			users.add(Map.of("id", (seed * 13 + i) % 110, "roles", List.of("admin", "user")));
+		}
+		Map<String, Object> config = new HashMap<String, Object>();
+		config.put("name", seed % 5 == 0 ? "Invalid Name" : "valid");
+		config.put("server", Map.of("host", "localhost", "port", seed % 7 == 0 ? 0 : 8080));
+		config.put("users", users);
+		return new SnakeYamlConfigWrapper(config);
+	}
+	
+}
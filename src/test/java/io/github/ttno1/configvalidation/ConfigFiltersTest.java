@@ -0,0 +1,214 @@
+package io.github.ttno1.configvalidation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ttno1.configvalidation.defaultwrappers.MapConfigWrapper;
+
+public class ConfigFiltersTest {
+	
+	@Test
+	void regexFilterTest() {
+		
+		ConfigFilter<String, String> semver = ConfigFilters.matches("\\d+\\.\\d+\\.\\d+");
+		assertTrue(semver.filter("1.20.3").passed());
+		assertFalse(semver.filter("1.20").passed());
+		assertEquals("Invalid string, does not match the pattern \\d+\\.\\d+\\.\\d+: v1.2.3", semver.filter("v1.2.3").getFailMessage());
+		assertTrue(ConfigFilters.matches(Pattern.compile("[a-z]+", Pattern.CASE_INSENSITIVE)).filter("Hello").passed());
+		assertThrows(IllegalArgumentException.class, () -> ConfigFilters.matches("[a-z"));
+		
+	}
+	
+	@Test
+	void multiPatternFilterTest() {
+		
+		assertEquals("example.com", PatternSet.literal("example\\.com"));
+		assertEquals("my-host", PatternSet.literal("my-host"));
+		assertEquals("a+b", PatternSet.literal("\\Qa+b\\E"));
+		assertNull(PatternSet.literal(".*\\.example\\.com"));
+		assertNull(PatternSet.literal("host\\d"));
+		assertEquals("host", PatternSet.prefix("host\\d+\\.example\\.com"));
+		assertEquals("ho", PatternSet.prefix("hos?t\\d"));
+		assertEquals("a.", PatternSet.prefix("a\\.+b*"));
+		assertEquals("", PatternSet.prefix("abc|def"));
+		assertEquals("", PatternSet.prefix("(?i)abc"));
+		
+		List<String> allowed = new ArrayList<String>();
+		IntStream.range(0, 300).forEach(i -> allowed.add("host" + i + "\\.example\\.com"));
+		allowed.add("[a-z]+\\.internal");
+		allowed.add("(?i)CDN-\\d+\\.example\\.net");
+		ConfigFilter<String, String> allowlist = ConfigFilters.matchesAny(allowed);
+		assertTrue(allowlist.filter("host299.example.com").passed());
+		assertTrue(allowlist.filter("db.internal").passed());
+		assertTrue(allowlist.filter("cdn-12.example.net").passed());
+		assertFalse(allowlist.filter("host300.example.com").passed());
+		assertFalse(allowlist.filter("hostAexample.com").passed());
+		assertFalse(allowlist.filter("db.internal.evil").passed());
+		assertEquals("Invalid string, does not match any of the allowed patterns: evil.com", allowlist.filter("evil.com").getFailMessage());
+		
+		ConfigFilter<String, String> denylist = ConfigFilters.matchesNone(List.of("localhost", "127\\.\\d+\\.\\d+\\.\\d+"));
+		assertTrue(denylist.filter("example.com").passed());
+		assertFalse(denylist.filter("localhost").passed());
+		assertEquals("Invalid string, matches a denied pattern: 127.0.0.1", denylist.filter("127.0.0.1").getFailMessage());
+		assertTrue(ConfigFilters.matchesNone(List.of()).filter("anything").passed());
+		
+		assertThrows(IllegalArgumentException.class, () -> ConfigFilters.matchesAny(List.of("valid", "(invalid")));
+		ConfigFilter<String, String> repeated = ConfigFilters.matchesAny(List.of("(a+)-\\1", "(b+)=\\1"));
+		assertTrue(repeated.filter("aa-aa").passed());
+		assertTrue(repeated.filter("b=b").passed());
+		assertFalse(repeated.filter("bb=b").passed());
+		
+		List<String> hosts = IntStream.range(0, 1000).mapToObj(i -> "host" + (i % 310) + ".example.com").toList();
+		ConfigFilterResult<List<String>> result = ConfigFilters.forEach(allowlist).filter(hosts);
+		assertEquals(30, result.getFailMessage().lines().count() - 1);
+		
+	}
+	
+	@Test
+	void patternAutomatonTest() {
+		
+		// every regular pattern matches the same strings as java.util.regex
+		List<String> regexes = List.of("abc", "a.c", "a*b+c?", "(ab|cd){2,3}", "x{0,2}y{2,}", "[a-c0-9-]+", "[^a-c]\\d\\W", "(?i)[a-c]x(?:Yz)*", 
+				"(?i)[^a]", "\\w+@\\w+\\.com", "\\Qa.b\\E.", "^a|b$", "a+?b??", "[\\s.]\\S", "\\u00e9\\x41", "(a|)*b", "[a-]x", ".*\\.example\\.com");
+		List<String> inputs = List.of("", "abc", "aXc", "a\nc", "bbbc", "ab", "abab", "cdabcd", "ababababab", "yy", "xxyyy", "xxxyy", "a-9", "d1!", 
+				"a1!", "bX", "BXyzYZ", "dxyz", "A", "a", "b", "me@host.com", "a.bc", "axbc", "a", "aab", " x", "éA", "aab", "b", "-x", "x.example.com", 
+				"example.com", "a.example.com\n", "\uD83D\uDE00.example.com");
+		for(String regex : regexes) {
+			Pattern pattern = Pattern.compile(regex);
+			assertNotNull(PatternAutomaton.parse(regex), regex);
+			PatternAutomaton automaton = PatternAutomaton.of(List.of(pattern));
+			for(String input : inputs) {
+				assertEquals(pattern.matcher(input).matches(), automaton.matches(input), regex + " on " + input);
+			}
+		}
+		for(String regex : List.of("(a)\\1", "a(?=b)b", "a*+", "(?i:a)", "\\bword", "\\p{L}", "[a[b]]", "a(?i)b")) {
+			assertNull(PatternAutomaton.parse(regex), regex);
+		}
+		
+		// host name patterns without a literal prefix are matched together in one pass
+		List<String> allowed = new ArrayList<String>();
+		IntStream.range(0, 100).forEach(i -> {
+			allowed.add(".*\\.tenant" + i + "\\.example\\.com");
+			allowed.add("[a-z0-9-]+\\.corp" + i + "\\.net");
+			allowed.add("(?i)svc-\\d+\\.zone" + i + "\\.internal");
+		});
+		PatternAutomaton automaton = PatternAutomaton.of(allowed.stream().map(Pattern::compile).toList());
+		assertNotNull(automaton);
+		assertTrue(automaton.size() < PatternAutomaton.MAX_STATES, () -> String.valueOf(automaton.size()));
+		assertTrue(automaton.matches("api.eu.tenant42.example.com"));
+		assertTrue(automaton.matches("db-1.corp99.net"));
+		assertTrue(automaton.matches("SVC-7.Zone0.internal"));
+		assertFalse(automaton.matches("api.tenant100.example.com"));
+		assertFalse(automaton.matches("DB.corp1.net"));
+		assertFalse(automaton.matches("svc-.zone1.internal"));
+		ConfigFilter<String, String> allowlist = ConfigFilters.matchesAny(allowed);
+		assertTrue(allowlist.filter("www.tenant7.example.com").passed());
+		assertFalse(allowlist.filter("www.tenant7.example.com.evil.org").passed());
+		
+	}
+	
+	@Test
+	void rangeFilterTest() {
+		
+		ConfigFilter<Integer, Integer> port = ConfigFilters.range(1, 65535);
+		Integer value = 8080;
+		assertSame(value, port.filter(value).getResult());
+		assertTrue(port.filter(1).passed());
+		assertEquals("Invalid value, must be between 1 and 65535: 0", port.filter(0).getFailMessage());
+		assertEquals("Invalid value, must be at least 5: 4", ConfigFilters.min(5L).filter(4L).getFailMessage());
+		assertEquals("Invalid value, must be at most 0.5: 0.75", ConfigFilters.max(0.5).filter(0.75).getFailMessage());
+		assertFalse(ConfigFilters.min(0.0).filter(Double.NaN).passed());
+		assertFalse(port.filter(null).passed());
+		assertTrue(ConfigFilters.max(Long.MAX_VALUE).filter(Long.MAX_VALUE).passed());
+		assertThrows(IllegalArgumentException.class, () -> ConfigFilters.range(2, 1));
+		assertThrows(IllegalArgumentException.class, () -> ConfigFilters.range(Double.NaN, 1.0));
+		
+		int[] calls = {0};
+		ConfigFilterResult<Object> lazy = ConfigFilterResult.fail(() -> "Message " + ++calls[0]);
+		assertEquals(0, calls[0]);
+		assertEquals("Message 1", lazy.getFailMessage());
+		assertEquals("Message 1", lazy.getFailMessage());
+		
+		List<Integer> ports = Arrays.asList(80, 0, 443, 70000, null);
+		ConfigFilterResult<List<Integer>> forEachResult = ConfigFilters.forEach(port).filter(ports);
+		assertEquals(List.of("Invalid value, must be between 1 and 65535: 0", "Invalid value, must be between 1 and 65535: 70000", 
+				"Invalid value, must be between 1 and 65535: null"), forEachResult.getFailMessage().lines().skip(1).toList());
+		assertEquals(List.of(80, 443), ConfigFilters.forEach(port).filter(List.of(80, 443)).getResult());
+		
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec().addNode("ports", Cfg.List.ofInteger(ConfigFilter.nullFilter(), port));
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("ports", List.of(80, 443));
+		assertTrue(spec.validate(new MapConfigWrapper(map, "\\.")).passed());
+		map.put("ports", List.of(80, 0, 443, 70000));
+		String message = spec.validate(new MapConfigWrapper(map, "\\.")).getFailMessage();
+		assertEquals(List.of("Invalid value, must be between 1 and 65535: 0", "Invalid value, must be between 1 and 65535: 70000"), 
+				message.lines().skip(2).toList());
+		assertFalse(spec.validate(new MapConfigWrapper(map, "\\."), ValidationOptions.defaults().withFailFast(true)).getFailMessage().contains("70000"));
+		
+	}
+	
+	@Test
+	void listConstraintTest() {
+		
+		ConfigFilter<List<Integer>, List<Integer>> unique = ConfigFilters.unique();
+		assertTrue(unique.filter(List.of()).passed());
+		assertTrue(unique.filter(List.of(1, 2, 3)).passed());
+		assertEquals("The list contains duplicate values:" + System.lineSeparator() + "80 at [0, 3, 5-7]" + System.lineSeparator() + "443 at [1, 4]", 
+				unique.filter(List.of(80, 443, 22, 80, 443, 80, 80, 80)).getFailMessage());
+		assertTrue(ConfigFilters.<Object>unique().filter(List.of(1, 1L, 1.0)).passed());
+		assertFalse(ConfigFilters.<Object>unique().filter(List.of(1, "a", 1)).passed());
+		assertFalse(ConfigFilters.<Double>unique().filter(List.of(Double.NaN, 0.5, Double.NaN)).passed());
+		assertTrue(ConfigFilters.<Double>unique().filter(List.of(0.0, -0.0)).passed());
+		
+		List<Integer> large = IntStream.range(0, 100_000).boxed().toList();
+		assertTrue(unique.filter(large).passed());
+		List<Integer> repeated = IntStream.range(0, 100_000).map(i -> i % 50_000).boxed().toList();
+		String message = unique.filter(repeated).getFailMessage();
+		assertEquals(UniqueFilter.MAX_REPORTED_KEYS + 2, message.lines().count());
+		assertEquals("... and 49990 more duplicated values", message.lines().reduce((a, b) -> b).get());
+		assertEquals("7 at [0-10]", unique.filter(Collections.nCopies(11, 7)).getFailMessage().lines().skip(1).findFirst().get());
+		List<Integer> alternating = IntStream.range(0, 30).map(i -> 7 + i % 2).boxed().toList();
+		assertEquals("7 at [0, 2, 4, 6, 8, 10, 12, 14, 16, 18, ... (15 total)]", unique.filter(alternating).getFailMessage().lines().skip(1).findFirst().get());
+		
+		ConfigSpec<ConfigWrapper> route = Cfg.newSpec().addNode("name", Cfg.Node.ofString());
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec().addNode("routes", Cfg.List.ofConfigSpec(ConfigFilters.uniqueBy(w -> w.getString("name")), route));
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("routes", List.of(Map.of("name", "a"), Map.of("name", "b"), Map.of("name", "a")));
+		assertTrue(spec.validate(new MapConfigWrapper(map, "\\.")).getFailMessage().contains("a at [0, 2]"));
+		map.put("routes", List.of(Map.of("name", "a"), Map.of("name", "b")));
+		assertTrue(spec.validate(new MapConfigWrapper(map, "\\.")).passed());
+		
+		// a key that ends the primitive fast path does not extract the earlier keys again
+		int[] extractions = {0};
+		ConfigFilter<List<Integer>, List<Integer>> byLabel = ConfigFilters.uniqueBy(i -> {
+			extractions[0]++;
+			return i < 3 ? (Object) i : "label" + i % 4;
+		});
+		assertEquals("The list contains elements with duplicate keys:" + System.lineSeparator() + "label3 at [3, 7]" 
+				+ System.lineSeparator() + "label0 at [4, 8]", 
+				byLabel.filter(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8)).getFailMessage());
+		assertEquals(9, extractions[0]);
+		
+		assertTrue(ConfigFilters.<Integer>sorted().filter(List.of(1, 2, 2, 5)).passed());
+		assertEquals("The list is not sorted, the element at [2] comes before the element preceding it: 1 < 3", 
+				ConfigFilters.<Integer>sorted().filter(List.of(2, 3, 1)).getFailMessage());
+		assertTrue(ConfigFilters.<Integer>sorted(Comparator.reverseOrder()).filter(List.of(3, 2, 1)).passed());
+		
+		assertTrue(ConfigFilters.<Integer>maxSize(2).filter(List.of(1, 2)).passed());
+		assertEquals("The list contains 3 elements, at most 2 are allowed", ConfigFilters.<Integer>maxSize(2).filter(List.of(1, 2, 3)).getFailMessage());
+		assertThrows(IllegalArgumentException.class, () -> ConfigFilters.maxSize(-1));
+		
+	}
+	
+}
@@ -3,7 +3,10 @@ package io.github.ttno1.configvalidation;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
 
 import org.apache.commons.configuration2.builder.fluent.Configurations;
 import org.junit.jupiter.api.BeforeEach;
@@ -91,4 +94,35 @@ public class ConfigListTest {
 		
 	}
 
+	@Test
+	void parallelListValidationTest() {
+		
+		List<Map<String, Object>> routes = IntStream.range(0, 5000).<Map<String, Object>>mapToObj(n -> Map.of("id", n, "backend", n % 7 == 0 ? "" : "b" + n)).toList();
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(Map.of("routes", routes, "ids", IntStream.range(0, 5000).boxed().toList()));
+		
+		ConfigSpec<ConfigWrapper> route = Cfg.newSpec()
+				.addNode("id", Cfg.Node.ofInteger())
+				.addNode("backend", Cfg.Node.ofString(s -> s.isEmpty() ? ConfigFilterResult.fail("Empty backend") : ConfigFilterResult.pass(s)));
+		ConfigFilter<Integer, Integer> evenId = id -> id % 2 == 0 ? ConfigFilterResult.pass(id * 2) : ConfigFilterResult.fail("Odd id: " + id);
+		
+		ConfigValidationResult sequential = Cfg.newSpec().addNode("routes", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), route)).validate(wrapper);
+		ConfigValidationResult parallel = Cfg.newSpec().addNode("routes", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), route).parallel(64)).validate(wrapper);
+		assertFalse(parallel.passed());
+		assertEquals(sequential.getFailMessage(), parallel.getFailMessage());
+		
+		List<Integer> ids = IntStream.range(0, 5000).boxed().toList();
+		ConfigFilterResult<List<Integer>> sequentialIds = ConfigFilters.forEach(evenId).filter(ids);
+		ConfigFilterResult<List<Integer>> parallelIds = ConfigFilters.forEachParallel(evenId, 100).filter(ids);
+		assertEquals(sequentialIds.getFailMessage(), parallelIds.getFailMessage());
+		
+		List<Integer> evenIds = IntStream.range(0, 5000).map(n -> n * 2).boxed().toList();
+		assertEquals(ConfigFilters.forEach(evenId).filter(evenIds).getResult(), ConfigFilters.forEachParallel(evenId, 100).filter(evenIds).getResult());
+		
+		List<Integer> doubled = new ArrayList<Integer>();
+		assertTrue(Cfg.newSpec().addNode("ids", Cfg.List.ofInteger(ConfigFilter.run(doubled::addAll), id -> ConfigFilterResult.pass(id * 2)).parallel(10))
+				.validate(wrapper).passed());
+		assertEquals(IntStream.range(0, 5000).map(n -> n * 2).boxed().toList(), doubled);
+		
+	}
+	
 }
@@ -6,6 +6,16 @@ import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 
 import org.apache.commons.configuration2.builder.fluent.Configurations;
 import org.junit.jupiter.api.Test;
@@ -132,5 +142,102 @@ public class ConfigNodeTest {
 		assertTrue(result.passed(), result::getFailMessage);
 		
 	}
-
+	
+	@Test
+	void crossReferenceTest() {
+		
+		ConfigSpec<ConfigWrapper> backend = Cfg.newSpec().addNode("name", Cfg.Node.ofString());
+		ConfigSpec<ConfigWrapper> route = Cfg.newSpec().addNode("backend", Cfg.Node.ofString());
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("backends", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), backend))
+				.addNode("routes", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), route))
+				.addReference("routes[*].backend", "backends[*].name")
+				.addReference("fallbacks[*]", "backends[*].name");
+		
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("backends", List.of(Map.of("name", "a"), Map.of("name", "b")));
+		map.put("routes", List.of(Map.of("backend", "a"), Map.of("backend", "b"), Map.of("backend", "a")));
+		map.put("fallbacks", List.of("b"));
+		assertTrue(spec.validate(new SnakeYamlConfigWrapper(map)).passed());
+		
+		map.put("routes", List.of(Map.of("backend", "a"), Map.of("backend", "c"), Map.of("backend", "d")));
+		map.put("fallbacks", List.of("b", "e"));
+		assertEquals(List.of("routes[1].backend - The referenced value does not exist at backends[*].name: c", 
+				"routes[2].backend - The referenced value does not exist at backends[*].name: d", 
+				"fallbacks[1] - The referenced value does not exist at backends[*].name: e"), 
+				spec.validate(new SnakeYamlConfigWrapper(map)).getFailMessage().lines().skip(1).toList());
+		assertEquals(3, spec.freeze().validate(new SnakeYamlConfigWrapper(map)).getFailMessage().lines().count() - 1);
+		
+		// references are not checked when the nodes they depend on fail
+		map.put("backends", List.of(Map.of("name", 1)));
+		String failMessage = spec.validate(new SnakeYamlConfigWrapper(map)).getFailMessage();
+		assertTrue(failMessage.contains("backends - "));
+		assertFalse(failMessage.contains("referenced"));
+		
+		map.put("backends", IntStream.range(0, 100_000).mapToObj(i -> Map.of("name", "backend" + i)).toList());
+		map.put("routes", IntStream.range(0, 100_000).mapToObj(i -> Map.of("backend", "backend" + (99_999 - i))).toList());
+		map.put("fallbacks", List.of());
+		assertTrue(spec.validate(new SnakeYamlConfigWrapper(map)).passed());
+		
+		assertThrows(IllegalArgumentException.class, () -> spec.addReference("routes[*]backend", "backends[*].name"));
+		assertThrows(IllegalArgumentException.class, () -> spec.addReference("[*].backend", "backends[*].name"));
+		assertThrows(IllegalStateException.class, () -> spec.freeze().addReference("routes[*].backend", "backends[*].name"));
+		
+	}
+	
+	@Test
+	void lazyValidationTest() throws Exception {
+		
+		AtomicInteger validations = new AtomicInteger();
+		ConfigSpec<String> feature = Cfg.newSpec((ConfigWrapper w) -> {
+			validations.incrementAndGet();
+			return ConfigFilterResult.pass(w.getString("mode"));
+		}).addNode("mode", Cfg.Node.ofString());
+		AtomicReference<LazyValue<String>> lazy = new AtomicReference<LazyValue<String>>();
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("name", Cfg.Node.ofString())
+				.addNode("feature", feature.lazy().thenRun(lazy::set));
+		
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("name", "service");
+		assertFalse(spec.validate(new SnakeYamlConfigWrapper(map)).passed());
+		
+		map.put("feature", Map.of("mode", 1));
+		assertTrue(spec.validate(new SnakeYamlConfigWrapper(map)).passed());
+		assertFalse(lazy.get().isValidated());
+		ConfigValidationException exception = assertThrows(ConfigValidationException.class, lazy.get()::get);
+		assertTrue(exception.getMessage().contains("mode - The node is not of type: STRING"));
+		assertTrue(lazy.get().isValidated());
+		assertSame(exception.getResult().getFailMessage(), assertThrows(ConfigValidationException.class, lazy.get()::get).getResult().getFailMessage());
+		assertEquals(0, validations.get());
+		
+		map.put("feature", Map.of("mode", "fast"));
+		assertTrue(spec.freeze().validate(new SnakeYamlConfigWrapper(map)).passed());
+		LazyValue<String> value = lazy.get();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<String>> futures = IntStream.range(0, 8).mapToObj(i -> executor.submit(() -> {
+				start.await();
+				return value.get();
+			})).toList();
+			start.countDown();
+			for(Future<String> future : futures) {
+				assertEquals("fast", future.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, validations.get());
+		
+		// a frozen parent keeps the child spec as it was, even through a node derived with thenRun
+		ConfigSpec<ConfigWrapper> frozen = spec.freeze();
+		feature.addNode("required", Cfg.Node.ofString());
+		assertTrue(frozen.validate(new SnakeYamlConfigWrapper(map)).passed());
+		assertEquals("fast", lazy.get().get());
+		assertTrue(spec.validate(new SnakeYamlConfigWrapper(map)).passed());
+		assertThrows(ConfigValidationException.class, lazy.get()::get);
+		
+	}
+	
 }
@@ -0,0 +1,88 @@
+package io.github.ttno1.configvalidation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import io.github.ttno1.configvalidation.defaultwrappers.SnakeYamlConfigWrapper;
+
+public class ConfigRecordTest {
+
+	@Test
+	void generatedBinderTest() {
+		
+		InputStream yamlStream = ConfigRecordTest.class.getResourceAsStream("/testYamlConfig.yaml");
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(new Yaml().load(yamlStream));
+		assertDoesNotThrow(yamlStream::close);
+		
+		assertTrue(TestConfigRecordBinder.validate(wrapper).passed());
+		assertTrue(TestConfigRecordBinder.spec().validate(wrapper).passed());
+		
+		TestConfigRecord record = TestConfigRecordBinder.bind(wrapper);
+		assertEquals(true, record.topBoolean());
+		assertEquals(Integer.MAX_VALUE, record.topInteger());
+		assertEquals("Test Config String value 1234 false", record.string());
+		assertEquals(assertDoesNotThrow(() -> new URI("https://www.example.com").toURL()), record.topUrl());
+		assertEquals(TestEnum.TEST_ENUM_VALUE, record.topEnum());
+		assertEquals(Long.MAX_VALUE, record.subLong());
+		assertEquals(new TestConfigRecord.Node("Test Config String value 1234 false", Path.of("C:\\test\\path\\dir\\file.txt")), record.node());
+		
+	}
+	
+	@Test
+	void generatedBinderFailureTest() {
+		
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(Map.of("configSectionList", List.of(Map.of("title", "a", "description", "not an enum"))));
+		
+		ConfigValidationResult result = TestConfigRecord_ListsBinder.validate(wrapper);
+		ConfigValidationResult specResult = TestConfigRecord_ListsBinder.spec().validate(wrapper);
+		assertFalse(result.passed());
+		assertFalse(specResult.passed());
+		assertTrue(result.getFailMessage().contains("doubleList - The node is not contained in the config"), result::getFailMessage);
+		assertTrue(result.getFailMessage().contains("Invalid string, could not be converted to an enum value: not an enum"), result::getFailMessage);
+		assertThrows(ConfigValidationException.class, () -> TestConfigRecord_ListsBinder.bind(wrapper));
+		
+	}
+	
+	@Test
+	void generatedListBinderTest() {
+		
+		InputStream yamlStream = ConfigRecordTest.class.getResourceAsStream("/testListYamlConfig.yaml");
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(new Yaml().load(yamlStream));
+		assertDoesNotThrow(yamlStream::close);
+		
+		// descriptions are not enum values
+		assertFalse(TestConfigRecord_ListsBinder.validate(wrapper).passed());
+		assertFalse(TestConfigRecord_ListsBinder.spec().validate(wrapper).passed());
+		
+		ConfigWrapper validWrapper = new SnakeYamlConfigWrapper(Map.of("doubleList", List.of(1.5D, 2.5D),
+				"configSectionList", List.of(Map.of("title", "a", "description", "test enum value"))));
+		TestConfigRecord.Lists lists = TestConfigRecord_ListsBinder.bind(validWrapper);
+		assertEquals(List.of(1.5D, 2.5D), lists.doubleList());
+		assertEquals(List.of(new TestConfigRecord.Section("a", TestEnum.TEST_ENUM_VALUE)), lists.configSectionList());
+		assertEquals(1, TestConfigRecord_WrappersBinder.bind(validWrapper).sections().size());
+		assertTrue(TestConfigRecord_ListsBinder.spec().validate(validWrapper).passed());
+		
+	}
+	
+	@Test
+	void generatedPrimitiveBinderTest() {
+		
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(Map.of("count", 3, "name", "abc"));
+		
+		ConfigValidationResult result = TestConfigRecord_PrimitivesBinder.validate(wrapper);
+		assertFalse(result.passed());
+		assertTrue(result.getFailMessage().contains("name - The node's value is null, which cannot be bound to a primitive component"), result::getFailMessage);
+		assertFalse(result.getFailMessage().contains("count"), result::getFailMessage);
+		assertThrows(ConfigValidationException.class, () -> TestConfigRecord_PrimitivesBinder.bind(wrapper));
+		
+	}
+
+}
@@ -0,0 +1,435 @@
+package io.github.ttno1.configvalidation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import io.github.ttno1.configvalidation.defaultwrappers.CachingConfigWrapper;
+import io.github.ttno1.configvalidation.defaultwrappers.CommonsConfigWrapper;
+import io.github.ttno1.configvalidation.defaultwrappers.EnvironmentConfigWrapper;
+import io.github.ttno1.configvalidation.defaultwrappers.LayeredConfigWrapper;
+import io.github.ttno1.configvalidation.defaultwrappers.PayloadCursor;
+import io.github.ttno1.configvalidation.defaultwrappers.SnakeYamlConfigWrapper;
+import io.github.ttno1.configvalidation.defaultwrappers.TrackingMap;
+import io.github.ttno1.configvalidation.defaultwrappers.VersionedCommonsConfigWrapper;
+import io.github.ttno1.configvalidation.defaultwrappers.VersionedMapConfigWrapper;
+
+public class ConfigWrapperTest {
+
+	@Test
+	void layeredConfigWrapperTest() {
+		
+		SnakeYamlConfigWrapper defaults = new SnakeYamlConfigWrapper(new Yaml().load("""
+				server:
+				  host: localhost
+				  port: 8080
+				  tls:
+				    enabled: false
+				    cert:
+				      path: /etc/cert.pem
+				logging:
+				  level: INFO
+				hosts: [a, b]
+				"""));
+		SnakeYamlConfigWrapper site = new SnakeYamlConfigWrapper(new Yaml().load("""
+				server:
+				  port: 9090
+				  tls: disabled
+				logging:
+				  file: /var/log/app.log
+				"""));
+		BaseConfiguration environment = new BaseConfiguration();
+		environment.addProperty("server.host", "example.com");
+		environment.addProperty("logging.level", "verbose");
+		
+		Map<String, ConfigWrapper> layers = new LinkedHashMap<String, ConfigWrapper>();
+		layers.put("defaults", defaults);
+		layers.put("site", site);
+		layers.put("environment", new CommonsConfigWrapper(environment));
+		LayeredConfigWrapper wrapper = new LayeredConfigWrapper(layers);
+		
+		assertEquals("example.com", wrapper.getString("server.host"));
+		assertEquals(9090, wrapper.getInteger("server.port"));
+		assertEquals("/var/log/app.log", wrapper.getConfigSubsection("logging").getString("file"));
+		assertEquals(List.of("a", "b"), wrapper.getList("hosts", BaseType.STRING, String.class));
+		assertTrue(wrapper.isConfigSubsection("server"));
+		assertFalse(wrapper.isConfigSubsection("server.tls"));
+		assertFalse(wrapper.containsNode("server.tls.enabled"));
+		assertFalse(wrapper.containsNode("server.tls.cert"));
+		assertFalse(wrapper.containsNode("server.tls.cert.path"));
+		assertFalse(wrapper.containsNode("missing"));
+		assertEquals("environment", wrapper.getLayerName("server.host"));
+		assertEquals("site", wrapper.getLayerName("server.tls"));
+		assertEquals("site", ((LayeredConfigWrapper) wrapper.getConfigSubsection("server")).getLayerName("port"));
+		
+		Map<String, String> failedLayers = new HashMap<String, String>();
+		ConfigValidationResult result = Cfg.newSpec()
+				.addNode("server", Cfg.newSpec()
+						.addNode("host", Cfg.Node.ofString())
+						.addNode("port", Cfg.Node.ofInteger(ConfigFilters.range(1, 1024)))
+						.addNode("tls", Cfg.Node.ofString()))
+				.addNode("logging.level", Cfg.Node.ofString(ConfigFilters.validEnum(Level.class)))
+				.addNode("missing", Cfg.Node.ofString())
+				.validate(wrapper, ValidationOptions.defaults().withListener(wrapper.layerFailureListener((path, layerName, failMessage) -> {
+					failedLayers.put(path, layerName);
+				})));
+		assertFalse(result.passed());
+		assertTrue(result.getFailMessage().contains("logging.level - "), result::getFailMessage);
+		assertEquals("environment", wrapper.getLayerName("logging.level"));
+		assertEquals(Map.of("server.port", "site", "logging.level", "environment"), failedLayers);
+		
+	}
+	
+	@Test
+	void environmentConfigWrapperTest() {
+		
+		Map<String, String> variables = Map.of(
+				"APP_SERVER_HOST", "example.com",
+				"APP_SERVER_PORT", "8080",
+				"APP_SERVER_TLS", "TRUE",
+				"APP_ALLOWED_PORTS", "80, 443",
+				"app.logging.level", "INFO",
+				"app.pool.maxSize", "10",
+				"OTHER_VARIABLE", "ignored");
+		EnvironmentConfigWrapper wrapper = new EnvironmentConfigWrapper(variables, "APP");
+		
+		assertTrue(wrapper.isConfigSubsection("server"));
+		assertTrue(wrapper.containsNode("logging"));
+		assertFalse(wrapper.containsNode("other"));
+		assertFalse(wrapper.containsNode("variable"));
+		assertEquals(8080, wrapper.getInteger("server.port"));
+		assertFalse(wrapper.isInteger("server.host"));
+		assertEquals(8080, wrapper.getConfigSubsection("server").getInteger("port"));
+		assertTrue(wrapper.getConfigSubsection("server").getBoolean("tls"));
+		assertEquals(List.of(80, 443), wrapper.getList("allowed.ports", BaseType.INTEGER, Integer.class));
+		assertFalse(wrapper.isList("server.host", BaseType.INTEGER, Integer.class));
+		assertEquals("app.server.port", EnvironmentConfigWrapper.normalize("APP_SERVER_PORT"));
+		
+		// lookup paths are normalized like the variable names, so camel case paths match
+		assertTrue(wrapper.containsNode("pool.maxSize"));
+		assertEquals(10, wrapper.getInteger("pool.maxSize"));
+		assertEquals(10, wrapper.getConfigSubsection("Pool").getInteger("maxSize"));
+		assertEquals(10, new EnvironmentConfigWrapper(Map.of("app.maxPoolSize", "10"), "app").getInteger("maxPoolSize"));
+		
+		assertTrue(Cfg.newSpec()
+				.addNode("server", Cfg.newSpec()
+						.addNode("host", Cfg.Node.ofString())
+						.addNode("port", Cfg.Node.ofInteger())
+						.addNode("tls", Cfg.Node.ofBoolean()))
+				.addNode("allowed.ports", Cfg.List.ofInteger())
+				.addNode("logging.level", Cfg.Node.ofString(ConfigFilters.validEnum(Level.class)))
+				.addNode("pool.maxSize", Cfg.Node.ofInteger())
+				.validate(wrapper).passed());
+		
+		assertTrue(EnvironmentConfigWrapper.ofSystemProperties("java").isConfigSubsection("vm"));
+		
+	}
+	
+	@Test
+	void cachingConfigWrapperTest() {
+		
+		Map<String, Object> server = new LinkedHashMap<String, Object>(Map.of("host", "localhost", "port", 8080));
+		SnakeYamlConfigWrapper backend = new SnakeYamlConfigWrapper(Map.of("server", server, "hosts", List.of("a", "b")));
+		Map<String, Integer> calls = new HashMap<String, Integer>();
+		CachingConfigWrapper wrapper = new CachingConfigWrapper(counting(backend, calls));
+		
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("server", Cfg.newSpec()
+						.addNode("host", Cfg.Node.ofString())
+						.addNode("port", Cfg.Node.ofInteger()))
+				.addNode("server.port", Cfg.Node.ofInteger())
+				.addNode("hosts", Cfg.List.ofString());
+		for(int i = 0; i < 3; i++) {
+			assertTrue(spec.validate(wrapper).passed());
+		}
+		assertEquals(1, calls.get("containsNodeserver"));
+		assertEquals(1, calls.get("getConfigSubsectionserver"));
+		assertEquals(1, calls.get("isIntegerserver.port"));
+		assertEquals(1, calls.get("getListhosts"));
+		assertEquals(backend.getSource(), wrapper.getSource());
+		
+		server.put("port", "invalid");
+		assertTrue(spec.validate(wrapper).passed());
+		wrapper.invalidate("server.port");
+		ConfigValidationResult result = spec.validate(wrapper);
+		assertFalse(result.passed());
+		assertTrue(result.getFailMessage().contains("server.port - "), result::getFailMessage);
+		// the nested spec reads the port through the cached subsection, which is invalidated as well
+		assertTrue(result.getFailMessage().contains("port - "), result::getFailMessage);
+		assertEquals(1, calls.get("getConfigSubsectionserver"));
+		
+		wrapper.invalidate();
+		spec.validate(wrapper);
+		assertEquals(2, calls.get("getConfigSubsectionserver"));
+		
+		// sections read from a list are cached like any other subsection
+		Map<String, Object> route = new LinkedHashMap<String, Object>(Map.of("backend", "a"));
+		CachingConfigWrapper routes = new CachingConfigWrapper(new SnakeYamlConfigWrapper(Map.of("routes", List.of(route))));
+		List<ConfigWrapper> sections = routes.getList("routes", BaseType.CONFIG_SECTION, ConfigWrapper.class);
+		assertInstanceOf(CachingConfigWrapper.class, sections.get(0));
+		assertSame(sections, routes.getList("routes", BaseType.CONFIG_SECTION, ConfigWrapper.class));
+		assertEquals("a", sections.get(0).getString("backend"));
+		route.put("backend", "b");
+		assertEquals("a", sections.get(0).getString("backend"));
+		
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	void versionedConfigWrapperTest() {
+		
+		TrackingMap map = new TrackingMap(new Yaml().load("""
+				server:
+				  host: localhost
+				  tls:
+				    enabled: false
+				logging:
+				  level: INFO
+				"""));
+		VersionedMapConfigWrapper wrapper = new VersionedMapConfigWrapper(map, "\\.");
+		long root = wrapper.getVersion();
+		long server = wrapper.getVersion("server");
+		long tls = wrapper.getVersion("server.tls");
+		long logging = wrapper.getVersion("logging");
+		VersionedConfigWrapper serverSection = (VersionedConfigWrapper) wrapper.getConfigSubsection("server");
+		long sectionTls = serverSection.getVersion("tls");
+		
+		((Map<String, Object>) map.get("server")).put("host", "example.com");
+		assertNotEquals(root, wrapper.getVersion());
+		assertNotEquals(server, wrapper.getVersion("server"));
+		assertEquals(tls, wrapper.getVersion("server.tls"));
+		assertEquals(sectionTls, serverSection.getVersion("tls"));
+		assertEquals(logging, wrapper.getVersion("logging"));
+		assertEquals("example.com", wrapper.getString("server.host"));
+		
+		server = wrapper.getVersion("server.host");
+		map.put("server", Map.of("host", "other"));
+		assertNotEquals(server, wrapper.getVersion("server.host"));
+		assertEquals(logging, wrapper.getVersion("logging"));
+		assertThrows(UnsupportedOperationException.class, () -> map.entrySet().clear());
+		
+		BaseHierarchicalConfiguration config = new BaseHierarchicalConfiguration();
+		config.addProperty("server.host", "localhost");
+		config.addProperty("server.tls.enabled", false);
+		config.addProperty("routes.route(-1).backend", "a");
+		config.addProperty("routes.route(-1).backend", "b");
+		config.addProperty("logging.level", "INFO");
+		VersionedCommonsConfigWrapper commons = new VersionedCommonsConfigWrapper(config);
+		root = commons.getVersion();
+		server = commons.getVersion("server");
+		tls = commons.getVersion("server.tls.enabled");
+		logging = commons.getVersion("logging");
+		VersionedConfigWrapper tlsSection = (VersionedConfigWrapper) commons.getConfigSubsection("server.tls");
+		long tlsSectionVersion = tlsSection.getVersion();
+		List<ConfigWrapper> routes = commons.getList("routes.route", BaseType.CONFIG_SECTION, ConfigWrapper.class);
+		long route = ((VersionedConfigWrapper) routes.get(1)).getVersion();
+		
+		config.setProperty("server.tls.enabled", true);
+		assertNotEquals(root, commons.getVersion());
+		assertNotEquals(server, commons.getVersion("server"));
+		assertNotEquals(tls, commons.getVersion("server.tls.enabled"));
+		assertNotEquals(tlsSectionVersion, tlsSection.getVersion());
+		assertEquals(logging, commons.getVersion("logging"));
+		assertEquals(route, ((VersionedConfigWrapper) routes.get(1)).getVersion());
+		
+		config.setProperty("routes.route(0).backend", "c");
+		assertNotEquals(route, ((VersionedConfigWrapper) routes.get(1)).getVersion());
+		server = commons.getVersion("server.host");
+		config.clearTree("server");
+		assertNotEquals(server, commons.getVersion("server.host"));
+		logging = commons.getVersion("logging.level");
+		config.clear();
+		assertNotEquals(logging, commons.getVersion("logging.level"));
+		Configuration withoutEvents = (Configuration) Proxy.newProxyInstance(Configuration.class.getClassLoader(), new Class<?>[] {Configuration.class}, 
+				(proxy, method, args) -> null);
+		assertThrows(IllegalArgumentException.class, () -> new VersionedCommonsConfigWrapper(withoutEvents));
+		
+		int[] calls = {0};
+		CachingConfigWrapper caching = new CachingConfigWrapper(new VersionedMapConfigWrapper(map, "\\.") {
+			@Override
+			public String getString(String path) {
+				calls[0]++;
+				return super.getString(path);
+			}
+		});
+		assertEquals("other", caching.getString("server.host"));
+		assertEquals("other", caching.getString("server.host"));
+		assertEquals(1, calls[0]);
+		((Map<String, Object>) map.get("server")).put("host", "changed");
+		assertEquals("changed", caching.getString("server.host"));
+		assertEquals(2, calls[0]);
+		
+	}
+	
+	@Test
+	void hierarchicalCommonsConfigWrapperTest() {
+		
+		BaseHierarchicalConfiguration config = new BaseHierarchicalConfiguration();
+		config.addProperty("server.host", "localhost");
+		config.addProperty("server.port", 8080);
+		config.addProperty("server[@secure]", true);
+		config.addProperty("server.dotted..key", "dot");
+		config.addProperty("routes.route(-1).backend", "a");
+		config.addProperty("routes.route(-1).backend", "b");
+		config.addProperty("routes.route(-1).backend", "c");
+		config.addProperty("weights.weight", List.of(1.5, 2.5));
+		CommonsConfigWrapper wrapper = new CommonsConfigWrapper(config);
+		for(String key : List.of("server.host", "server.port", "server[@secure]", "server.dotted..key", "routes.route(1).backend", "weights.weight")) {
+			assertTrue(wrapper.containsNode(key), key);
+			assertEquals(config.getString(key), wrapper.getString(key), key);
+		}
+		assertEquals(8080, wrapper.getInteger("server.port"));
+		assertTrue(wrapper.getBoolean("server[@secure]"));
+		assertFalse(wrapper.isInteger("server.host"));
+		assertNull(wrapper.getInteger("server.host"));
+		assertFalse(wrapper.containsNode("server.missing"));
+		assertFalse(wrapper.containsNode("routes.route(3)"));
+		assertTrue(wrapper.isConfigSubsection("server"));
+		assertFalse(wrapper.isConfigSubsection("server.host"));
+		assertEquals(List.of("a", "b", "c"), wrapper.getList("routes.route.backend", BaseType.STRING, String.class));
+		assertEquals(List.of(1.5, 2.5), wrapper.getList("weights.weight", BaseType.DOUBLE, Double.class));
+		
+		// subsections and section lists point at their nodes instead of re-resolving their prefix
+		ConfigWrapper server = wrapper.getConfigSubsection("server");
+		assertEquals("localhost", server.getString("host"));
+		assertTrue(server.getBoolean("[@secure]"));
+		assertSame(server.getSource(), wrapper.getConfigSubsection("server").getSource());
+		List<ConfigWrapper> routes = wrapper.getList("routes.route", BaseType.CONFIG_SECTION, ConfigWrapper.class);
+		assertEquals(3, routes.size());
+		assertEquals("b", routes.get(1).getString("backend"));
+		assertEquals(List.of(), wrapper.getList("routes.missing", BaseType.CONFIG_SECTION, ConfigWrapper.class));
+		assertTrue(wrapper.isList("routes.route", BaseType.CONFIG_SECTION, ConfigWrapper.class));
+		assertTrue(wrapper.isList("routes.missing", BaseType.CONFIG_SECTION, ConfigWrapper.class));
+		assertFalse(wrapper.isList("server.host", BaseType.CONFIG_SECTION, ConfigWrapper.class));
+		assertFalse(wrapper.isList("server[@secure]", BaseType.CONFIG_SECTION, ConfigWrapper.class));
+		assertNull(wrapper.getList("server.host", BaseType.CONFIG_SECTION, ConfigWrapper.class));
+		for(String key : List.of("routes.route", "routes.missing", "server.host")) {
+			assertEquals(new CommonsConfigWrapper(config.subset("")).isList(key, BaseType.CONFIG_SECTION, ConfigWrapper.class), 
+					wrapper.isList(key, BaseType.CONFIG_SECTION, ConfigWrapper.class), key);
+		}
+		
+		// subsections stay CommonsConfigWrappers, so they can be layered
+		assertInstanceOf(CommonsConfigWrapper.class, server);
+		assertInstanceOf(CommonsConfigWrapper.class, routes.get(0));
+		Map<String, ConfigWrapper> layers = new LinkedHashMap<String, ConfigWrapper>();
+		layers.put("server", server);
+		layers.put("route", routes.get(2));
+		LayeredConfigWrapper layered = new LayeredConfigWrapper(layers);
+		assertEquals("localhost", layered.getString("host"));
+		assertEquals("c", layered.getString("backend"));
+		assertEquals("route", layered.getLayerName("backend"));
+		
+		// repeated elements are a list of sections that the layer supplies
+		BaseHierarchicalConfiguration servers = new BaseHierarchicalConfiguration();
+		servers.addProperty("servers(-1).host", "a");
+		servers.addProperty("servers(-1).host", "b");
+		Map<String, ConfigWrapper> serverLayers = new LinkedHashMap<String, ConfigWrapper>();
+		serverLayers.put("defaults", new SnakeYamlConfigWrapper(Map.of("servers", Map.of("host", "localhost"), "timeout", 5)));
+		serverLayers.put("servers", new CommonsConfigWrapper(servers));
+		LayeredConfigWrapper serverLayered = new LayeredConfigWrapper(serverLayers);
+		assertTrue(serverLayered.isList("servers", BaseType.CONFIG_SECTION, ConfigWrapper.class));
+		assertFalse(serverLayered.isConfigSubsection("servers"));
+		assertFalse(serverLayered.containsNode("servers.host"));
+		assertEquals(List.of("a", "b"), serverLayered.getList("servers", BaseType.CONFIG_SECTION, ConfigWrapper.class).stream()
+				.map(section -> section.getString("host")).toList());
+		assertEquals("servers", serverLayered.getLayerName("servers"));
+		assertEquals(5, serverLayered.getInteger("timeout"));
+		
+		// the root section sees changes to the configuration
+		config.setProperty("server.port", 9090);
+		assertEquals(9090, wrapper.getInteger("server.port"));
+		assertEquals("localhost", server.getString("host"));
+		
+		ConfigSpec<ConfigWrapper> routeSpec = Cfg.newSpec().addNode("backend", Cfg.Node.ofString());
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("server.host", Cfg.Node.ofString())
+				.addNode("server", Cfg.newSpec().addNode("port", Cfg.Node.ofInteger()))
+				.addNode("routes.route", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), routeSpec))
+				.addReference("routes.route[*].backend", "routes.route[*].backend");
+		assertTrue(spec.validate(wrapper).passed());
+		config.setProperty("server.port", "http");
+		assertFalse(spec.validate(wrapper).passed());
+		
+	}
+	
+	@Test
+	void payloadCursorTest() {
+		
+		ConfigSpec<ConfigWrapper> spec = payloadSpec();
+		List<Map<String, Object>> payloads = List.of(
+				payload(1, "alice", 8080),
+				payload(2, "bob", 70000),
+				payload(3, null, 80),
+				Map.of("id", "4", "server", Map.of("port", 1), "users", List.of(Map.of("name", 5), Map.of())),
+				Map.of());
+		for(Map<String, Object> payload : payloads) {
+			ConfigValidationResult expected = spec.validate(new SnakeYamlConfigWrapper(payload));
+			ConfigValidationResult result = PayloadCursor.forCurrentThread().validate(spec, payload);
+			assertEquals(expected.passed(), result.passed(), payload::toString);
+			if(!expected.passed()) {
+				assertEquals(expected.getFailMessage(), result.getFailMessage());
+			}
+		}
+		
+		// a filter that validates another payload gets its own cursor
+		ConfigSpec<ConfigWrapper> outer = Cfg.newSpec().addNode("inner", Cfg.Node.ofString(ConfigFilter.run(inner -> {
+			assertTrue(PayloadCursor.forCurrentThread().validate(spec, payloads.get(0)).passed());
+		})));
+		assertTrue(PayloadCursor.forCurrentThread().validate(outer, Map.of("inner", "x")).passed());
+		
+		PayloadCursor cursor = new PayloadCursor();
+		ConfigSpec<ConfigWrapper> reentrant = Cfg.newSpec().addNode("inner", Cfg.Node.ofString(ConfigFilter.run(inner -> {
+			cursor.validate(spec, payloads.get(0));
+		})));
+		assertThrows(IllegalStateException.class, () -> cursor.validate(reentrant, Map.of("inner", "x")));
+		assertTrue(cursor.validate(spec, payloads.get(0)).passed());
+		
+	}
+	
+	private static ConfigSpec<ConfigWrapper> payloadSpec() {
+		return Cfg.newSpec()
+				.addNode("id", Cfg.Node.ofInteger())
+				.addNode("server", Cfg.newSpec()
+						.addNode("host", Cfg.Node.ofString())
+						.addNode("port", Cfg.Node.ofInteger(port -> port < 65536 ? ConfigFilterResult.pass(port) : ConfigFilterResult.fail("Invalid port"))))
+				.addNode("server.tls.enabled", Cfg.Node.ofBoolean())
+				.addNode("users", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), Cfg.newSpec().addNode("name", Cfg.Node.ofString())))
+				.addNode("tags", Cfg.List.ofString());
+	}
+	
+	private static Map<String, Object> payload(int id, String user, int port) {
+		Map<String, Object> payload = new HashMap<String, Object>();
+		payload.put("id", id);
+		payload.put("server", Map.of("host", "localhost", "port", port, "tls", Map.of("enabled", true)));
+		payload.put("users", user == null ? List.of(Map.of()) : List.of(Map.of("name", user), Map.of("name", "admin")));
+		payload.put("tags", List.of("a", "b"));
+		return payload;
+	}
+	
+	/**
+	 * Wraps a config wrapper in a proxy that counts the calls made to it and to its subsections by method name and path.
+	 */
+	private static ConfigWrapper counting(ConfigWrapper configWrapper, Map<String, Integer> calls) {
+		return (ConfigWrapper) Proxy.newProxyInstance(ConfigWrapper.class.getClassLoader(), new Class<?>[] {ConfigWrapper.class}, 
+				(proxy, method, args) -> {
+					calls.merge(method.getName() + (args == null ? "" : args[0]), 1, Integer::sum);
+					Object result = method.invoke(configWrapper, args);
+					return result instanceof ConfigWrapper subsection ? counting(subsection, calls) : result;
+				});
+	}
+	
+	private enum Level {
+		INFO, DEBUG
+	}
+
+}
@@ -0,0 +1,58 @@
+package io.github.ttno1.configvalidation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ttno1.configvalidation.defaultwrappers.SnakeYamlConfigWrapper;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecorderEventsTest {
+
+	@Test
+	void recordedEventsTest() throws Exception {
+		
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(Map.of("name", "value", "section", Map.of("number", 5)));
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("name", Cfg.Node.ofString())
+				.addNode("section", Cfg.newSpec().addNode("number", Cfg.Node.ofString()));
+		
+		assertFalse(FlightRecorderEvents.isEnabled());
+		
+		Path file = Files.createTempFile("configvalidation", ".jfr");
+		try(Recording recording = new Recording()) {
+			recording.enable("io.github.ttno1.configvalidation.SpecValidation");
+			recording.enable("io.github.ttno1.configvalidation.NodeValidation");
+			recording.enable("io.github.ttno1.configvalidation.FilterExecution");
+			recording.enable("io.github.ttno1.configvalidation.WrapperLookup");
+			recording.start();
+			assertTrue(FlightRecorderEvents.isEnabled());
+			assertFalse(spec.validate(wrapper).passed());
+			recording.stop();
+			recording.dump(file);
+		}
+		
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+		Files.delete(file);
+		
+		assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().endsWith("NodeValidation")
+				&& "section.number".equals(event.getString("path")) && !event.getBoolean("passed")));
+		assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().endsWith("NodeValidation")
+				&& "name".equals(event.getString("path")) && event.getBoolean("passed") && "STRING".equals(event.getString("type"))));
+		assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().endsWith("WrapperLookup")
+				&& "name".equals(event.getString("path")) && "getString".equals(event.getString("method"))));
+		assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().endsWith("FilterExecution")
+				&& "section".equals(event.getString("path"))));
+		assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().endsWith("SpecValidation")
+				&& "".equals(event.getString("path")) && event.getInt("nodes") == 2));
+		
+	}
+
+}
@@ -0,0 +1,45 @@
+package io.github.ttno1.configvalidation;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.List;
+
+import io.github.ttno1.configvalidation.ConfigFilters.FileState;
+import io.github.ttno1.configvalidation.annotation.ConfigFilterRef;
+import io.github.ttno1.configvalidation.annotation.ConfigPath;
+import io.github.ttno1.configvalidation.annotation.ConfigRecord;
+
+@ConfigRecord
+public record TestConfigRecord(
+		boolean topBoolean,
+		int topInteger,
+		@ConfigPath("topString") String string,
+		@ConfigFilterRef("URL") URL topUrl,
+		@ConfigFilterRef(type = TestConfigRecord.class, value = "ENUM") TestEnum topEnum,
+		@ConfigPath("node.subLong") Long subLong,
+		Node node) {
+	
+	static final ConfigFilter<String, URL> URL = ConfigFilters.validURL();
+	
+	static final ConfigFilter<String, TestEnum> ENUM = ConfigFilters.validEnum(TestEnum.class);
+	
+	static final ConfigFilter<String, Path> PATH = ConfigFilters.validPath(FileState.PATH);
+	
+	@ConfigRecord
+	public record Node(String subString, @ConfigFilterRef(type = TestConfigRecord.class, value = "PATH") Path subPath) {}
+	
+	@ConfigRecord
+	public record Lists(List<Double> doubleList, List<Section> configSectionList) {}
+	
+	@ConfigRecord
+	public record Wrappers(@ConfigPath("configSectionList") List<ConfigWrapper> sections) {}
+	
+	static final ConfigFilter<String, Integer> NULL_LENGTH = string -> ConfigFilterResult.pass(null);
+	
+	@ConfigRecord
+	public record Primitives(int count, @ConfigPath("name") @ConfigFilterRef(type = TestConfigRecord.class, value = "NULL_LENGTH") int length) {}
+	
+	@ConfigRecord
+	public record Section(String title, @ConfigFilterRef(type = TestConfigRecord.class, value = "ENUM") TestEnum description) {}
+	
+}
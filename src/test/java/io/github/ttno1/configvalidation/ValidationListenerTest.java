@@ -0,0 +1,164 @@
+package io.github.ttno1.configvalidation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import io.github.ttno1.configvalidation.defaultwrappers.SnakeYamlConfigWrapper;
+
+public class ValidationListenerTest {
+
+	@Test
+	void listenerEventTest() {
+		
+		InputStream yamlStream = ValidationListenerTest.class.getResourceAsStream("/testListYamlConfig.yaml");
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(new Yaml().load(yamlStream));
+		assertDoesNotThrow(yamlStream::close);
+		
+		List<String> entered = new ArrayList<String>();
+		List<String> failed = new ArrayList<String>();
+		ValidationListener listener = new ValidationListener() {
+			@Override
+			public void nodeEntered(String path, BaseType baseType) {
+				entered.add(path);
+			}
+			@Override
+			public void nodeExited(String path, BaseType baseType, long wrapperNanos, long filterNanos, ConfigValidationResult result) {
+				if(!result.passed()) {
+					failed.add(path);
+				}
+			}
+		};
+		
+		ConfigValidationResult result = Cfg.newSpec()
+				.addNode("doubleList", Cfg.List.ofDouble())
+				.addNode("configSectionList", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), Cfg.newSpec()
+						.addNode("title", Cfg.Node.ofString())
+						.addNode("missing", Cfg.Node.ofString())))
+				.validate(wrapper, ValidationOptions.defaults().withListener(listener));
+		
+		assertFalse(result.passed());
+		assertTrue(entered.contains(""));
+		assertTrue(entered.contains("doubleList"));
+		assertTrue(entered.contains("configSectionList[2].title"), entered::toString);
+		assertTrue(failed.contains("configSectionList[0].missing"), failed::toString);
+		assertTrue(failed.contains("configSectionList"));
+		assertFalse(failed.contains("doubleList"));
+		
+	}
+	
+	@Test
+	void statisticsTest() {
+		
+		InputStream yamlStream = ValidationListenerTest.class.getResourceAsStream("/testYamlConfig.yaml");
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(new Yaml().load(yamlStream));
+		assertDoesNotThrow(yamlStream::close);
+		
+		ValidationStatistics statistics = new ValidationStatistics(3);
+		ConfigValidationResult result = Cfg.newSpec()
+				.addNode("topString", Cfg.Node.ofString())
+				.addNode("topInteger", Cfg.Node.ofInteger())
+				.addNode("node", Cfg.newSpec()
+						.addNode("subString", Cfg.Node.ofString())
+						.addNode("subLong", Cfg.Node.ofLong()))
+				.validate(wrapper, ValidationOptions.defaults().withListener(statistics));
+		
+		assertTrue(result.passed(), result::getFailMessage);
+		assertEquals(6, statistics.getNodeCount());
+		assertEquals(3, statistics.getSlowestNodes().size());
+		// the root spec includes the time of every other node
+		assertEquals("", statistics.getSlowestNodes().get(0).path());
+		assertEquals(6, statistics.getWrapperCalls().get("containsNode"));
+		assertEquals(2, statistics.getWrapperCalls().get("getString"));
+		assertEquals(2, statistics.getWrapperCalls().get("isConfigSubsection"));
+		
+	}
+
+	@Test
+	void publisherTest() throws InterruptedException {
+		
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec();
+		AtomicInteger filterCalls = new AtomicInteger();
+		for(int i = 0; i < 5000; i++) {
+			map.put("node" + i, i);
+			spec.addNode("node" + i, Cfg.Node.ofInteger(n -> {
+				filterCalls.incrementAndGet();
+				return n % 1000 == 999 ? ConfigFilterResult.fail("Invalid: " + n) : ConfigFilterResult.pass(n);
+			}));
+		}
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(map);
+		
+		// request one event at a time and receive every node followed by the root
+		List<ValidationEvent> events = new ArrayList<ValidationEvent>();
+		CountDownLatch completed = new CountDownLatch(1);
+		spec.publishAll(List.of(wrapper, wrapper), ValidationOptions.defaults()).subscribe(new Flow.Subscriber<ValidationEvent>() {
+			private Flow.Subscription subscription;
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(1);
+			}
+			@Override
+			public void onNext(ValidationEvent event) {
+				events.add(event);
+				subscription.request(1);
+			}
+			@Override
+			public void onError(Throwable throwable) {
+				fail(throwable);
+			}
+			@Override
+			public void onComplete() {
+				completed.countDown();
+			}
+		});
+		assertTrue(completed.await(30, TimeUnit.SECONDS));
+		assertEquals(10002, events.size());
+		assertEquals("node0", events.get(0).path());
+		assertEquals(new ValidationEvent(0, "", BaseType.CONFIG_SECTION, events.get(5000).result()), events.get(5000));
+		assertFalse(events.get(5000).passed());
+		assertEquals(6, events.stream().filter(event -> event.index() == 0 && !event.passed()).count());
+		assertEquals(1, events.get(10001).index());
+		
+		// cancel after a few events and check that validation stops
+		filterCalls.set(0);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		spec.publish(wrapper, ValidationOptions.defaults()).subscribe(new Flow.Subscriber<ValidationEvent>() {
+			private Flow.Subscription subscription;
+			private int received;
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(3);
+			}
+			@Override
+			public void onNext(ValidationEvent event) {
+				if(++received == 3) {
+					subscription.cancel();
+					cancelled.countDown();
+				}
+			}
+			@Override
+			public void onError(Throwable throwable) {}
+			@Override
+			public void onComplete() {}
+		});
+		assertTrue(cancelled.await(30, TimeUnit.SECONDS));
+		Thread.sleep(200);
+		assertTrue(filterCalls.get() < 5000, () -> filterCalls.get() + " nodes were validated after cancelling");
+		
+	}
+	
+}
@@ -0,0 +1,330 @@
+package io.github.ttno1.configvalidation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import io.github.ttno1.configvalidation.defaultwrappers.SnakeYamlConfigWrapper;
+
+public class ValidationOptionsTest {
+
+	@Test
+	void subtreeMemoizationTest() {
+		
+		Map<String, Object> yaml = new Yaml().load("""
+				defaults: &defaults
+				  timeout: -5
+				services:
+				  a: *defaults
+				  b: *defaults
+				  c:
+				    timeout: -5
+				""");
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(yaml);
+		
+		AtomicInteger filterCalls = new AtomicInteger();
+		ConfigSpec<ConfigWrapper> service = Cfg.newSpec().addNode("timeout", Cfg.Node.ofInteger(timeout -> {
+			filterCalls.incrementAndGet();
+			return timeout > 0 ? ConfigFilterResult.pass(timeout) : ConfigFilterResult.fail("Invalid timeout: " + timeout);
+		}));
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("defaults", service)
+				.addNode("services.a", service)
+				.addNode("services.b", service)
+				.addNode("services.c", service);
+		
+		ConfigValidationResult result = spec.validate(wrapper);
+		assertEquals(4, filterCalls.getAndSet(0));
+		
+		ConfigValidationResult memoized = spec.validate(wrapper, ValidationOptions.defaults().withSubtreeMemoization(true));
+		// the aliased section is validated once, the separate (equal but not identical) section on its own
+		assertEquals(2, filterCalls.get());
+		assertFalse(memoized.passed());
+		for(String path : new String[] {"defaults - ", "services.a - ", "services.b - ", "services.c - "}) {
+			assertTrue(memoized.getFailMessage().contains(path), path);
+		}
+		assertEquals(result.getFailMessage().lines().sorted().toList(), memoized.getFailMessage().lines().sorted().toList());
+		
+	}
+
+	@Test
+	void failureLimitsTest() {
+		
+		List<String> hosts = IntStream.range(0, 100000).mapToObj(i -> "host" + i).toList();
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(Map.of("hosts", hosts, "backups", hosts, "name", "a very long name"));
+		ConfigFilter<String, String> failing = host -> ConfigFilterResult.fail("Unreachable: " + host);
+		
+		ConfigValidationResult perNode = Cfg.newSpec()
+				.addNode("hosts", Cfg.List.ofString(ConfigFilter.nullFilter(), failing))
+				.addNode("parallelHosts", Cfg.List.ofString(ConfigFilter.nullFilter(), failing))
+				.validate(new SnakeYamlConfigWrapper(Map.of("hosts", hosts, "parallelHosts", hosts)), ValidationOptions.defaults().withMaxFailuresPerNode(3));
+		List<String> lines = perNode.getFailMessage().lines().toList();
+		assertEquals(11, lines.size(), perNode::getFailMessage);
+		assertTrue(lines.contains("Unreachable: host2"));
+		assertFalse(lines.contains("Unreachable: host3"));
+		assertEquals(2, lines.stream().filter("... and 99997 more"::equals).count());
+		
+		ConfigValidationResult parallel = Cfg.newSpec()
+				.addNode("hosts", Cfg.List.ofString(ConfigFilter.nullFilter(), failing).parallel(1000))
+				.validate(wrapper, ValidationOptions.defaults().withMaxFailuresPerNode(3));
+		assertEquals(Cfg.newSpec()
+				.addNode("hosts", Cfg.List.ofString(ConfigFilter.nullFilter(), failing))
+				.validate(wrapper, ValidationOptions.defaults().withMaxFailuresPerNode(3)).getFailMessage(), parallel.getFailMessage());
+		
+		ConfigValidationResult total = Cfg.newSpec()
+				.addNode("hosts", Cfg.List.ofString(ConfigFilter.nullFilter(), failing))
+				.addNode("backups", Cfg.List.ofString(ConfigFilter.nullFilter(), failing))
+				.addNode("name", Cfg.Node.ofString(name -> ConfigFilterResult.fail("Invalid name: " + name)))
+				.validate(wrapper, ValidationOptions.defaults().withMaxFailures(2).withMaxMessageLength(10));
+		lines = total.getFailMessage().lines().toList();
+		assertEquals(2, lines.stream().filter(line -> line.startsWith("Unreachab")).count(), total::getFailMessage);
+		assertTrue(lines.contains("Unreachabl..."), total::getFailMessage);
+		assertTrue(lines.contains("... and 99998 more"), total::getFailMessage);
+		assertTrue(lines.contains("... and 100000 more"), total::getFailMessage);
+		assertFalse(total.getFailMessage().contains("name -"), total::getFailMessage);
+		
+		ConfigFilterResult<List<String>> forEach = ConfigFilters.forEach(failing, 2).filter(hosts);
+		assertEquals(List.of(FailureCollector.LIST_HEADER, "Unreachable: host0", "Unreachable: host1", "... and 99998 more"), forEach.getFailMessage().lines().toList());
+		
+		// fail messages of failures that are only counted are never created
+		AtomicInteger messages = new AtomicInteger();
+		FailureCollector collector = new FailureCollector(FailureCollector.LIST_HEADER, 2, 100, null, 0);
+		for(int i = 0; i < 1000; i++) {
+			int index = i;
+			collector.add(null, i, () -> {
+				messages.incrementAndGet();
+				return "Invalid value: " + index;
+			}, true);
+		}
+		assertEquals(2, messages.get());
+		assertEquals(List.of(FailureCollector.LIST_HEADER, "Invalid value: 0", "Invalid value: 1", "... and 998 more"), collector.getFailMessage().lines().toList());
+		
+	}
+
+	@Test
+	void failureAggregationTest() {
+		
+		List<String> urls = IntStream.range(0, 10000).mapToObj(i -> i % 10 == 0 ? "http://host" + i : "host" + i).toList();
+		ConfigFilter<String, String> url = s -> s.startsWith("http://") ? ConfigFilterResult.pass(s) : ConfigFilterResult.fail("Invalid URL: " + s);
+		
+		ConfigFilterResult<List<String>> aggregated = ConfigFilters.forEachAggregated(url, 3).filter(urls);
+		assertEquals(List.of(FailureCollector.LIST_HEADER, "[1], [2], [3] and 8997 more - Invalid URL: host1"), aggregated.getFailMessage().lines().toList());
+		
+		List<Map<String, Object>> routes = IntStream.range(0, 1000).<Map<String, Object>>mapToObj(i -> i % 2 == 0 ? Map.of("url", urls.get(i)) : Map.of()).toList();
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(Map.of("routes", routes, "primary", "host", "secondary", "backup", "urls", urls));
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("primary", Cfg.Node.ofString(url))
+				.addNode("secondary", Cfg.Node.ofString(url))
+				.addNode("routes", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), Cfg.newSpec().addNode("url", Cfg.Node.ofString(url))));
+		
+		ConfigValidationResult result = spec.validate(wrapper, ValidationOptions.defaults().withFailureAggregation(2));
+		List<String> lines = result.getFailMessage().lines().toList();
+		assertEquals(7, lines.size(), result::getFailMessage);
+		assertEquals("primary, secondary - The node's filter failed with the following message: Invalid URL: host", lines.get(1));
+		assertEquals("[1], [3] and 498 more - The following nodes in the config spec failed validation: ", lines.get(3));
+		assertEquals("url - The node is not contained in the config", lines.get(4));
+		assertEquals("[2], [4] and 398 more - The following nodes in the config spec failed validation: ", lines.get(5));
+		assertEquals("url - The node's filter failed with the following message: Invalid URL: host2", lines.get(6));
+		
+		ConfigSpec<ConfigWrapper> parallelSpec = Cfg.newSpec()
+				.addNode("urls", Cfg.List.ofString(ConfigFilter.nullFilter(), url).parallel(100))
+				.addNode("routes", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), Cfg.newSpec().addNode("url", Cfg.Node.ofString(url))).parallel(50));
+		ConfigSpec<ConfigWrapper> sequentialSpec = Cfg.newSpec()
+				.addNode("urls", Cfg.List.ofString(ConfigFilter.nullFilter(), url))
+				.addNode("routes", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), Cfg.newSpec().addNode("url", Cfg.Node.ofString(url))));
+		ValidationOptions options = ValidationOptions.defaults().withFailureAggregation(5);
+		assertEquals(sequentialSpec.validate(wrapper, options).getFailMessage(), parallelSpec.validate(wrapper, options).getFailMessage());
+		
+	}
+
+	@Test
+	void costOrderingTest() {
+		
+		List<String> order = new ArrayList<String>();
+		ConfigFilter<String, String> expensive = ConfigFilter.<String>run(s -> order.add("expensive")).withCost(FilterCost.EXPENSIVE);
+		ConfigFilter<String, String> moderate = s -> {
+			order.add("moderate");
+			return ConfigFilterResult.pass(s);
+		};
+		ConfigFilter<String, String> cheap = ConfigFilter.<String>run(s -> order.add("cheap")).withCost(FilterCost.CHEAP);
+		
+		assertEquals(FilterCost.MODERATE, moderate.getCost());
+		assertEquals(FilterCost.EXPENSIVE, cheap.withFilter(expensive).getCost());
+		assertEquals(FilterCost.EXPENSIVE, expensive.thenRun(s -> {}).getCost());
+		assertEquals(FilterCost.CHEAP, ConfigFilter.nullFilter().getCost());
+		assertEquals(FilterCost.EXPENSIVE, ConfigFilters.validPath(ConfigFilters.FileState.EXISTENT).getCost());
+		assertEquals(FilterCost.CHEAP, ConfigFilters.validPath(ConfigFilters.FileState.PATH).getCost());
+		
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("a", Cfg.Node.ofString(expensive))
+				.addNode("b", Cfg.newSpec().addNode("c", Cfg.Node.ofString(moderate)))
+				.addNode("d", Cfg.Node.ofString(cheap))
+				.addNode("e", Cfg.Node.ofInteger())
+				.addNode("f", Cfg.Node.ofString(cheap));
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(Map.of("a", "x", "b", Map.of("c", "x"), "d", "x", "f", "x"));
+		ConfigValidationResult result = spec.validate(wrapper);
+		assertEquals(List.of("cheap", "cheap", "moderate", "expensive"), order);
+		
+		// failures are still listed in the order the nodes were added
+		order.clear();
+		ConfigValidationResult failed = spec.addNode("0", Cfg.Node.ofString(expensive)).validate(wrapper);
+		assertEquals(List.of("cheap", "cheap", "moderate", "expensive"), order);
+		assertFalse(result.passed());
+		assertEquals(List.of("e - The node is not contained in the config", "0 - The node is not contained in the config"), 
+				failed.getFailMessage().lines().skip(1).toList());
+		
+	}
+	
+	@Test
+	void failFastTest() {
+		
+		AtomicInteger expensiveRuns = new AtomicInteger();
+		ConfigFilter<String, String> expensive = ConfigFilter.<String>run(s -> expensiveRuns.incrementAndGet()).withCost(FilterCost.EXPENSIVE);
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("path", Cfg.Node.ofString(expensive))
+				.addNode("port", Cfg.Node.ofInteger())
+				.addNode("timeout", Cfg.Node.ofInteger());
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(Map.of("path", "/tmp", "port", "invalid", "timeout", "invalid"));
+		ValidationOptions options = ValidationOptions.defaults().withFailFast(true);
+		
+		ConfigValidationResult result = spec.validate(wrapper, options);
+		assertEquals(List.of("port - The node is not of type: INTEGER"), result.getFailMessage().lines().skip(1).toList());
+		assertEquals(0, expensiveRuns.get());
+		
+		assertEquals(3, spec.validate(wrapper).getFailMessage().lines().count());
+		assertEquals(1, expensiveRuns.get());
+		
+		List<String> hosts = List.of("a", "", "", "");
+		ConfigFilter<String, String> notEmpty = s -> s.isEmpty() ? ConfigFilterResult.fail("Empty") : ConfigFilterResult.pass(s);
+		ConfigValidationResult listResult = Cfg.newSpec()
+				.addNode("hosts", Cfg.List.ofString(ConfigFilter.nullFilter(), notEmpty).parallel(1))
+				.validate(new SnakeYamlConfigWrapper(Map.of("hosts", hosts)), options);
+		assertEquals(1, listResult.getFailMessage().lines().filter(line -> line.contains("Empty")).count(), listResult::getFailMessage);
+		
+	}
+	
+	@Test
+	void timeoutTest() throws InterruptedException {
+		
+		CountDownLatch interrupted = new CountDownLatch(2);
+		ConfigFilter<String, String> hanging = s -> {
+			try {
+				new CountDownLatch(1).await();
+			} catch(InterruptedException e) {
+				interrupted.countDown();
+			}
+			return ConfigFilterResult.pass(s);
+		};
+		ConfigFilter<String, String> notEmpty = s -> s.isEmpty() ? ConfigFilterResult.fail("Empty") : ConfigFilterResult.pass(s);
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(Map.of("mount", "/mnt/nfs", "name", "", "fifo", "/tmp/fifo"));
+		
+		ConfigValidationResult result = Cfg.newSpec()
+				.addNode("mount", Cfg.Node.ofString(ConfigFilters.timeout(hanging, Duration.ofMillis(50))))
+				.addNode("name", Cfg.Node.ofString(ConfigFilters.timeout(notEmpty, Duration.ofSeconds(10))))
+				.validate(wrapper);
+		assertEquals(List.of("mount - The node's filter failed with the following message: The filter timed out after 50 ms", 
+				"name - The node's filter failed with the following message: Empty"), result.getFailMessage().lines().skip(1).toList());
+		
+		long start = System.nanoTime();
+		ConfigValidationResult deadlineResult = Cfg.newSpec()
+				.addNode("mount", Cfg.Node.ofString(hanging.withCost(FilterCost.EXPENSIVE)))
+				.addNode("fifo", Cfg.Node.ofString(hanging.withCost(FilterCost.EXPENSIVE)))
+				.addNode("name", Cfg.Node.ofString())
+				.validate(wrapper, ValidationOptions.defaults().withTimeout(Duration.ofMillis(100)));
+		assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+		assertEquals(List.of("mount - The node's filter failed with the following message: " + TimedFilter.DEADLINE_MESSAGE, 
+				"fifo - " + TimedFilter.DEADLINE_MESSAGE), deadlineResult.getFailMessage().lines().skip(1).toList());
+		
+		// the abandoned filters were interrupted
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+		
+		// a timed filter is bounded by the deadline as well, while cheap filters stay on the calling thread
+		Thread caller = Thread.currentThread();
+		List<Thread> threads = new ArrayList<Thread>();
+		ConfigFilter<String, String> recording = s -> {
+			threads.add(Thread.currentThread());
+			return ConfigFilterResult.pass(s);
+		};
+		ConfigValidationResult timedResult = Cfg.newSpec()
+				.addNode("mount", Cfg.Node.ofString(ConfigFilters.timeout(hanging.withCost(FilterCost.EXPENSIVE), Duration.ofSeconds(10))))
+				.addNode("name", Cfg.Node.ofString(recording))
+				.addNode("names", Cfg.List.ofString(ConfigFilter.nullFilter(), recording.withCost(FilterCost.CHEAP)))
+				.validate(new SnakeYamlConfigWrapper(Map.of("mount", "/mnt/nfs", "name", "a", "names", List.of("b", "c"))), 
+						ValidationOptions.defaults().withTimeout(Duration.ofMillis(100)));
+		assertEquals(List.of("mount - The node's filter failed with the following message: " + TimedFilter.DEADLINE_MESSAGE), 
+				timedResult.getFailMessage().lines().skip(1).toList());
+		assertEquals(List.of(caller, caller, caller), threads);
+		
+		assertThrows(IllegalArgumentException.class, () -> ValidationOptions.defaults().withTimeout(Duration.ZERO));
+		assertThrows(IllegalStateException.class, () -> ConfigFilters.timeout(s -> {
+			throw new IllegalStateException("Filter failed");
+		}, Duration.ofSeconds(1)).filter(""));
+		
+	}
+	
+	@Test
+	void selectedPathsTest() {
+		
+		Map<String, Object> yaml = new Yaml().load("""
+				name: 5
+				modules:
+				  billing:
+				    currency: EUR
+				    retries: 3
+				  shipping:
+				    carrier: 7
+				routes:
+				  - backend: a
+				  - backend: 1
+				""");
+		AtomicInteger modulesFilterRuns = new AtomicInteger();
+		ConfigSpec<ConfigWrapper> billing = Cfg.newSpec().addNode("currency", Cfg.Node.ofString()).addNode("retries", Cfg.Node.ofInteger());
+		ConfigSpec<ConfigWrapper> shipping = Cfg.newSpec().addNode("carrier", Cfg.Node.ofString());
+		ConfigSpec<ConfigWrapper> modules = Cfg.newSpec().addNode("billing", billing).addNode("shipping", shipping)
+				.thenRun(section -> modulesFilterRuns.incrementAndGet());
+		ConfigSpec<ConfigWrapper> route = Cfg.newSpec().addNode("backend", Cfg.Node.ofString());
+		ConfigSpec<ConfigWrapper> spec = Cfg.newSpec()
+				.addNode("name", Cfg.Node.ofString())
+				.addNode("modules", modules)
+				.addNode("routes", Cfg.List.ofConfigSpec(ConfigFilter.nullFilter(), route));
+		ConfigWrapper wrapper = new SnakeYamlConfigWrapper(yaml);
+		
+		assertEquals(3, spec.validate(wrapper).getFailMessage().lines().filter(line -> line.contains("not of type")).count());
+		assertEquals(0, modulesFilterRuns.get());
+		
+		assertTrue(spec.validate(wrapper, ValidationOptions.defaults().withSelectedPaths(List.of("modules.billing"))).passed());
+		assertEquals(1, modulesFilterRuns.get());
+		assertTrue(spec.validate(wrapper, ValidationOptions.defaults().withSelectedPaths(List.of("modules.billing.currency", "routes[0]"))).passed());
+		assertTrue(spec.validate(wrapper, ValidationOptions.defaults().withSelectedPaths(List.of("modules.ship"))).passed());
+		
+		String failMessage = spec.validate(wrapper, ValidationOptions.defaults().withSelectedPaths(List.of("modules.shipping", "routes[1].backend"))).getFailMessage();
+		assertTrue(failMessage.contains("carrier - The node is not of type: STRING"));
+		assertTrue(failMessage.contains("backend - The node is not of type: STRING"));
+		assertFalse(failMessage.contains("name - "));
+		assertEquals(3, spec.validate(wrapper, ValidationOptions.defaults().withSelectedPaths(List.of(""))).getFailMessage().lines()
+				.filter(line -> line.contains("not of type")).count());
+		assertEquals(3, spec.validate(wrapper, ValidationOptions.defaults().withSelectedPaths(List.of("modules")).withSelectedPaths(null)).getFailMessage().lines()
+				.filter(line -> line.contains("not of type")).count());
+		
+		// a memoized section that was partially selected at one alias is still validated in full at another
+		Map<String, Object> server = Map.of("host", "localhost", "port", "http");
+		ConfigSpec<ConfigWrapper> serverSpec = Cfg.newSpec().addNode("host", Cfg.Node.ofString()).addNode("port", Cfg.Node.ofInteger());
+		ConfigSpec<ConfigWrapper> aliases = Cfg.newSpec().addNode("primary", serverSpec).addNode("backup", serverSpec);
+		ValidationOptions options = ValidationOptions.defaults().withSubtreeMemoization(true).withSelectedPaths(List.of("primary.host", "backup"));
+		ConfigValidationResult result = aliases.validate(new SnakeYamlConfigWrapper(Map.of("primary", server, "backup", server)), options);
+		assertFalse(result.passed());
+		assertTrue(result.getFailMessage().contains("port - The node is not of type: INTEGER"));
+		
+	}
+	
+}